@@ -0,0 +1,83 @@
+package com.lwa.shop.lwa_benchmark;
+
+import com.lwa.shop.lwa_order_service.entity.Order;
+import com.lwa.shop.lwa_order_service.entity.OrderItem;
+import com.lwa.shop.lwa_order_service.model.Variant;
+import com.lwa.shop.lwa_order_service.model.response.OrderItemResponseDTO;
+import com.lwa.shop.lwa_order_service.model.response.OrderResponseDTO;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+/**
+ * Sample data shaped like what the services handle in production.
+ */
+public final class Fixtures {
+
+    private Fixtures() {
+    }
+
+    public static Order order(int itemCount) {
+        Order order = new Order();
+        order.setId(42L);
+        order.setCustomerName("John Doe");
+        order.setStatus("PENDING");
+        order.setReservationId("6f1c2e4a-9b0d-4f43-a7a5-3c1d2e4f5a6b");
+
+        List<OrderItem> items = new ArrayList<>(itemCount);
+        double totalAmount = 0.0;
+        for (int i = 0; i < itemCount; i++) {
+            OrderItem item = new OrderItem();
+            item.setId((long) i + 1);
+            item.setVariantId((long) i + 100);
+            item.setQuantity(1 + i % 3);
+            item.setPrice(99_000.0 + i);
+            item.setColor(i % 2 == 0 ? "Black" : "White");
+            item.setSize(i % 3 == 0 ? "M" : "L");
+            item.setOrder(order);
+            totalAmount += item.getPrice() * item.getQuantity();
+            items.add(item);
+        }
+        order.setOrderItems(items);
+        order.setTotalAmount(totalAmount);
+        return order;
+    }
+
+    /**
+     * The response of {@link #order(int)} as the API returns it.
+     */
+    public static OrderResponseDTO orderResponse(int itemCount) {
+        Order order = order(itemCount);
+        OrderResponseDTO dto = new OrderResponseDTO();
+        dto.setId(order.getId());
+        dto.setCustomerName(order.getCustomerName());
+        dto.setStatus(order.getStatus());
+        dto.setTotalAmount(order.getTotalAmount());
+        dto.setOrderItems(order.getOrderItems().stream()
+                .map(item -> {
+                    OrderItemResponseDTO itemDto = new OrderItemResponseDTO();
+                    itemDto.setId(item.getId());
+                    itemDto.setQuantity(item.getQuantity());
+                    itemDto.setPrice(item.getPrice());
+                    itemDto.setVariantColor(item.getColor());
+                    itemDto.setVariantSize(item.getSize());
+                    return itemDto;
+                })
+                .toList());
+        return dto;
+    }
+
+    public static Variant variant(long id) {
+        Date now = new Date();
+        return new Variant(id, "Black", "M", 149_000.0, 25, now, now, "SYSTEM", "SYSTEM");
+    }
+
+    public static List<Variant> variants(int count) {
+        List<Variant> variants = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            variants.add(variant(i + 1));
+        }
+        return variants;
+    }
+}
@@ -0,0 +1,53 @@
+package com.lwa.shop.lwa_benchmark;
+
+import com.lwa.shop.lwa_order_service.model.Variant;
+import com.lwa.shop.lwa_order_service.model.response.OrderResponseDTO;
+import com.lwa.shop.lwa_order_service.util.JsonUtil;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link JsonUtil} is used for request logging and for outbox payloads.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class JsonUtilBenchmark {
+
+    private Variant variant;
+    private String variantJson;
+    private OrderResponseDTO order;
+    private String orderJson;
+
+    @Setup
+    public void setUp() {
+        variant = Fixtures.variant(1);
+        variantJson = JsonUtil.toJson(variant);
+        order = Fixtures.orderResponse(10);
+        orderJson = JsonUtil.toJson(order);
+    }
+
+    @Benchmark
+    public String variantToJson() {
+        return JsonUtil.toJson(variant);
+    }
+
+    @Benchmark
+    public Variant variantFromJson() {
+        return JsonUtil.fromJson(variantJson, Variant.class);
+    }
+
+    @Benchmark
+    public String orderToJson() {
+        return JsonUtil.toJson(order);
+    }
+
+    @Benchmark
+    public OrderResponseDTO orderFromJson() {
+        return JsonUtil.fromJson(orderJson, OrderResponseDTO.class);
+    }
+}
@@ -0,0 +1,51 @@
+package com.lwa.shop.lwa_benchmark;
+
+import com.lwa.shop.lwa_order_service.entity.Order;
+import com.lwa.shop.lwa_order_service.entity.OrderSummary;
+import com.lwa.shop.lwa_order_service.model.response.OrderResponseDTO;
+import com.lwa.shop.lwa_order_service.service.OrderSummaryProjector;
+import com.lwa.shop.lwa_order_service.util.JsonUtil;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Building an {@link OrderResponseDTO}: from the order entity on writes, from the {@link OrderSummary} row on reads.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class OrderMappingBenchmark {
+
+    @Param({"1", "10", "100"})
+    private int itemCount;
+
+    private Order order;
+    private OrderSummary summary;
+
+    @Setup
+    public void setUp() {
+        order = Fixtures.order(itemCount);
+        OrderResponseDTO response = OrderSummaryProjector.toResponse(order);
+        summary = new OrderSummary();
+        summary.setId(response.getId());
+        summary.setCustomerName(response.getCustomerName());
+        summary.setStatus(response.getStatus());
+        summary.setTotalAmount(response.getTotalAmount());
+        summary.setItemCount(itemCount);
+        summary.setItemsJson(JsonUtil.toJson(response.getOrderItems()));
+    }
+
+    @Benchmark
+    public OrderResponseDTO fromOrder() {
+        return OrderSummaryProjector.toResponse(order);
+    }
+
+    @Benchmark
+    public OrderResponseDTO fromSummary() {
+        return OrderSummaryProjector.toResponse(summary);
+    }
+}
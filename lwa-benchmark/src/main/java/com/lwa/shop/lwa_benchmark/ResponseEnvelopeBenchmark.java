@@ -0,0 +1,47 @@
+package com.lwa.shop.lwa_benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.lwa.shop.lwa_order_service.model.GeneralResponse;
+import com.lwa.shop.lwa_order_service.model.Variant;
+import com.lwa.shop.lwa_order_service.model.response.OrderResponseDTO;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Writing a {@link GeneralResponse} envelope the way Spring MVC does, with a mapper configured like Boot's.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class ResponseEnvelopeBenchmark {
+
+    @Param({"1", "10", "100"})
+    private int size;
+
+    private ObjectMapper objectMapper;
+    private GeneralResponse<OrderResponseDTO> orderResponse;
+    private GeneralResponse<List<Variant>> variantsResponse;
+
+    @Setup
+    public void setUp() {
+        objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        orderResponse = new GeneralResponse<>("200", "Success", "Order found", Fixtures.orderResponse(size));
+        variantsResponse = new GeneralResponse<>("200", "Success", "Variants found", Fixtures.variants(size));
+    }
+
+    @Benchmark
+    public byte[] orderEnvelope() throws Exception {
+        return objectMapper.writeValueAsBytes(orderResponse);
+    }
+
+    @Benchmark
+    public byte[] variantListEnvelope() throws Exception {
+        return objectMapper.writeValueAsBytes(variantsResponse);
+    }
+}
@@ -0,0 +1,68 @@
+package com.lwa.shop.lwa_benchmark;
+
+import com.lwa.shop.lwa_product_service.LwaProductServiceApplication;
+import com.lwa.shop.lwa_product_service.entity.Variant;
+import com.lwa.shop.lwa_product_service.repository.VariantRepository;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The conditional stock update behind reduce-stock, against an in-memory H2 started with the product service context.
+ * {@code contended} runs four threads on the same row, {@code uncontended} one.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class VariantRepositoryBenchmark {
+
+    private static final int STOCK = Integer.MAX_VALUE / 2;
+
+    private ConfigurableApplicationContext context;
+    private VariantRepository variantRepository;
+    private JdbcTemplate jdbcTemplate;
+    private Long variantId;
+
+    @Setup(Level.Trial)
+    public void startContext() {
+        context = new SpringApplicationBuilder(LwaProductServiceApplication.class)
+                .properties("spring.config.location=classpath:/benchmark-product.properties")
+                .run();
+        variantRepository = context.getBean(VariantRepository.class);
+        jdbcTemplate = context.getBean(JdbcTemplate.class);
+
+        Variant variant = new Variant();
+        variant.setColor("Black");
+        variant.setSize("M");
+        variant.setPrice(149_000D);
+        variant.setStock(STOCK);
+        variantId = variantRepository.save(variant).getId();
+    }
+
+    @Setup(Level.Iteration)
+    public void refill() {
+        jdbcTemplate.update("UPDATE variant SET stock = ? WHERE id = ?", STOCK, variantId);
+    }
+
+    @TearDown(Level.Trial)
+    public void stopContext() {
+        context.close();
+    }
+
+    @Benchmark
+    public int uncontended() {
+        return variantRepository.reduceStock(variantId, 1);
+    }
+
+    @Benchmark
+    @Threads(4)
+    public int contended() {
+        return variantRepository.reduceStock(variantId, 1);
+    }
+}
@@ -0,0 +1,138 @@
+package com.lwa.shop.lwa_benchmark.load;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.lwa.shop.lwa_order_service.LwaOrderServiceApplication;
+import com.lwa.shop.lwa_order_service.model.request.OrderItemRequestDTO;
+import com.lwa.shop.lwa_order_service.model.request.OrderRequestDTO;
+import lombok.extern.slf4j.Slf4j;
+import org.HdrHistogram.Histogram;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.File;
+import java.net.URI;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Capacity test of {@code POST /order/orders}: starts Order Service on an in-memory database against a
+ * {@link ProductServiceStub}, offers a fixed arrival rate and reports throughput and latency percentiles.
+ * <p>
+ * Options, all {@code --name=value}: {@code rate} (orders per second), {@code duration} and {@code warmup} (seconds),
+ * {@code items} (lines per order), {@code variants} (distinct variant ids), {@code latency-ms}, {@code jitter-ms}
+ * and {@code error-rate} of the stub, {@code max-in-flight}, {@code result} (JSON file).
+ * Any other {@code --spring.*} or {@code --order.*} option is passed to Order Service, e.g.
+ * {@code --order.line-processing.mode=PARALLEL}.
+ */
+@Slf4j
+public class LoadTest {
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = new HashMap<>(Map.of(
+                "rate", "200", "duration", "30", "warmup", "10", "items", "3", "variants", "1000",
+                "latency-ms", "5", "jitter-ms", "5", "error-rate", "0", "max-in-flight", "5000",
+                "result", "target/load-result.json"));
+        List<String> serviceProperties = new ArrayList<>();
+        for (String arg : args) {
+            if (!arg.startsWith("--") || !arg.contains("=")) {
+                throw new IllegalArgumentException("Expected --name=value, got " + arg);
+            }
+            String name = arg.substring(2, arg.indexOf('='));
+            if (options.containsKey(name)) {
+                options.put(name, arg.substring(arg.indexOf('=') + 1));
+            } else {
+                serviceProperties.add(arg.substring(2));
+            }
+        }
+
+        double rate = Double.parseDouble(options.get("rate"));
+        int items = Integer.parseInt(options.get("items"));
+        int variants = Integer.parseInt(options.get("variants"));
+        int maxInFlight = Integer.parseInt(options.get("max-in-flight"));
+
+        try (ProductServiceStub stub = new ProductServiceStub(0,
+                Long.parseLong(options.get("latency-ms")), Long.parseLong(options.get("jitter-ms")),
+                Double.parseDouble(options.get("error-rate")), 512)) {
+
+            serviceProperties.add(0, "spring.config.location=classpath:/load-order.properties");
+            serviceProperties.add("spring.cloud.discovery.client.simple.instances.lwa-product-service[0].uri=http://localhost:" + stub.port());
+            try (ConfigurableApplicationContext context = new SpringApplicationBuilder(LwaOrderServiceApplication.class)
+                    .properties(serviceProperties.toArray(String[]::new))
+                    .run()) {
+                int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+                URI uri = URI.create("http://localhost:" + port + "/order/orders");
+                ObjectMapper objectMapper = new ObjectMapper();
+                OpenLoadGenerator generator = new OpenLoadGenerator(uri, () -> orderJson(objectMapper, items, variants), maxInFlight);
+
+                log.info("Warming up for {} s at {} orders/s", options.get("warmup"), rate);
+                generator.run(rate, Duration.ofSeconds(Long.parseLong(options.get("warmup"))));
+                log.info("Measuring for {} s at {} orders/s", options.get("duration"), rate);
+                OpenLoadGenerator.Result result = generator.run(rate, Duration.ofSeconds(Long.parseLong(options.get("duration"))));
+
+                report(options, serviceProperties, result);
+            }
+        }
+    }
+
+    private static String orderJson(ObjectMapper objectMapper, int items, int variants) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        List<OrderItemRequestDTO> lines = new ArrayList<>(items);
+        for (int i = 0; i < items; i++) {
+            OrderItemRequestDTO line = new OrderItemRequestDTO();
+            line.setVariantId(1L + random.nextInt(variants));
+            line.setQuantity(1);
+            lines.add(line);
+        }
+        try {
+            return objectMapper.writeValueAsString(new OrderRequestDTO("load-test", lines));
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static void report(Map<String, String> options, List<String> serviceProperties,
+                               OpenLoadGenerator.Result result) throws Exception {
+        Histogram latency = result.latency();
+        Map<String, Object> percentiles = new LinkedHashMap<>();
+        percentiles.put("p50", millis(latency.getValueAtPercentile(50)));
+        percentiles.put("p90", millis(latency.getValueAtPercentile(90)));
+        percentiles.put("p99", millis(latency.getValueAtPercentile(99)));
+        percentiles.put("p999", millis(latency.getValueAtPercentile(99.9)));
+        percentiles.put("max", millis(latency.getMaxValue()));
+
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("options", new LinkedHashMap<>(options));
+        report.put("serviceProperties", serviceProperties);
+        report.put("offeredRate", Double.parseDouble(options.get("rate")));
+        report.put("throughput", Math.round(result.throughput() * 10) / 10.0);
+        report.put("sent", result.sent());
+        report.put("succeeded", result.succeeded());
+        report.put("failed", result.failed());
+        report.put("dropped", result.dropped());
+        report.put("latencyMs", percentiles);
+
+        System.out.printf("%nPOST /order/orders at %s/s: %.1f orders/s, %d ok, %d failed, %d dropped%n",
+                options.get("rate"), result.throughput(), result.succeeded(), result.failed(), result.dropped());
+        System.out.printf("latency ms  p50 %s  p90 %s  p99 %s  p99.9 %s  max %s%n",
+                percentiles.get("p50"), percentiles.get("p90"), percentiles.get("p99"),
+                percentiles.get("p999"), percentiles.get("max"));
+
+        File file = new File(options.get("result"));
+        if (file.getParentFile() != null) {
+            file.getParentFile().mkdirs();
+        }
+        new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT).writeValue(file, report);
+        System.out.println("Result written to " + file.getPath());
+    }
+
+    private static double millis(long nanos) {
+        return Math.round(nanos / 1_000.0) / 1_000.0;
+    }
+}
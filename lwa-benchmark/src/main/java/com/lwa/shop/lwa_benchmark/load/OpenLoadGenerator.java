@@ -0,0 +1,101 @@
+package com.lwa.shop.lwa_benchmark.load;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Supplier;
+
+/**
+ * Open-model load: requests start at a fixed arrival rate whether or not earlier ones have finished,
+ * the way independent users arrive. Latency is measured from the time a request was due to start,
+ * so a stalled server shows up in the percentiles instead of silently lowering the offered load.
+ */
+public class OpenLoadGenerator {
+
+    public record Result(long durationNanos, long sent, long succeeded, long failed, long dropped, Histogram latency) {
+
+        public double throughput() {
+            return succeeded / (durationNanos / 1e9);
+        }
+    }
+
+    private final HttpClient client;
+    private final URI uri;
+    private final Supplier<String> body;
+    private final int maxInFlight;
+
+    public OpenLoadGenerator(URI uri, Supplier<String> body, int maxInFlight) {
+        this.uri = uri;
+        this.body = body;
+        this.maxInFlight = maxInFlight;
+        this.client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(5))
+                // Daemon threads, so the JVM exits once the run is over
+                .executor(Executors.newFixedThreadPool(Math.max(4, Runtime.getRuntime().availableProcessors()), runnable -> {
+                    Thread thread = new Thread(runnable, "load-client");
+                    thread.setDaemon(true);
+                    return thread;
+                }))
+                .build();
+    }
+
+    /**
+     * Offer {@code ratePerSecond} requests per second for the given time and wait for the stragglers.
+     * A request that would exceed {@code maxInFlight} is dropped and counted, not queued.
+     */
+    public Result run(double ratePerSecond, Duration duration) {
+        Recorder recorder = new Recorder(3);
+        LongAdder succeeded = new LongAdder();
+        LongAdder failed = new LongAdder();
+        long dropped = 0;
+        Semaphore inFlight = new Semaphore(maxInFlight);
+
+        long intervalNanos = (long) (1e9 / ratePerSecond);
+        long total = (long) (ratePerSecond * duration.toNanos() / 1e9);
+        long start = System.nanoTime();
+
+        for (long i = 0; i < total; i++) {
+            long intendedStart = start + i * intervalNanos;
+            long wait = intendedStart - System.nanoTime();
+            if (wait > 0) {
+                LockSupport.parkNanos(wait);
+            }
+            if (!inFlight.tryAcquire()) {
+                dropped++;
+                continue;
+            }
+            HttpRequest request = HttpRequest.newBuilder(uri)
+                    .timeout(Duration.ofSeconds(30))
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofString(body.get()))
+                    .build();
+            client.sendAsync(request, HttpResponse.BodyHandlers.discarding())
+                    .whenComplete((response, error) -> {
+                        recorder.recordValue(Math.max(0, System.nanoTime() - intendedStart));
+                        if (error == null && response.statusCode() / 100 == 2) {
+                            succeeded.increment();
+                        } else {
+                            failed.increment();
+                        }
+                        inFlight.release();
+                    });
+        }
+
+        // Let the last requests finish, they belong to this run
+        inFlight.acquireUninterruptibly(maxInFlight);
+        inFlight.release(maxInFlight);
+        long durationNanos = System.nanoTime() - start;
+        return new Result(durationNanos, total - dropped, succeeded.sum(), failed.sum(), dropped,
+                recorder.getIntervalHistogram());
+    }
+}
@@ -0,0 +1,157 @@
+package com.lwa.shop.lwa_benchmark.load;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.lwa.shop.lwa_order_service.model.GeneralResponse;
+import com.lwa.shop.lwa_order_service.model.Variant;
+import com.lwa.shop.lwa_order_service.model.VariantBatch;
+import com.lwa.shop.lwa_order_service.model.request.ReserveStockRequest;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Stand-in for Product Service that answers every {@code LwaProductFeign} endpoint from memory.
+ * Stock never runs out. Each call waits {@code latencyMs} plus a uniform random {@code jitterMs},
+ * and a share of {@code errorRate} calls fails with 503.
+ * Like Product Service it reads and writes Smile when the caller asks for it, JSON otherwise.
+ */
+@Slf4j
+public class ProductServiceStub implements AutoCloseable {
+
+    private static final String SMILE = "application/x-jackson-smile";
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final ObjectMapper smileMapper = new ObjectMapper(new SmileFactory());
+    private final long latencyMs;
+    private final long jitterMs;
+    private final double errorRate;
+    private final HttpServer server;
+    private final ExecutorService executor;
+
+    public ProductServiceStub(int port, long latencyMs, long jitterMs, double errorRate, int threads) throws IOException {
+        this.latencyMs = latencyMs;
+        this.jitterMs = jitterMs;
+        this.errorRate = errorRate;
+        this.server = HttpServer.create(new InetSocketAddress("localhost", port), 1024);
+        // Handlers sleep to simulate latency, so the pool bounds how many calls can be in progress
+        this.executor = Executors.newFixedThreadPool(threads);
+        server.setExecutor(executor);
+        server.createContext("/product/variants", this::handle);
+        server.start();
+        log.info("Product Service stub on port {}: latency {} ms + up to {} ms, error rate {}",
+                port(), latencyMs, jitterMs, errorRate);
+    }
+
+    public int port() {
+        return server.getAddress().getPort();
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try {
+            pause();
+            if (errorRate > 0 && ThreadLocalRandom.current().nextDouble() < errorRate) {
+                write(exchange, 503, new GeneralResponse<>("503", "FAILED", "Injected error", null));
+                return;
+            }
+            write(exchange, 200, route(exchange));
+        } catch (RuntimeException | IOException e) {
+            log.error("Stub failed on {} {}", exchange.getRequestMethod(), exchange.getRequestURI(), e);
+            write(exchange, 500, new GeneralResponse<>("500", "FAILED", e.getMessage(), null));
+        } finally {
+            exchange.close();
+        }
+    }
+
+    private GeneralResponse<?> route(HttpExchange exchange) throws IOException {
+        String method = exchange.getRequestMethod();
+        // Path below /product/variants, e.g. "", "/reserve", "/7/reduce-stock", "/reservations/abc/release"
+        String[] path = exchange.getRequestURI().getPath().substring("/product/variants".length()).split("/");
+
+        if ("POST".equals(method) && path.length == 2 && "reserve".equals(path[1])) {
+            ReserveStockRequest request = read(exchange, ReserveStockRequest.class);
+            List<Variant> variants = request.getItems().stream().map(item -> variant(item.getVariantId())).toList();
+            return new GeneralResponse<>("200", "Success", "Stock reserved", variants);
+        }
+        if ("POST".equals(method) && path.length == 4 && "reservations".equals(path[1])) {
+            return new GeneralResponse<>("200", "Success", "Reservation released", null);
+        }
+        if ("PUT".equals(method) && path.length == 3) {
+            return new GeneralResponse<>("200", "Success", "Stock updated", variant(Long.valueOf(path[1])));
+        }
+        if ("GET".equals(method) && path.length == 2) {
+            return new GeneralResponse<>("200", "Success", "Variant found", variant(Long.valueOf(path[1])));
+        }
+        if ("GET".equals(method) && path.length == 0) {
+            List<Variant> variants = Arrays.stream(query(exchange, "ids").split(","))
+                    .map(id -> variant(Long.valueOf(id)))
+                    .toList();
+            return new GeneralResponse<>("200", "Success", "Variants found", new VariantBatch(variants, List.of()));
+        }
+        throw new IllegalArgumentException("No stub for " + method + " " + exchange.getRequestURI());
+    }
+
+    private void pause() {
+        long delay = latencyMs + (jitterMs > 0 ? ThreadLocalRandom.current().nextLong(jitterMs + 1) : 0);
+        if (delay <= 0) {
+            return;
+        }
+        try {
+            TimeUnit.MILLISECONDS.sleep(delay);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private Variant variant(Long id) {
+        Date now = new Date();
+        return new Variant(id, "Black", "M", 100_000.0, 1_000_000, now, now, "SYSTEM", "SYSTEM");
+    }
+
+    private String query(HttpExchange exchange, String name) {
+        String query = exchange.getRequestURI().getQuery();
+        for (String pair : query == null ? new String[0] : query.split("&")) {
+            if (pair.startsWith(name + "=")) {
+                return pair.substring(name.length() + 1).replace("%2C", ",");
+            }
+        }
+        throw new IllegalArgumentException("Missing query parameter " + name);
+    }
+
+    private <T> T read(HttpExchange exchange, Class<T> type) throws IOException {
+        String contentType = exchange.getRequestHeaders().getFirst("Content-Type");
+        ObjectMapper mapper = contentType != null && contentType.startsWith(SMILE) ? smileMapper : objectMapper;
+        try (InputStream body = exchange.getRequestBody()) {
+            return mapper.readValue(body, type);
+        }
+    }
+
+    private void write(HttpExchange exchange, int status, Object body) throws IOException {
+        String accept = exchange.getRequestHeaders().getFirst("Accept");
+        boolean smile = accept != null && accept.contains(SMILE);
+        byte[] bytes = (smile ? smileMapper : objectMapper).writeValueAsBytes(body);
+        exchange.getResponseHeaders().set("Content-Type", smile ? SMILE : "application/json");
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+}
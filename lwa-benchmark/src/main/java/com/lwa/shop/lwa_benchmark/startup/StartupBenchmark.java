@@ -0,0 +1,236 @@
+package com.lwa.shop.lwa_benchmark.startup;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/**
+ * Time to first request of each service: launches its jar as a new JVM, polls a real endpoint until it answers
+ * {@code 200} and reports the elapsed time, per module and mode.
+ * <p>
+ * {@code default} runs the executable jar as is, {@code fast-start} runs the extracted jar with the AppCDS archive,
+ * the AOT bean definitions (not for Eureka Server) and the fast-start profile. Both come from {@code mvn -Pfast-start package} in
+ * each service module. Each module and mode starts once unmeasured (schema creation, cold file cache), then
+ * {@code runs} times measured, against its own file database and without Eureka.
+ * <p>
+ * Options, all {@code --name=value}: {@code runs}, {@code modules} and {@code modes} (comma separated),
+ * {@code timeout} (seconds per start), {@code root} (directory of the service modules), {@code result} (JSON file).
+ */
+@Slf4j
+public class StartupBenchmark {
+
+    private static final Pattern STARTED = Pattern.compile("Started \\S+ in ([0-9.]+) seconds");
+
+    private record Module(String name, String path, boolean database, boolean aot, List<String> properties) {
+    }
+
+    private record Launch(Path directory, List<String> command) {
+    }
+
+    private static final Map<String, Module> MODULES = Map.of(
+            "lwa-eureka-service", new Module("lwa-eureka-service", "/eureka/apps", false, false, List.of()),
+            "lwa-product-service", new Module("lwa-product-service", "/product/items", true, true, List.of(
+                    // Plain properties: conditions such as eureka.client.enabled are fixed in the AOT build
+                    "--eureka.client.register-with-eureka=false", "--eureka.client.fetch-registry=false")),
+            "lwa-order-service", new Module("lwa-order-service", "/order/orders", true, true, List.of(
+                    "--eureka.client.register-with-eureka=false", "--eureka.client.fetch-registry=false")));
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = new HashMap<>(Map.of(
+                "runs", "5", "modules", "lwa-eureka-service,lwa-product-service,lwa-order-service",
+                "modes", "default,fast-start", "timeout", "120", "root", "..",
+                "result", "target/startup-result.json"));
+        for (String arg : args) {
+            if (!arg.startsWith("--") || !arg.contains("=")) {
+                throw new IllegalArgumentException("Expected --name=value, got " + arg);
+            }
+            String name = arg.substring(2, arg.indexOf('='));
+            if (!options.containsKey(name)) {
+                throw new IllegalArgumentException("Unknown option " + arg);
+            }
+            options.put(name, arg.substring(arg.indexOf('=') + 1));
+        }
+
+        int runs = Integer.parseInt(options.get("runs"));
+        Duration timeout = Duration.ofSeconds(Long.parseLong(options.get("timeout")));
+        Path root = Path.of(options.get("root")).toAbsolutePath().normalize();
+        Path work = Files.createTempDirectory("lwa-startup");
+        HttpClient client = HttpClient.newBuilder().connectTimeout(Duration.ofMillis(200)).build();
+
+        List<Map<String, Object>> results = new ArrayList<>();
+        for (String moduleName : options.get("modules").split(",")) {
+            Module module = MODULES.get(moduleName.trim());
+            if (module == null) {
+                throw new IllegalArgumentException("Unknown module " + moduleName + ", one of " + MODULES.keySet());
+            }
+            for (String mode : options.get("modes").split(",")) {
+                Launch launch = launch(root.resolve(module.name()), module, mode.trim(), work);
+                log.info("Starting {} ({}) once to warm up", module.name(), mode);
+                start(client, launch, module, work.resolve(module.name() + "-" + mode + "-0.log"), timeout);
+
+                List<Long> firstRequestMs = new ArrayList<>();
+                List<Long> readyMs = new ArrayList<>();
+                for (int run = 1; run <= runs; run++) {
+                    long[] sample = start(client, launch, module,
+                            work.resolve(module.name() + "-" + mode + "-" + run + ".log"), timeout);
+                    firstRequestMs.add(sample[0]);
+                    readyMs.add(sample[1]);
+                    log.info("{} ({}) run {}: first request after {} ms", module.name(), mode, run, sample[0]);
+                }
+                Map<String, Object> result = new LinkedHashMap<>();
+                result.put("module", module.name());
+                result.put("mode", mode.trim());
+                result.put("firstRequestMs", stats(firstRequestMs));
+                result.put("readyMs", stats(readyMs));
+                results.add(result);
+            }
+        }
+        report(options, results, work);
+    }
+
+    private static Launch launch(Path moduleDir, Module module, String mode, Path work) throws IOException {
+        List<String> command = new ArrayList<>(List.of(
+                Path.of(System.getProperty("java.home"), "bin", "java").toString()));
+        Path fastStart = moduleDir.resolve("target/fast-start");
+        Path directory = moduleDir;
+        switch (mode) {
+            case "default" -> {
+                try (Stream<Path> jars = Files.list(moduleDir.resolve("target"))) {
+                    Path jar = jars.filter(path -> path.getFileName().toString().endsWith("-exec.jar")).findFirst()
+                            .orElseThrow(() -> notBuilt(moduleDir));
+                    command.addAll(List.of("-jar", jar.toString()));
+                }
+            }
+            case "fast-start" -> {
+                if (!Files.exists(fastStart.resolve("application.jsa"))) {
+                    throw notBuilt(moduleDir);
+                }
+                directory = fastStart;
+                // Relative paths from the extract directory, as in the training run, or the archive does not match
+                command.add("-XX:SharedArchiveFile=application.jsa");
+                if (module.aot()) {
+                    command.add("-Dspring.aot.enabled=true");
+                }
+                command.addAll(List.of("-jar", "application.jar", "--spring.profiles.active=fast-start"));
+            }
+            default -> throw new IllegalArgumentException("Unknown mode " + mode + ", default or fast-start");
+        }
+        if (module.database()) {
+            command.add("--spring.datasource.url=jdbc:h2:file:" + work.resolve(module.name() + "-" + mode + "/db"));
+        }
+        command.addAll(module.properties());
+        return new Launch(directory, command);
+    }
+
+    private static IllegalStateException notBuilt(Path moduleDir) {
+        return new IllegalStateException("No fast-start build in " + moduleDir + ", run mvn -Pfast-start package there first");
+    }
+
+    /**
+     * Returns the milliseconds until the first {@code 200} and until Spring reported the application as started.
+     */
+    private static long[] start(HttpClient client, Launch launch, Module module, Path logFile, Duration timeout)
+            throws Exception {
+        int port;
+        try (ServerSocket socket = new ServerSocket(0)) {
+            port = socket.getLocalPort();
+        }
+        List<String> withPort = new ArrayList<>(launch.command());
+        withPort.add("--server.port=" + port);
+        HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + module.path()))
+                .header("Accept", "application/json")
+                .timeout(Duration.ofSeconds(10))
+                .build();
+
+        long start = System.nanoTime();
+        Process process = new ProcessBuilder(withPort).directory(launch.directory().toFile())
+                .redirectErrorStream(true).redirectOutput(logFile.toFile()).start();
+        try {
+            long deadline = start + timeout.toNanos();
+            while (true) {
+                if (!process.isAlive()) {
+                    throw new IllegalStateException(module.name() + " exited with " + process.exitValue() + ", see " + logFile);
+                }
+                if (System.nanoTime() - deadline > 0) {
+                    throw new IllegalStateException(module.name() + " did not answer within " + timeout + ", see " + logFile);
+                }
+                try {
+                    if (client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode() == 200) {
+                        break;
+                    }
+                } catch (IOException e) {
+                    // Not listening yet
+                }
+                Thread.sleep(10);
+            }
+            long firstRequest = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+            return new long[]{firstRequest, readyMs(logFile)};
+        } finally {
+            process.destroy();
+            if (!process.waitFor(30, TimeUnit.SECONDS)) {
+                process.destroyForcibly().waitFor();
+            }
+        }
+    }
+
+    // Spring's own "Started ... in x seconds", measured from JVM start; -1 when not logged yet
+    private static long readyMs(Path logFile) throws IOException {
+        Matcher matcher = STARTED.matcher(Files.readString(logFile));
+        return matcher.find() ? Math.round(Double.parseDouble(matcher.group(1)) * 1000) : -1;
+    }
+
+    private static Map<String, Object> stats(List<Long> samples) {
+        long[] sorted = samples.stream().mapToLong(Long::longValue).sorted().toArray();
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("min", sorted[0]);
+        stats.put("median", sorted[sorted.length / 2]);
+        stats.put("max", sorted[sorted.length - 1]);
+        stats.put("samples", samples);
+        return stats;
+    }
+
+    private static void report(Map<String, String> options, List<Map<String, Object>> results, Path work)
+            throws Exception {
+        System.out.printf("%n%-22s %-12s %28s %14s%n", "module", "mode", "first request ms (min/med/max)", "ready ms (med)");
+        for (Map<String, Object> result : results) {
+            Map<?, ?> firstRequest = (Map<?, ?>) result.get("firstRequestMs");
+            Map<?, ?> ready = (Map<?, ?>) result.get("readyMs");
+            System.out.printf("%-22s %-12s %28s %14s%n", result.get("module"), result.get("mode"),
+                    firstRequest.get("min") + " / " + firstRequest.get("median") + " / " + firstRequest.get("max"),
+                    ready.get("median"));
+        }
+
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("options", new LinkedHashMap<>(options));
+        report.put("java", System.getProperty("java.version"));
+        report.put("availableProcessors", Runtime.getRuntime().availableProcessors());
+        report.put("results", results);
+
+        File file = new File(options.get("result"));
+        if (file.getParentFile() != null) {
+            file.getParentFile().mkdirs();
+        }
+        new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT).writeValue(file, report);
+        System.out.println("Result written to " + file.getPath() + ", service logs in " + work);
+    }
+}
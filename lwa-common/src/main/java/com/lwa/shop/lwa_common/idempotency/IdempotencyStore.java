@@ -0,0 +1,132 @@
+package com.lwa.shop.lwa_common.idempotency;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.ResponseEntity;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.HexFormat;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+/**
+ * Bounded, expiring store of responses keyed by the {@code Idempotency-Key} request header.
+ * The first request with a key runs; a replay gets the stored response back with {@code Idempotent-Replayed: true},
+ * and a replay that arrives while the first one is still running waits for its result.
+ * Only successful responses are kept, so a failed request can be retried with the same key.
+ * The store is local to this instance; each service declares it as a bean with its own limits.
+ */
+@Slf4j
+public class IdempotencyStore {
+
+    public static final String HEADER = "Idempotency-Key";
+    public static final String REPLAYED_HEADER = "Idempotent-Replayed";
+
+    private record Entry(String fingerprint, CompletableFuture<ResponseEntity<?>> response) {
+    }
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private final Cache<String, Entry> cache;
+    private final long waitMs;
+
+    /**
+     * @param maxSize    maximum number of keys kept
+     * @param ttlSeconds how long a key is kept after its first use
+     * @param waitMs     how long a replay waits for the first request before it is rejected
+     */
+    public IdempotencyStore(long maxSize, long ttlSeconds, long waitMs) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+                .build();
+        this.waitMs = waitMs;
+    }
+
+    /**
+     * Run the action once per key.
+     *
+     * @param scope   name of the operation, the same key may be used for different operations
+     * @param key     the idempotency key, or null to always run the action
+     * @param request the request body, a replay with a different body is rejected
+     * @param action  the operation
+     * @return the response of the first successful run
+     */
+    @SuppressWarnings("unchecked")
+    public <T> ResponseEntity<T> execute(String scope, String key, Object request, Supplier<ResponseEntity<T>> action) {
+        if (key == null || key.isBlank()) {
+            return action.get();
+        }
+        String cacheKey = scope + ":" + key;
+        String fingerprint = fingerprint(request);
+
+        while (true) {
+            Entry mine = new Entry(fingerprint, new CompletableFuture<>());
+            Entry existing = cache.asMap().putIfAbsent(cacheKey, mine);
+            if (existing == null) {
+                return run(cacheKey, mine, action);
+            }
+            if (!existing.fingerprint().equals(fingerprint)) {
+                throw new IdempotencyConflictException("Idempotency-Key " + key + " was already used with a different request");
+            }
+            try {
+                ResponseEntity<?> response = existing.response().get(waitMs, TimeUnit.MILLISECONDS);
+                log.info("Replaying {} response for Idempotency-Key {}", scope, key);
+                return (ResponseEntity<T>) replayed(response);
+            } catch (ExecutionException e) {
+                // The first attempt failed or did not succeed and was removed, run again
+            } catch (TimeoutException e) {
+                throw new IdempotencyConflictException("Request with Idempotency-Key " + key + " is still in progress");
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IdempotencyConflictException("Interrupted while waiting for Idempotency-Key " + key);
+            }
+        }
+    }
+
+    private <T> ResponseEntity<T> run(String cacheKey, Entry entry, Supplier<ResponseEntity<T>> action) {
+        try {
+            ResponseEntity<T> response = action.get();
+            if (response.getStatusCode().is2xxSuccessful()) {
+                entry.response().complete(response);
+            } else {
+                // Not stored: waiting replays must run again, not get this error back as if it were their own
+                cache.asMap().remove(cacheKey, entry);
+                entry.response().completeExceptionally(new IllegalStateException("Request failed with " + response.getStatusCode()));
+            }
+            return response;
+        } catch (RuntimeException e) {
+            cache.asMap().remove(cacheKey, entry);
+            entry.response().completeExceptionally(e);
+            throw e;
+        }
+    }
+
+    private ResponseEntity<?> replayed(ResponseEntity<?> response) {
+        return ResponseEntity.status(response.getStatusCode())
+                .headers(headers -> {
+                    headers.addAll(response.getHeaders());
+                    headers.set(REPLAYED_HEADER, "true");
+                })
+                .body(response.getBody());
+    }
+
+    private String fingerprint(Object request) {
+        try {
+            String json = request == null ? "" : MAPPER.writeValueAsString(request);
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(json.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest);
+        } catch (JsonProcessingException | NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,46 @@
+package com.lwa.shop.lwa_common.jdbc;
+
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.List;
+
+/**
+ * Moves each id sequence past the ids already in its table. Rows written while ids came from IDENTITY
+ * columns would otherwise collide with the first ids the new {@code <table>_seq} sequences hand out.
+ * Runs once the schema is up to date and before the first insert; a no-op on a fresh or already aligned database.
+ * Each service declares it as a bean with its own tables, depending on the EntityManagerFactory (Hibernate
+ * creates the sequences) and kept eager, since nothing injects it.
+ */
+@Slf4j
+public class IdSequenceAligner {
+
+    // Hibernate's pooled optimizer takes this many ids per sequence call
+    private static final int ALLOCATION_SIZE = 50;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final List<String> tables;
+
+    public IdSequenceAligner(JdbcTemplate jdbcTemplate, List<String> tables) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.tables = List.copyOf(tables);
+    }
+
+    @PostConstruct
+    public void align() {
+        for (String table : tables) {
+            String sequence = table + "_seq";
+            Long next = jdbcTemplate.queryForObject(
+                    "SELECT BASE_VALUE FROM INFORMATION_SCHEMA.SEQUENCES WHERE SEQUENCE_NAME = ?", Long.class,
+                    sequence.toUpperCase());
+            Long maxId = jdbcTemplate.queryForObject("SELECT COALESCE(MAX(id), 0) FROM " + table, Long.class);
+            // A sequence value v hands out the ids v - 49 .. v
+            if (next != null && maxId != null && maxId > 0 && next - ALLOCATION_SIZE <= maxId) {
+                long restart = maxId + ALLOCATION_SIZE + 1;
+                jdbcTemplate.execute("ALTER SEQUENCE " + sequence + " RESTART WITH " + restart);
+                log.info("Restarted {} at {}, {} already holds ids up to {}", sequence, restart, table, maxId);
+            }
+        }
+    }
+}
@@ -0,0 +1,103 @@
+package com.lwa.shop.lwa_common.idempotency;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.http.ResponseEntity;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class IdempotencyStoreTest {
+
+    private final IdempotencyStore store = new IdempotencyStore(100, 60, 2000);
+
+    @Test
+    void execute_failedResponseIsNotStored() {
+        AtomicInteger calls = new AtomicInteger();
+
+        store.execute("op", "k1", "body", () -> {
+            calls.incrementAndGet();
+            return ResponseEntity.status(500).body("error");
+        });
+        ResponseEntity<String> retried = store.execute("op", "k1", "body", () -> {
+            calls.incrementAndGet();
+            return ResponseEntity.ok("done");
+        });
+
+        assertEquals("done", retried.getBody());
+        assertEquals(2, calls.get());
+    }
+
+    @Test
+    void execute_concurrentReplayWaitsForFirstResult() throws Exception {
+        AtomicInteger calls = new AtomicInteger();
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        CompletableFuture<ResponseEntity<String>> first = CompletableFuture.supplyAsync(() ->
+                store.execute("op", "k2", "body", () -> {
+                    calls.incrementAndGet();
+                    started.countDown();
+                    await(release);
+                    return ResponseEntity.ok("order-1");
+                }));
+        assertTrue(started.await(1, TimeUnit.SECONDS));
+        CompletableFuture<ResponseEntity<String>> replay = CompletableFuture.supplyAsync(() ->
+                store.execute("op", "k2", "body", () -> {
+                    calls.incrementAndGet();
+                    return ResponseEntity.ok("order-2");
+                }));
+        release.countDown();
+
+        assertEquals("order-1", first.get(1, TimeUnit.SECONDS).getBody());
+        assertEquals("order-1", replay.get(1, TimeUnit.SECONDS).getBody());
+        assertEquals(1, calls.get());
+    }
+
+    @Test
+    void execute_concurrentReplayRunsAgainWhenFirstAttemptFails() throws Exception {
+        AtomicInteger calls = new AtomicInteger();
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        CompletableFuture<ResponseEntity<String>> first = CompletableFuture.supplyAsync(() ->
+                store.execute("op", "k3", "body", () -> {
+                    calls.incrementAndGet();
+                    started.countDown();
+                    await(release);
+                    return ResponseEntity.status(503).body("unavailable");
+                }));
+        assertTrue(started.await(1, TimeUnit.SECONDS));
+        CompletableFuture<ResponseEntity<String>> replay = CompletableFuture.supplyAsync(() ->
+                store.execute("op", "k3", "body", () -> {
+                    calls.incrementAndGet();
+                    return ResponseEntity.ok("order-2");
+                }));
+        release.countDown();
+
+        assertEquals(503, first.get(1, TimeUnit.SECONDS).getStatusCode().value());
+        ResponseEntity<String> replayed = replay.get(1, TimeUnit.SECONDS);
+        assertEquals("order-2", replayed.getBody());
+        assertNull(replayed.getHeaders().getFirst(IdempotencyStore.REPLAYED_HEADER));
+        assertEquals(2, calls.get());
+    }
+
+    @Test
+    void execute_withoutKeyAlwaysRuns() {
+        AtomicInteger calls = new AtomicInteger();
+        store.execute("op", null, "body", () -> ResponseEntity.ok(calls.incrementAndGet()));
+        store.execute("op", null, "body", () -> ResponseEntity.ok(calls.incrementAndGet()));
+        assertEquals(2, calls.get());
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(1, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
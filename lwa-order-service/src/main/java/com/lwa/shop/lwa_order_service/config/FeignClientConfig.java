@@ -0,0 +1,51 @@
+package com.lwa.shop.lwa_order_service.config;
+
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.httpcomponents.hc5.PoolingHttpClientConnectionManagerMetricsBinder;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.apache.hc.client5.http.io.HttpClientConnectionManager;
+import org.apache.hc.core5.util.TimeValue;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.cloud.openfeign.clientconfig.HttpClient5FeignConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Tuning of the pooled Apache HttpClient 5 transport that Feign uses for Product Service calls.
+ * Pool size, connect and read timeouts are plain {@code spring.cloud.openfeign} properties; this adds what the
+ * properties cannot express.
+ */
+@Configuration
+@ConditionalOnProperty(name = "spring.cloud.openfeign.httpclient.hc5.enabled", matchIfMissing = true)
+public class FeignClientConfig {
+
+    /**
+     * Reuse a connection for at most {@code order.feign.keep-alive-ms}, and close connections idle that long.
+     * Keep it below the server's idle timeout (Tomcat: 20 s) so a request is never written to a socket
+     * the server has just closed.
+     */
+    @Bean
+    public HttpClient5FeignConfiguration.HttpClientBuilderCustomizer feignKeepAliveCustomizer(
+            @Value("${order.feign.keep-alive-ms:15000}") long keepAliveMs) {
+        TimeValue keepAlive = TimeValue.ofMilliseconds(keepAliveMs);
+        return builder -> builder
+                .setKeepAliveStrategy((response, context) -> keepAlive)
+                .evictExpiredConnections()
+                .evictIdleConnections(keepAlive);
+    }
+
+    /**
+     * Leased, available and pending connections of the pool, as {@code httpcomponents_httpclient_pool_*}.
+     */
+    @Bean
+    public MeterBinder feignPoolMetrics(ObjectProvider<HttpClientConnectionManager> connectionManager) {
+        // Looked up lazily, the pool is defined by the Feign auto-configuration after this class
+        return registry -> {
+            if (connectionManager.getIfAvailable() instanceof PoolingHttpClientConnectionManager pool) {
+                new PoolingHttpClientConnectionManagerMetricsBinder(pool, "feign").bindTo(registry);
+            }
+        };
+    }
+}
@@ -0,0 +1,27 @@
+package com.lwa.shop.lwa_order_service.config;
+
+import com.lwa.shop.lwa_order_service.feign.LatencyAwareLoadBalancer;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cloud.loadbalancer.core.ServiceInstanceListSupplier;
+import org.springframework.cloud.loadbalancer.support.LoadBalancerClientFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.core.env.Environment;
+
+/**
+ * Load balancer context of a single client, see {@link ProductLoadBalancerConfig}.
+ * Deliberately not a {@code @Configuration}: picked up by the application context it would apply to every client.
+ */
+public class LatencyAwareLoadBalancerConfig {
+
+    @Bean
+    public LatencyAwareLoadBalancer latencyAwareLoadBalancer(
+            Environment environment, LoadBalancerClientFactory loadBalancerClientFactory,
+            @Value("${order.loadbalancer.ejection.consecutive-errors:5}") int consecutiveErrors,
+            @Value("${order.loadbalancer.ejection.duration-ms:30000}") long ejectionMs,
+            @Value("${order.loadbalancer.latency-decay-ms:10000}") long decayMs) {
+        String serviceId = environment.getProperty(LoadBalancerClientFactory.PROPERTY_NAME);
+        return new LatencyAwareLoadBalancer(
+                loadBalancerClientFactory.getLazyProvider(serviceId, ServiceInstanceListSupplier.class),
+                serviceId, consecutiveErrors, ejectionMs, decayMs);
+    }
+}
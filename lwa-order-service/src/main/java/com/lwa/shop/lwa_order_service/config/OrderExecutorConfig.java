@@ -0,0 +1,56 @@
+package com.lwa.shop.lwa_order_service.config;
+
+import org.slf4j.MDC;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.util.Map;
+import java.util.concurrent.ThreadPoolExecutor;
+
+@Configuration
+public class OrderExecutorConfig {
+
+    /**
+     * Bounded pool used to fan out order lines when {@code order.line-processing.mode=PARALLEL}.
+     * When the queue is full the caller runs the line itself, so overload degrades to sequential processing.
+     * Tasks run with the caller's MDC, so line logs and Feign calls keep the request's correlation id.
+     */
+    @Bean
+    public ThreadPoolTaskExecutor orderLineExecutor(
+            @Value("${order.line-processing.pool-size:16}") int poolSize,
+            @Value("${order.line-processing.queue-capacity:200}") int queueCapacity) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(poolSize);
+        executor.setMaxPoolSize(poolSize);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("order-line-");
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.CallerRunsPolicy());
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.setTaskDecorator(OrderExecutorConfig::withMdc);
+        return executor;
+    }
+
+    private static Runnable withMdc(Runnable task) {
+        Map<String, String> context = MDC.getCopyOfContextMap();
+        return () -> {
+            Map<String, String> previous = MDC.getCopyOfContextMap();
+            setContext(context);
+            try {
+                task.run();
+            } finally {
+                // CallerRunsPolicy runs the task on the request thread, whose context must survive
+                setContext(previous);
+            }
+        };
+    }
+
+    private static void setContext(Map<String, String> context) {
+        if (context == null) {
+            MDC.clear();
+        } else {
+            MDC.setContextMap(context);
+        }
+    }
+}
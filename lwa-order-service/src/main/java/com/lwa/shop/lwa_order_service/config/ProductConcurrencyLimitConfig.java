@@ -0,0 +1,49 @@
+package com.lwa.shop.lwa_order_service.config;
+
+import com.lwa.shop.lwa_order_service.feign.AdaptiveConcurrencyLimiter;
+import com.lwa.shop.lwa_order_service.feign.ConcurrencyLimitCapability;
+import feign.Capability;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Adaptive limit on concurrent Product Service calls, shared by requests, the outbox relay and the expiry.
+ * Set {@code order.feign.concurrency-limit.enabled=false} to let every call through.
+ */
+@Configuration
+@ConditionalOnProperty(name = "order.feign.concurrency-limit.enabled", matchIfMissing = true)
+public class ProductConcurrencyLimitConfig {
+
+    @Bean
+    public AdaptiveConcurrencyLimiter productConcurrencyLimiter(
+            @Value("${order.feign.concurrency-limit.initial:20}") int initialLimit,
+            @Value("${order.feign.concurrency-limit.min:4}") int minLimit,
+            @Value("${order.feign.concurrency-limit.max:200}") int maxLimit,
+            @Value("${order.feign.concurrency-limit.backoff-ratio:0.9}") double backoffRatio,
+            @Value("${order.feign.concurrency-limit.latency-tolerance:2.0}") double latencyTolerance,
+            @Value("${order.feign.concurrency-limit.window-ms:10000}") long windowMs) {
+        return new AdaptiveConcurrencyLimiter(initialLimit, minLimit, maxLimit, backoffRatio, latencyTolerance, windowMs);
+    }
+
+    /**
+     * Picked up by every Feign client, which is {@code LwaProductFeign} only.
+     */
+    @Bean
+    public Capability productConcurrencyLimit(AdaptiveConcurrencyLimiter productConcurrencyLimiter) {
+        return new ConcurrencyLimitCapability(productConcurrencyLimiter);
+    }
+
+    @Bean
+    public MeterBinder productConcurrencyMetrics(AdaptiveConcurrencyLimiter productConcurrencyLimiter) {
+        return registry -> {
+            Gauge.builder("order.feign.concurrency.limit", productConcurrencyLimiter, AdaptiveConcurrencyLimiter::limit)
+                    .register(registry);
+            Gauge.builder("order.feign.concurrency.in-flight", productConcurrencyLimiter, AdaptiveConcurrencyLimiter::inFlight)
+                    .register(registry);
+        };
+    }
+}
@@ -0,0 +1,15 @@
+package com.lwa.shop.lwa_order_service.config;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.cloud.loadbalancer.annotation.LoadBalancerClient;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Replaces round robin with the latency-aware balancer for the Product Service client.
+ * Set {@code order.loadbalancer.latency-aware.enabled=false} to go back to round robin.
+ */
+@Configuration
+@ConditionalOnProperty(name = "order.loadbalancer.latency-aware.enabled", matchIfMissing = true)
+@LoadBalancerClient(name = "lwa-product-service", configuration = LatencyAwareLoadBalancerConfig.class)
+public class ProductLoadBalancerConfig {
+}
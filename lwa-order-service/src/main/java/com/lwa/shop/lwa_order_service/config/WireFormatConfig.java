@@ -0,0 +1,57 @@
+package com.lwa.shop.lwa_order_service.config;
+
+import feign.RequestInterceptor;
+import feign.codec.Encoder;
+import feign.form.spring.SpringFormEncoder;
+import org.springframework.beans.factory.ObjectFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.http.HttpMessageConverters;
+import org.springframework.cloud.openfeign.support.FeignEncoderProperties;
+import org.springframework.cloud.openfeign.support.HttpMessageConverterCustomizer;
+import org.springframework.cloud.openfeign.support.SpringEncoder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+
+/**
+ * Binary Smile encoding on calls to Product Service, {@code order.feign.wire-format=SMILE} (default) or {@code JSON}.
+ * Request bodies are written as Smile and Smile responses are asked for; a response in JSON is still decoded,
+ * since the decoder follows the response content type.
+ */
+@Configuration
+@ConditionalOnProperty(name = "order.feign.wire-format", havingValue = "SMILE", matchIfMissing = true)
+public class WireFormatConfig {
+
+    public static final String SMILE = "application/x-jackson-smile";
+    private static final MediaType SMILE_TYPE = MediaType.parseMediaType(SMILE);
+
+    @Bean
+    public RequestInterceptor smileAcceptInterceptor() {
+        return template -> template.header(HttpHeaders.ACCEPT, SMILE + ", application/json;q=0.9");
+    }
+
+    /**
+     * The default Feign encoder, with Smile as content type unless the method declares one.
+     */
+    @Bean
+    public Encoder feignEncoder(ObjectFactory<HttpMessageConverters> messageConverters,
+                                FeignEncoderProperties encoderProperties,
+                                ObjectProvider<HttpMessageConverterCustomizer> customizers) {
+        Encoder delegate = new SpringEncoder(new SpringFormEncoder(), messageConverters, encoderProperties, customizers) {
+            // Smile is binary: the body must go out as bytes, not through a charset
+            @Override
+            protected boolean binaryContentType(FeignOutputMessage outputMessage) {
+                return SMILE_TYPE.includes(outputMessage.getHeaders().getContentType())
+                        || super.binaryContentType(outputMessage);
+            }
+        };
+        return (object, bodyType, template) -> {
+            if (!template.headers().containsKey(HttpHeaders.CONTENT_TYPE)) {
+                template.header(HttpHeaders.CONTENT_TYPE, SMILE);
+            }
+            delegate.encode(object, bodyType, template);
+        };
+    }
+}
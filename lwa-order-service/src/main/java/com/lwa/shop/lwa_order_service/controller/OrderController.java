@@ -1,10 +1,14 @@
 package com.lwa.shop.lwa_order_service.controller;
 
+import com.lwa.shop.lwa_common.idempotency.IdempotencyStore;
 import com.lwa.shop.lwa_order_service.model.GeneralResponse;
 import com.lwa.shop.lwa_order_service.model.request.OrderRequestDTO;
+import com.lwa.shop.lwa_order_service.model.response.OrderPageResponseDTO;
 import com.lwa.shop.lwa_order_service.model.response.OrderResponseDTO;
+import com.lwa.shop.lwa_order_service.model.response.OrderSearchResponseDTO;
 import com.lwa.shop.lwa_order_service.service.OrderService;
 import com.lwa.shop.lwa_order_service.service.ServiceHandler;
+import com.lwa.shop.lwa_order_service.util.JsonUtil;
 import com.lwa.shop.lwa_order_service.util.ResponseUtil;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
@@ -15,9 +19,18 @@ import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
 import java.util.List;
 
 @Slf4j
@@ -28,6 +41,7 @@ import java.util.List;
 public class OrderController {
 
     private final OrderService orderService;
+    private final IdempotencyStore idempotencyStore;
 
     @Operation(summary = "Get all orders", description = "Fetch all orders from the database")
     @GetMapping
@@ -38,6 +52,61 @@ public class OrderController {
         return ResponseUtil.success("Fetched all orders", orders);
     }
 
+    @Operation(summary = "Get a page of orders",
+            description = "Keyset pagination ordered by ID. Pass nextCursor from the previous page as cursor to continue.")
+    @GetMapping("/page")
+    public ResponseEntity<GeneralResponse<OrderPageResponseDTO>> getOrdersPage(
+            @Parameter(description = "Last order ID of the previous page") @RequestParam(required = false) Long cursor,
+            @Parameter(description = "Page size, at most 100") @RequestParam(defaultValue = "20") int limit,
+            @Parameter(description = "Filter by status, e.g. PENDING") @RequestParam(required = false) String status,
+            @Parameter(description = "Filter by customer name") @RequestParam(required = false) String customerName) {
+        log.info("==== START getOrdersPage request, cursor: {}, limit: {} ====", cursor, limit);
+        OrderPageResponseDTO page = orderService.getOrdersPage(cursor, limit, status, customerName);
+        log.info("==== FINISHED getOrdersPage request, size: {} ====", page.getOrders().size());
+        return ResponseUtil.success("Fetched orders page", page);
+    }
+
+    @Operation(summary = "Search orders",
+            description = "Filter by customer, status and creation time, oldest first. Every filter is optional and " +
+                    "each combination is served by an index. Pass nextCursor from the previous page as cursor to continue.")
+    @GetMapping("/search")
+    public ResponseEntity<GeneralResponse<OrderSearchResponseDTO>> searchOrders(
+            @Parameter(description = "Filter by customer name") @RequestParam(required = false) String customerName,
+            @Parameter(description = "Filter by status, e.g. PENDING") @RequestParam(required = false) String status,
+            @Parameter(description = "Created at or after, e.g. 2025-01-01T00:00:00")
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @Parameter(description = "Created before, e.g. 2025-02-01T00:00:00")
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @Parameter(description = "nextCursor of the previous page") @RequestParam(required = false) String cursor,
+            @Parameter(description = "Page size, at most 100") @RequestParam(defaultValue = "20") int limit) {
+        log.info("==== START searchOrders request, customer: {}, status: {} ====", customerName, status);
+        OrderSearchResponseDTO page = orderService.searchOrders(customerName, status, from, to, cursor, limit);
+        log.info("==== FINISHED searchOrders request, size: {} ====", page.getOrders().size());
+        return ResponseUtil.success("Fetched orders", page);
+    }
+
+    @Operation(summary = "Stream all orders",
+            description = "Write every matching order as one JSON document per line (NDJSON) while it is read from the database")
+    @GetMapping(value = "/stream", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamOrders(
+            @Parameter(description = "Filter by status, e.g. PENDING") @RequestParam(required = false) String status,
+            @Parameter(description = "Filter by customer name") @RequestParam(required = false) String customerName) {
+        log.info("==== START streamOrders request ====");
+        StreamingResponseBody body = outputStream -> {
+            Writer writer = new OutputStreamWriter(outputStream, StandardCharsets.UTF_8);
+            orderService.streamOrders(status, customerName, order -> {
+                try {
+                    writer.write(JsonUtil.toJson(order));
+                    writer.write('\n');
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+            writer.flush();
+        };
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON).body(body);
+    }
+
     @Operation(summary = "Get order by ID", description = "Fetch a single order by its ID")
     @GetMapping("/{id}")
     public ResponseEntity<GeneralResponse<OrderResponseDTO>> getOrder(
@@ -49,9 +118,13 @@ public class OrderController {
         return ResponseUtil.success("Fetched order", order);
     }
 
-    @Operation(summary = "Create a new order", description = "Create a new order with customer and items")
+    @Operation(summary = "Create a new order",
+            description = "Create a new order with customer and items. Send an Idempotency-Key to make retries safe: " +
+                    "a replay returns the first response instead of creating another order.")
     @PostMapping
     public ResponseEntity<GeneralResponse<OrderResponseDTO>> addOrder(
+            @Parameter(description = "Client generated key, e.g. a UUID per checkout attempt")
+            @RequestHeader(value = IdempotencyStore.HEADER, required = false) String idempotencyKey,
             @io.swagger.v3.oas.annotations.parameters.RequestBody(
                     description = "Order to create", required = true,
                     content = @Content(schema = @Schema(implementation = OrderRequestDTO.class),
@@ -63,11 +136,11 @@ public class OrderController {
             )
             @RequestBody OrderRequestDTO dto) {
         log.info("==== START addOrder request for customer: {} ====", dto.getCustomerName());
-        return ServiceHandler.handle(() -> {
+        return idempotencyStore.execute("addOrder", idempotencyKey, dto, () -> ServiceHandler.handle(() -> {
             OrderResponseDTO savedOrder = orderService.saveOrder(dto);
             log.info("==== SUCCESS addOrder for customer: {}, orderId: {} ====", dto.getCustomerName(), savedOrder.getId());
             return ResponseUtil.created("Order created successfully", savedOrder);
-        });
+        }));
     }
 
     @Operation(summary = "Mark order as completed", description = "Change order status to COMPLETED")
@@ -0,0 +1,47 @@
+package com.lwa.shop.lwa_order_service.controller;
+
+import com.lwa.shop.lwa_order_service.model.GeneralResponse;
+import com.lwa.shop.lwa_order_service.model.response.VariantCacheStatsDTO;
+import com.lwa.shop.lwa_order_service.service.VariantCache;
+import com.lwa.shop.lwa_order_service.util.ResponseUtil;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+@Slf4j
+@RestController
+@RequestMapping("/cache/variants")
+@RequiredArgsConstructor
+@Tag(name = "Variant Cache API", description = "Inspect and invalidate the variant near-cache")
+public class VariantCacheController {
+
+    private final VariantCache variantCache;
+
+    @Operation(summary = "Get cache statistics", description = "Size, hit, miss and eviction counts of the variant cache")
+    @GetMapping("/stats")
+    public ResponseEntity<GeneralResponse<VariantCacheStatsDTO>> getStats() {
+        return ResponseUtil.success("Fetched variant cache stats", variantCache.stats());
+    }
+
+    @Operation(summary = "Invalidate a cached variant", description = "Called by Product Service when a variant is saved or deleted")
+    @DeleteMapping("/{id}")
+    public ResponseEntity<GeneralResponse<Void>> invalidate(
+            @Parameter(description = "ID of the variant", required = true)
+            @PathVariable Long id) {
+        log.info("==== START invalidate variant cache for id: {} ====", id);
+        variantCache.invalidate(id);
+        return ResponseUtil.deleted("Variant cache entry invalidated");
+    }
+
+    @Operation(summary = "Invalidate the whole variant cache")
+    @DeleteMapping
+    public ResponseEntity<GeneralResponse<Void>> invalidateAll() {
+        log.info("==== START invalidate whole variant cache ====");
+        variantCache.invalidateAll();
+        return ResponseUtil.deleted("Variant cache cleared");
+    }
+}
@@ -5,18 +5,23 @@ import jakarta.persistence.*;
 import lombok.Data;
 import lombok.EqualsAndHashCode;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 @EqualsAndHashCode(callSuper = true)
 @Data
 @Entity
-@Table(name = "orders")
+@Table(name = "orders", indexes = @Index(name = "idx_orders_status_expires", columnList = "status, expires_at"))
 public class Order extends BaseEntity {
     @Version
     private Long version; // ✅ Optimistic Locking
     private String customerName;
-    private String status; // PENDING, COMPLETED, FAILED
+    private String status; // RESERVING, PENDING, COMPLETED, FAILED, EXPIRED
     private Double totalAmount;
+    private String reservationId; // stock reservation in Product Service
+
+    @Column(name = "expires_at")
+    private LocalDateTime expiresAt; // a PENDING order past this time gives its stock back
 
     @OneToMany(mappedBy = "order", cascade = CascadeType.ALL, fetch = FetchType.EAGER, orphanRemoval = true)
     @JsonManagedReference
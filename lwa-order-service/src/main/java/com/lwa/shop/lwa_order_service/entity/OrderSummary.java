@@ -0,0 +1,58 @@
+package com.lwa.shop.lwa_order_service.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.PostLoad;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.Table;
+import jakarta.persistence.Transient;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.ToString;
+import org.springframework.data.domain.Persistable;
+
+import java.time.LocalDateTime;
+
+/**
+ * Read model of an order: one narrow row per order with its lines as JSON, so order reads need no join.
+ * Written by {@link com.lwa.shop.lwa_order_service.service.OrderSummaryProjector} in the transaction that changes the order.
+ * The id is assigned, so {@link Persistable#isNew()} tells the repository to insert a new summary straight away
+ * instead of selecting it first to choose between insert and update.
+ */
+@Data
+@Entity
+@Table(name = "order_summary", indexes = {
+        @Index(name = "idx_order_summary_customer_created", columnList = "customer_name, created_at, id"),
+        @Index(name = "idx_order_summary_status_created", columnList = "status, created_at, id"),
+        @Index(name = "idx_order_summary_created", columnList = "created_at, id")})
+public class OrderSummary implements Persistable<Long> {
+
+    @Id
+    private Long id; // same as the order id
+
+    private String customerName;
+    private String status;
+    private Double totalAmount;
+    private Integer itemCount;
+
+    @Column(name = "created_at")
+    private LocalDateTime createdAt; // when the order was placed
+
+    @Column(name = "items_json", length = 1_000_000)
+    private String itemsJson; // OrderItemResponseDTO array
+
+    private LocalDateTime updatedAt;
+
+    @Transient
+    @EqualsAndHashCode.Exclude
+    @ToString.Exclude
+    private boolean isNew; // set for a summary that was never stored
+
+    @PostLoad
+    @PostPersist
+    void markStored() {
+        isNew = false;
+    }
+}
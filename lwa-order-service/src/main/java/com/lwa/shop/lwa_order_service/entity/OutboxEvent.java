@@ -0,0 +1,35 @@
+package com.lwa.shop.lwa_order_service.entity;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+
+import java.time.LocalDateTime;
+
+/**
+ * Command for Product Service, written in the same transaction as the order it belongs to
+ * and delivered by {@link com.lwa.shop.lwa_order_service.service.OutboxRelay}.
+ */
+@EqualsAndHashCode(callSuper = true)
+@Data
+@Entity
+@Table(name = "outbox_event", indexes = @Index(name = "idx_outbox_status_next", columnList = "status, next_attempt_at"))
+public class OutboxEvent extends BaseEntity {
+    public static final String RESERVE_STOCK = "RESERVE_STOCK";
+    public static final String RELEASE_STOCK = "RELEASE_STOCK";
+
+    private Long orderId;
+    private String type;    // RESERVE_STOCK, RELEASE_STOCK
+    private String status;  // PENDING, SENT, FAILED
+
+    @Column(length = 4000)
+    private String payload;
+
+    private Integer attempts;
+
+    @Column(name = "next_attempt_at")
+    private LocalDateTime nextAttemptAt;
+
+    @Column(length = 1000)
+    private String lastError;
+}
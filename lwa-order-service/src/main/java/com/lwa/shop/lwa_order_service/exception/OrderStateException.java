@@ -0,0 +1,11 @@
+package com.lwa.shop.lwa_order_service.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.CONFLICT)
+public class OrderStateException extends RuntimeException {
+    public OrderStateException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,118 @@
+package com.lwa.shop.lwa_order_service.feign;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.OptionalLong;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.LongSupplier;
+
+/**
+ * AIMD limit on the calls to Product Service that may be in flight at once.
+ * <p>
+ * A call over the limit is rejected at once instead of waiting for a pooled connection while it holds a request
+ * thread. Each finished call moves the limit: a failure (I/O error, timeout, 5xx) or a latency above
+ * {@code latencyTolerance} times the baseline multiplies it by {@code backoffRatio}, any other call made while at
+ * least half of the limit was in use adds one. The baseline is the lowest latency of the last one to two
+ * {@code windowMs}, so it follows Product Service when it gets lastingly slower or faster.
+ * <p>
+ * Only a call started after the previous decrease can decrease again: slow calls that were in flight together are one
+ * signal, not one backoff each.
+ */
+@Slf4j
+public class AdaptiveConcurrencyLimiter {
+
+    // Below this, a latency above the tolerance is jitter rather than queueing
+    private static final long MIN_SLOW_NANOS = TimeUnit.MILLISECONDS.toNanos(5);
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final double backoffRatio;
+    private final double latencyTolerance;
+    private final long windowNanos;
+    private final LongSupplier clock;
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private volatile int limit;
+
+    // Guarded by this
+    private long lastDecrease;
+    private long windowStart;
+    private long windowMin = Long.MAX_VALUE;
+    private long previousWindowMin = Long.MAX_VALUE;
+
+    public AdaptiveConcurrencyLimiter(int initialLimit, int minLimit, int maxLimit, double backoffRatio,
+                                      double latencyTolerance, long windowMs) {
+        this(initialLimit, minLimit, maxLimit, backoffRatio, latencyTolerance, windowMs, System::nanoTime);
+    }
+
+    AdaptiveConcurrencyLimiter(int initialLimit, int minLimit, int maxLimit, double backoffRatio,
+                               double latencyTolerance, long windowMs, LongSupplier clock) {
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.backoffRatio = backoffRatio;
+        this.latencyTolerance = latencyTolerance;
+        this.windowNanos = TimeUnit.MILLISECONDS.toNanos(windowMs);
+        this.clock = clock;
+        this.limit = Math.max(minLimit, Math.min(maxLimit, initialLimit));
+        long now = clock.getAsLong();
+        this.lastDecrease = now;
+        this.windowStart = now;
+    }
+
+    /**
+     * Admits a call while fewer than {@link #limit()} are in flight.
+     *
+     * @return the start time to hand to {@link #release}, empty when the call must be rejected
+     */
+    public OptionalLong tryAcquire() {
+        while (true) {
+            int current = inFlight.get();
+            if (current >= limit) {
+                return OptionalLong.empty();
+            }
+            if (inFlight.compareAndSet(current, current + 1)) {
+                return OptionalLong.of(clock.getAsLong());
+            }
+        }
+    }
+
+    public void release(long start, boolean failed) {
+        int inFlightWithThis = inFlight.getAndDecrement();
+        long now = clock.getAsLong();
+        long latency = now - start;
+
+        synchronized (this) {
+            if (now - windowStart >= windowNanos) {
+                previousWindowMin = windowMin;
+                windowMin = Long.MAX_VALUE;
+                windowStart = now;
+            }
+            if (!failed) {
+                windowMin = Math.min(windowMin, latency);
+            }
+            long baseline = Math.min(windowMin, previousWindowMin);
+            boolean slow = latency > MIN_SLOW_NANOS && latency > baseline * latencyTolerance;
+
+            if (failed || slow) {
+                if (start - lastDecrease >= 0) {
+                    int decreased = Math.max(minLimit, (int) (limit * backoffRatio));
+                    log.debug("Product Service concurrency limit {} -> {} after a {} call of {} ms", limit, decreased,
+                            failed ? "failed" : "slow", TimeUnit.NANOSECONDS.toMillis(latency));
+                    limit = decreased;
+                    lastDecrease = now;
+                }
+            } else if (inFlightWithThis * 2 >= limit && limit < maxLimit) {
+                limit++;
+            }
+        }
+    }
+
+    public int limit() {
+        return limit;
+    }
+
+    public int inFlight() {
+        return inFlight.get();
+    }
+}
@@ -0,0 +1,47 @@
+package com.lwa.shop.lwa_order_service.feign;
+
+import com.lwa.shop.lwa_order_service.exception.ConcurrencyLimitExceededException;
+import feign.Capability;
+import feign.Client;
+import feign.Response;
+import io.micrometer.core.instrument.Metrics;
+
+import java.util.OptionalLong;
+
+/**
+ * Puts every Product Service request through the {@link AdaptiveConcurrencyLimiter}, once per attempt, so a Feign
+ * retry takes a slot like any other call. Nothing waits for a slot: a request over the limit fails at once with
+ * {@link ConcurrencyLimitExceededException}, without touching the connection pool.
+ * <p>
+ * The rejection is load shedding, not a Product Service failure. It is not a {@code feign.RetryableException}, so
+ * neither the Feign retryer nor the Resilience4j retry repeats it, and it is left out of the circuit breakers'
+ * {@code recordExceptions}, so it does not open them. It reaches the caller as 503.
+ */
+public class ConcurrencyLimitCapability implements Capability {
+
+    private final AdaptiveConcurrencyLimiter limiter;
+
+    public ConcurrencyLimitCapability(AdaptiveConcurrencyLimiter limiter) {
+        this.limiter = limiter;
+    }
+
+    @Override
+    public Client enrich(Client client) {
+        return (request, options) -> {
+            OptionalLong start = limiter.tryAcquire();
+            if (start.isEmpty()) {
+                Metrics.counter("order.feign.concurrency.rejected").increment();
+                throw new ConcurrencyLimitExceededException(
+                        "Product Service concurrency limit of " + limiter.limit() + " reached");
+            }
+            boolean failed = true;
+            try {
+                Response response = client.execute(request, options);
+                failed = response.status() >= 500;
+                return response;
+            } finally {
+                limiter.release(start.getAsLong(), failed);
+            }
+        };
+    }
+}
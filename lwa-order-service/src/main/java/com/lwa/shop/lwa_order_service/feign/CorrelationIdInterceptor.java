@@ -0,0 +1,22 @@
+package com.lwa.shop.lwa_order_service.feign;
+
+import com.lwa.shop.lwa_order_service.config.CorrelationIdFilter;
+import feign.RequestInterceptor;
+import feign.RequestTemplate;
+import org.slf4j.MDC;
+import org.springframework.stereotype.Component;
+
+/**
+ * Forwards the current correlation id on every Feign call, so both services log the same id for one request.
+ */
+@Component
+public class CorrelationIdInterceptor implements RequestInterceptor {
+
+    @Override
+    public void apply(RequestTemplate template) {
+        String correlationId = MDC.get(CorrelationIdFilter.MDC_KEY);
+        if (correlationId != null) {
+            template.header(CorrelationIdFilter.HEADER, correlationId);
+        }
+    }
+}
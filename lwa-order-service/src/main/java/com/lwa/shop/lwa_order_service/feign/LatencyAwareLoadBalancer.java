@@ -0,0 +1,187 @@
+package com.lwa.shop.lwa_order_service.feign;
+
+import io.micrometer.core.instrument.Metrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.loadbalancer.CompletionContext;
+import org.springframework.cloud.client.loadbalancer.DefaultResponse;
+import org.springframework.cloud.client.loadbalancer.EmptyResponse;
+import org.springframework.cloud.client.loadbalancer.LoadBalancerLifecycle;
+import org.springframework.cloud.client.loadbalancer.Request;
+import org.springframework.cloud.client.loadbalancer.Response;
+import org.springframework.cloud.client.loadbalancer.ResponseData;
+import org.springframework.cloud.client.loadbalancer.TimedRequestContext;
+import org.springframework.cloud.loadbalancer.core.NoopServiceInstanceListSupplier;
+import org.springframework.cloud.loadbalancer.core.ReactorServiceInstanceLoadBalancer;
+import org.springframework.cloud.loadbalancer.core.ServiceInstanceListSupplier;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.LongSupplier;
+
+/**
+ * Power-of-two-choices load balancer for the Product Service instances.
+ * <p>
+ * Each call picks two random instances and takes the one with the lower score: the moving average of its
+ * observed latency times its in-flight requests plus one. A slow or GC-pausing instance builds up latency and queued
+ * calls and quickly stops being picked, without herding every caller onto the same "best" instance.
+ * An instance not heard from for {@code decayMs} scores as new so it gets probed again.
+ * <p>
+ * After {@code consecutiveErrors} failed calls in a row (I/O errors, timeouts, 5xx responses) an instance is ejected
+ * for {@code ejectionMs}. If every instance is ejected, all of them are used again.
+ * <p>
+ * The same bean receives the load balancer lifecycle callbacks, which is where latency and errors are observed.
+ */
+@Slf4j
+public class LatencyAwareLoadBalancer implements ReactorServiceInstanceLoadBalancer,
+        LoadBalancerLifecycle<Object, Object, ServiceInstance> {
+
+    // Weight of the newest latency sample in the moving average
+    private static final double ALPHA = 0.3;
+    // A failed call counts as at least this slow, a refused connection must not make an instance look fast
+    private static final long FAILURE_PENALTY_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+    private final ObjectProvider<ServiceInstanceListSupplier> instances;
+    private final String serviceId;
+    private final int consecutiveErrors;
+    private final long ejectionNanos;
+    private final long decayNanos;
+    private final LongSupplier clock;
+
+    private final Map<String, Stats> stats = new ConcurrentHashMap<>();
+
+    public LatencyAwareLoadBalancer(ObjectProvider<ServiceInstanceListSupplier> instances, String serviceId,
+                                    int consecutiveErrors, long ejectionMs, long decayMs) {
+        this(instances, serviceId, consecutiveErrors, ejectionMs, decayMs, System::nanoTime);
+    }
+
+    LatencyAwareLoadBalancer(ObjectProvider<ServiceInstanceListSupplier> instances, String serviceId,
+                             int consecutiveErrors, long ejectionMs, long decayMs, LongSupplier clock) {
+        this.instances = instances;
+        this.serviceId = serviceId;
+        this.consecutiveErrors = consecutiveErrors;
+        this.ejectionNanos = TimeUnit.MILLISECONDS.toNanos(ejectionMs);
+        this.decayNanos = TimeUnit.MILLISECONDS.toNanos(decayMs);
+        this.clock = clock;
+    }
+
+    @Override
+    public Mono<Response<ServiceInstance>> choose(Request request) {
+        ServiceInstanceListSupplier supplier = instances.getIfAvailable(NoopServiceInstanceListSupplier::new);
+        return supplier.get(request).next().map(this::choose);
+    }
+
+    Response<ServiceInstance> choose(List<ServiceInstance> candidates) {
+        if (candidates.isEmpty()) {
+            log.warn("No instances available for {}", serviceId);
+            return new EmptyResponse();
+        }
+        long now = clock.getAsLong();
+        List<ServiceInstance> available = candidates.stream()
+                .filter(instance -> !stats(instance).isEjected(now))
+                .toList();
+        if (available.isEmpty()) {
+            available = candidates;
+        }
+        if (available.size() == 1) {
+            return new DefaultResponse(available.get(0));
+        }
+
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int first = random.nextInt(available.size());
+        int second = random.nextInt(available.size() - 1);
+        if (second >= first) {
+            second++;
+        }
+        ServiceInstance a = available.get(first);
+        ServiceInstance b = available.get(second);
+        double scoreA = stats(a).score(now);
+        double scoreB = stats(b).score(now);
+        log.debug("Choosing between {} (score {}) and {} (score {})", key(a), scoreA, key(b), scoreB);
+        return new DefaultResponse(scoreA <= scoreB ? a : b);
+    }
+
+    @Override
+    public void onStart(Request<Object> request) {
+    }
+
+    @Override
+    public void onStartRequest(Request<Object> request, Response<ServiceInstance> lbResponse) {
+        if (!lbResponse.hasServer()) {
+            return;
+        }
+        if (request.getContext() instanceof TimedRequestContext timed) {
+            timed.setRequestStartTime(clock.getAsLong());
+        }
+        stats(lbResponse.getServer()).inFlight.incrementAndGet();
+    }
+
+    @Override
+    public void onComplete(CompletionContext<Object, ServiceInstance, Object> completion) {
+        Response<ServiceInstance> lbResponse = completion.getLoadBalancerResponse();
+        if (completion.status() == CompletionContext.Status.DISCARD || lbResponse == null || !lbResponse.hasServer()) {
+            return;
+        }
+        ServiceInstance instance = lbResponse.getServer();
+        Stats instanceStats = stats(instance);
+        instanceStats.inFlight.decrementAndGet();
+
+        long now = clock.getAsLong();
+        boolean failed = completion.status() == CompletionContext.Status.FAILED
+                || (completion.getClientResponse() instanceof ResponseData response
+                && response.getHttpStatus() != null && response.getHttpStatus().is5xxServerError());
+        if (completion.getLoadBalancerRequest().getContext() instanceof TimedRequestContext timed
+                && timed.getRequestStartTime() > 0) {
+            long latency = now - timed.getRequestStartTime();
+            instanceStats.record(failed ? Math.max(latency, FAILURE_PENALTY_NANOS) : latency, now);
+        }
+
+        if (!failed) {
+            instanceStats.errors.set(0);
+        } else if (instanceStats.errors.incrementAndGet() >= consecutiveErrors) {
+            instanceStats.errors.set(0);
+            instanceStats.ejectedUntil = now + ejectionNanos;
+            Metrics.counter("order.loadbalancer.ejections", "service", serviceId).increment();
+            log.warn("Ejected {} instance {} for {} ms after {} consecutive errors", serviceId, key(instance),
+                    TimeUnit.NANOSECONDS.toMillis(ejectionNanos), consecutiveErrors);
+        }
+    }
+
+    private Stats stats(ServiceInstance instance) {
+        return stats.computeIfAbsent(key(instance), k -> new Stats());
+    }
+
+    private static String key(ServiceInstance instance) {
+        return instance.getHost() + ":" + instance.getPort();
+    }
+
+    private final class Stats {
+        final AtomicInteger inFlight = new AtomicInteger();
+        final AtomicInteger errors = new AtomicInteger();
+        volatile double latencyNanos;
+        volatile long lastSample;
+        volatile long ejectedUntil;
+
+        boolean isEjected(long now) {
+            return ejectedUntil != 0 && now - ejectedUntil < 0;
+        }
+
+        double score(long now) {
+            double latency = lastSample == 0 || now - lastSample > decayNanos ? 0 : latencyNanos;
+            // A new instance still competes on in-flight requests
+            return (latency + 1) * (inFlight.get() + 1);
+        }
+
+        // Lost updates under contention only drop a sample
+        void record(long latency, long now) {
+            latencyNanos = lastSample == 0 ? latency : latencyNanos + ALPHA * (latency - latencyNanos);
+            lastSample = now;
+        }
+    }
+}
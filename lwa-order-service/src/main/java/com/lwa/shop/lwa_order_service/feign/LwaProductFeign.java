@@ -2,29 +2,55 @@ package com.lwa.shop.lwa_order_service.feign;
 
 import com.lwa.shop.lwa_order_service.feign.fallback.LwaProductFallback;
 import com.lwa.shop.lwa_order_service.model.Variant;
+import com.lwa.shop.lwa_order_service.model.VariantBatch;
 import com.lwa.shop.lwa_order_service.model.GeneralResponse;
+import com.lwa.shop.lwa_order_service.model.request.ReserveStockRequest;
 import io.github.resilience4j.circuitbreaker.annotation.CircuitBreaker;
 import io.github.resilience4j.retry.annotation.Retry;
 import org.springframework.cloud.openfeign.FeignClient;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.List;
+
+// No fallbackMethod on the annotations: it is looked up on the Feign proxy, which has none. Callers handle the
+// exception, an open breaker fails with CallNotPermittedException
 @FeignClient(name = "lwa-product-service", fallback = LwaProductFallback.class)
 public interface LwaProductFeign {
 
+    // The Idempotency-Key makes the retries safe: Product Service replays the first result
     @PutMapping("/product/variants/{id}/reduce-stock")
-    @CircuitBreaker(name = "variantService", fallbackMethod = "reduceStockFallback")
+    @CircuitBreaker(name = "variantService")
     @Retry(name = "variantService")
-    GeneralResponse<Variant> reduceStock(@PathVariable("id") Long id, @RequestParam int quantity);
+    GeneralResponse<Variant> reduceStock(@PathVariable("id") Long id, @RequestParam int quantity,
+                                         @RequestHeader("Idempotency-Key") String idempotencyKey);
 
     @GetMapping("/product/variants/{id}")
-    @CircuitBreaker(name = "variantService", fallbackMethod = "getVariantFallback")
+    @CircuitBreaker(name = "variantService")
     @Retry(name = "variantService")
     GeneralResponse<Variant> getVariant(@PathVariable("id") Long id);
 
+    @GetMapping("/product/variants")
+    @CircuitBreaker(name = "variantService")
+    @Retry(name = "variantService")
+    GeneralResponse<VariantBatch> getVariants(@RequestParam("ids") List<Long> ids);
+
     @PutMapping("/product/variants/{id}/increase-stock")
-    @CircuitBreaker(name = "variantService", fallbackMethod = "increaseStockFallback")
+    @CircuitBreaker(name = "variantService")
+    @Retry(name = "variantService")
+    GeneralResponse<Variant> increaseStock(@PathVariable("id") Long id, @RequestParam int quantity,
+                                           @RequestHeader("Idempotency-Key") String idempotencyKey);
+
+    // Idempotent on the reservation id, which Order Service always sends, so safe to retry
+    @PostMapping("/product/variants/reserve")
+    @CircuitBreaker(name = "variantService")
+    @Retry(name = "variantService")
+    GeneralResponse<List<Variant>> reserveStock(@RequestBody ReserveStockRequest request);
+
+    // Idempotent on the Product Service side, so safe to retry
+    @PostMapping("/product/variants/reservations/{reservationId}/release")
+    @CircuitBreaker(name = "variantService")
     @Retry(name = "variantService")
-    GeneralResponse<Variant> increaseStock(@PathVariable("id") Long id, @RequestParam int quantity);
+    GeneralResponse<Void> releaseReservation(@PathVariable("reservationId") String reservationId);
 
 }
 
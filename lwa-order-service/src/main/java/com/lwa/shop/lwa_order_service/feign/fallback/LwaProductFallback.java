@@ -3,15 +3,19 @@ package com.lwa.shop.lwa_order_service.feign.fallback;
 import com.lwa.shop.lwa_order_service.feign.LwaProductFeign;
 import com.lwa.shop.lwa_order_service.model.GeneralResponse;
 import com.lwa.shop.lwa_order_service.model.Variant;
+import com.lwa.shop.lwa_order_service.model.VariantBatch;
+import com.lwa.shop.lwa_order_service.model.request.ReserveStockRequest;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Component;
 
+import java.util.List;
+
 @Slf4j
 @Component
 public class LwaProductFallback implements LwaProductFeign {
 
     @Override
-    public GeneralResponse<Variant> reduceStock(Long id, int quantity) {
+    public GeneralResponse<Variant> reduceStock(Long id, int quantity, String idempotencyKey) {
         log.error("Fallback triggered: reduceStock failed for variantId={} quantity={}", id, quantity);
         return GeneralResponse.<Variant>builder()
                 .code("500")
@@ -33,7 +37,18 @@ public class LwaProductFallback implements LwaProductFeign {
     }
 
     @Override
-    public GeneralResponse<Variant> increaseStock(Long id, int quantity) {
+    public GeneralResponse<VariantBatch> getVariants(List<Long> ids) {
+        log.error("Fallback triggered: getVariants failed for variantIds={}", ids);
+        return GeneralResponse.<VariantBatch>builder()
+                .code("500")
+                .status("FAILED")
+                .message("Product Service unavailable. Could not fetch variants.")
+                .data(null)
+                .build();
+    }
+
+    @Override
+    public GeneralResponse<Variant> increaseStock(Long id, int quantity, String idempotencyKey) {
         log.error("Fallback triggered: increaseStock failed for variantId={} quantity={}", id, quantity);
         return GeneralResponse.<Variant>builder()
                 .code("500")
@@ -42,6 +57,27 @@ public class LwaProductFallback implements LwaProductFeign {
                 .data(null)
                 .build();
     }
-}
 
+    @Override
+    public GeneralResponse<List<Variant>> reserveStock(ReserveStockRequest request) {
+        log.error("Fallback triggered: reserveStock failed for {} lines",
+                request.getItems() == null ? 0 : request.getItems().size());
+        return GeneralResponse.<List<Variant>>builder()
+                .code("500")
+                .status("FAILED")
+                .message("Product Service unavailable. Could not reserve stock.")
+                .data(null)
+                .build();
+    }
 
+    @Override
+    public GeneralResponse<Void> releaseReservation(String reservationId) {
+        log.error("Fallback triggered: releaseReservation failed for reservationId={}", reservationId);
+        return GeneralResponse.<Void>builder()
+                .code("500")
+                .status("FAILED")
+                .message("Product Service unavailable. Could not release reservation.")
+                .data(null)
+                .build();
+    }
+}
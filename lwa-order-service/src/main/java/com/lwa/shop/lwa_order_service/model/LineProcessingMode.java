@@ -0,0 +1,11 @@
+package com.lwa.shop.lwa_order_service.model;
+
+/**
+ * How {@code saveOrder} reserves stock for the order lines.
+ */
+public enum LineProcessingMode {
+    /** One batch reservation call for the whole order. */
+    BATCH,
+    /** One fetch + reduce per line, lines processed concurrently on the order line executor. */
+    PARALLEL
+}
@@ -0,0 +1,11 @@
+package com.lwa.shop.lwa_order_service.model;
+
+/**
+ * How {@code saveOrder} hands the stock reservation to Product Service.
+ */
+public enum ReservationMode {
+    /** Reserve inside the request; a rolled back order queues a release for its reservation. */
+    SYNC,
+    /** Store the order and a reserve command in one local transaction, the outbox relay sends it later. */
+    OUTBOX
+}
@@ -0,0 +1,15 @@
+package com.lwa.shop.lwa_order_service.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class VariantBatch {
+    private List<Variant> variants;
+    private List<Long> missingIds;
+}
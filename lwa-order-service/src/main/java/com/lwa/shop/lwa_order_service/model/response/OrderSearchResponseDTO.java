@@ -0,0 +1,16 @@
+package com.lwa.shop.lwa_order_service.model.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class OrderSearchResponseDTO {
+    private List<OrderResponseDTO> orders;
+    private String nextCursor; // pass as cursor to fetch the next page, null on the last page
+    private boolean hasMore;
+}
@@ -1,10 +1,44 @@
 package com.lwa.shop.lwa_order_service.repository;
 
 import com.lwa.shop.lwa_order_service.entity.Order;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
 @Repository
 public interface OrderRepository extends JpaRepository<Order, Long> {
-}
 
+    /* Orders without an order_summary row, or with one written before it carried created_at */
+    @Query("SELECT o.id FROM Order o WHERE o.id > :after AND NOT EXISTS " +
+            "(SELECT s.id FROM OrderSummary s WHERE s.id = o.id AND s.createdAt IS NOT NULL) ORDER BY o.id")
+    List<Long> findIdsWithoutSummary(@Param("after") Long after, Pageable pageable);
+
+    @Query("SELECT DISTINCT o FROM Order o LEFT JOIN FETCH o.orderItems WHERE o.id IN :ids ORDER BY o.id")
+    List<Order> findAllWithItemsByIdIn(@Param("ids") Collection<Long> ids);
+
+    /* Served from idx_orders_status_expires, so a sweep reads only the expired rows */
+    @Query("SELECT o.id FROM Order o WHERE o.status = 'PENDING' AND o.expiresAt <= :now ORDER BY o.expiresAt")
+    List<Long> findExpiredIds(@Param("now") LocalDateTime now, Pageable pageable);
+
+    /* Conditional, so only one instance expires an order; the version bump fails a concurrent save of it */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Order o SET o.status = 'EXPIRED', o.version = o.version + 1 " +
+            "WHERE o.id = :id AND o.status = 'PENDING' AND o.expiresAt <= :now")
+    int expire(@Param("id") Long id, @Param("now") LocalDateTime now);
+
+    /* Completes a PENDING order only while its reservation still holds */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Order o SET o.status = 'COMPLETED', o.version = o.version + 1 " +
+            "WHERE o.id = :id AND o.status = 'PENDING' AND (o.expiresAt IS NULL OR o.expiresAt > :now)")
+    int complete(@Param("id") Long id, @Param("now") LocalDateTime now);
+
+    @Query("SELECT o.reservationId FROM Order o WHERE o.id = :id")
+    String findReservationIdById(@Param("id") Long id);
+}
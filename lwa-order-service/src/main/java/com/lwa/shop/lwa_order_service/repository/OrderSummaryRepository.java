@@ -0,0 +1,133 @@
+package com.lwa.shop.lwa_order_service.repository;
+
+import com.lwa.shop.lwa_order_service.entity.OrderSummary;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.Stream;
+
+@Repository
+public interface OrderSummaryRepository extends JpaRepository<OrderSummary, Long> {
+
+    /*
+     * Search: one statement per filter combination instead of optional "(:x IS NULL OR ...)" predicates, so each is
+     * a range scan on the index starting with its equality columns, then created_at. OrderSearchIndexTest checks the
+     * plans. Keyset on (created_at, id): a page resumes at :from = created_at of the last row, after :cursorId.
+     */
+    String SEARCH_BY_CUSTOMER_AND_STATUS = "SELECT * FROM order_summary " +
+            "WHERE customer_name = :customerName AND status = :status " +
+            "AND created_at >= :from AND created_at < :to AND NOT (created_at = :from AND id <= :cursorId) " +
+            "ORDER BY created_at, id LIMIT :limit";
+
+    String SEARCH_BY_CUSTOMER = "SELECT * FROM order_summary " +
+            "WHERE customer_name = :customerName " +
+            "AND created_at >= :from AND created_at < :to AND NOT (created_at = :from AND id <= :cursorId) " +
+            "ORDER BY created_at, id LIMIT :limit";
+
+    String SEARCH_BY_STATUS = "SELECT * FROM order_summary " +
+            "WHERE status = :status " +
+            "AND created_at >= :from AND created_at < :to AND NOT (created_at = :from AND id <= :cursorId) " +
+            "ORDER BY created_at, id LIMIT :limit";
+
+    String SEARCH_BY_CREATED = "SELECT * FROM order_summary " +
+            "WHERE created_at >= :from AND created_at < :to AND NOT (created_at = :from AND id <= :cursorId) " +
+            "ORDER BY created_at, id LIMIT :limit";
+
+    @Query(value = SEARCH_BY_CUSTOMER_AND_STATUS, nativeQuery = true)
+    List<OrderSummary> searchByCustomerAndStatus(@Param("customerName") String customerName,
+                                                 @Param("status") String status,
+                                                 @Param("from") LocalDateTime from,
+                                                 @Param("to") LocalDateTime to,
+                                                 @Param("cursorId") long cursorId,
+                                                 @Param("limit") int limit);
+
+    @Query(value = SEARCH_BY_CUSTOMER, nativeQuery = true)
+    List<OrderSummary> searchByCustomer(@Param("customerName") String customerName,
+                                        @Param("from") LocalDateTime from,
+                                        @Param("to") LocalDateTime to,
+                                        @Param("cursorId") long cursorId,
+                                        @Param("limit") int limit);
+
+    @Query(value = SEARCH_BY_STATUS, nativeQuery = true)
+    List<OrderSummary> searchByStatus(@Param("status") String status,
+                                      @Param("from") LocalDateTime from,
+                                      @Param("to") LocalDateTime to,
+                                      @Param("cursorId") long cursorId,
+                                      @Param("limit") int limit);
+
+    @Query(value = SEARCH_BY_CREATED, nativeQuery = true)
+    List<OrderSummary> searchByCreated(@Param("from") LocalDateTime from,
+                                       @Param("to") LocalDateTime to,
+                                       @Param("cursorId") long cursorId,
+                                       @Param("limit") int limit);
+
+    /*
+     * Keyset page on id: rows after :cursor (0 for the first page), so the cost does not grow with the page number.
+     * Split per filter combination like the search, a filter is served by its index instead of being OR-ed away.
+     */
+    String PAGE_BY_CUSTOMER_AND_STATUS = "SELECT * FROM order_summary " +
+            "WHERE customer_name = :customerName AND status = :status AND id > :cursor ORDER BY id LIMIT :limit";
+
+    String PAGE_BY_CUSTOMER = "SELECT * FROM order_summary " +
+            "WHERE customer_name = :customerName AND id > :cursor ORDER BY id LIMIT :limit";
+
+    String PAGE_BY_STATUS = "SELECT * FROM order_summary " +
+            "WHERE status = :status AND id > :cursor ORDER BY id LIMIT :limit";
+
+    String PAGE_ALL = "SELECT * FROM order_summary " +
+            "WHERE id > :cursor ORDER BY id LIMIT :limit";
+
+    @Query(value = PAGE_BY_CUSTOMER_AND_STATUS, nativeQuery = true)
+    List<OrderSummary> pageByCustomerAndStatus(@Param("customerName") String customerName,
+                                               @Param("status") String status,
+                                               @Param("cursor") long cursor,
+                                               @Param("limit") int limit);
+
+    @Query(value = PAGE_BY_CUSTOMER, nativeQuery = true)
+    List<OrderSummary> pageByCustomer(@Param("customerName") String customerName,
+                                      @Param("cursor") long cursor,
+                                      @Param("limit") int limit);
+
+    @Query(value = PAGE_BY_STATUS, nativeQuery = true)
+    List<OrderSummary> pageByStatus(@Param("status") String status,
+                                    @Param("cursor") long cursor,
+                                    @Param("limit") int limit);
+
+    @Query(value = PAGE_ALL, nativeQuery = true)
+    List<OrderSummary> pageAll(@Param("cursor") long cursor,
+                               @Param("limit") int limit);
+
+    /* Streams, one per filter combination as well. Must be consumed inside a transaction and closed after use */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "100"))
+    @Query("SELECT s FROM OrderSummary s WHERE s.customerName = :customerName AND s.status = :status ORDER BY s.id")
+    Stream<OrderSummary> streamByCustomerAndStatus(@Param("customerName") String customerName,
+                                                   @Param("status") String status);
+
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "100"))
+    @Query("SELECT s FROM OrderSummary s WHERE s.customerName = :customerName ORDER BY s.id")
+    Stream<OrderSummary> streamByCustomer(@Param("customerName") String customerName);
+
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "100"))
+    @Query("SELECT s FROM OrderSummary s WHERE s.status = :status ORDER BY s.id")
+    Stream<OrderSummary> streamByStatus(@Param("status") String status);
+
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "100"))
+    @Query("SELECT s FROM OrderSummary s ORDER BY s.id")
+    Stream<OrderSummary> streamAll();
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE OrderSummary s SET s.status = :status, s.updatedAt = :now WHERE s.id = :id")
+    int updateStatus(@Param("id") Long id, @Param("status") String status, @Param("now") LocalDateTime now);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("DELETE FROM OrderSummary s WHERE s.id = :id")
+    int deleteByOrderId(@Param("id") Long id);
+}
@@ -1,9 +1,13 @@
 package com.lwa.shop.lwa_order_service.service;
 
 import com.lwa.shop.lwa_order_service.model.request.OrderRequestDTO;
+import com.lwa.shop.lwa_order_service.model.response.OrderPageResponseDTO;
 import com.lwa.shop.lwa_order_service.model.response.OrderResponseDTO;
+import com.lwa.shop.lwa_order_service.model.response.OrderSearchResponseDTO;
 
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.function.Consumer;
 
 public interface OrderService {
 
@@ -22,6 +26,41 @@ public interface OrderService {
      */
     List<OrderResponseDTO> getAllOrders();
 
+    /**
+     * Get one keyset page of orders, ordered by ID.
+     *
+     * @param cursor       the last order ID of the previous page, or null for the first page
+     * @param limit        the maximum number of orders to return
+     * @param status       optional status filter
+     * @param customerName optional customer name filter
+     * @return the page with the cursor for the next page
+     */
+    OrderPageResponseDTO getOrdersPage(Long cursor, int limit, String status, String customerName);
+
+    /**
+     * Search orders by customer, status and creation time, oldest first. Every filter is optional.
+     *
+     * @param customerName optional customer name
+     * @param status       optional status
+     * @param from         optional inclusive lower bound of the creation time
+     * @param to           optional exclusive upper bound of the creation time
+     * @param cursor       nextCursor of the previous page, or null for the first page
+     * @param limit        the maximum number of orders to return
+     * @return the page with the cursor for the next page
+     */
+    OrderSearchResponseDTO searchOrders(String customerName, String status, LocalDateTime from, LocalDateTime to,
+                                        String cursor, int limit);
+
+    /**
+     * Stream all matching orders, ordered by ID, handing each one to the consumer as soon as it is read.
+     * Orders are detached after use so memory stays constant regardless of the number of rows.
+     *
+     * @param status       optional status filter
+     * @param customerName optional customer name filter
+     * @param consumer     receives each order in turn
+     */
+    void streamOrders(String status, String customerName, Consumer<OrderResponseDTO> consumer);
+
     /**
      * Get a single order by ID.
      *
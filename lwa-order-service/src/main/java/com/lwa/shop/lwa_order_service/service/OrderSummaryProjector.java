@@ -0,0 +1,154 @@
+package com.lwa.shop.lwa_order_service.service;
+
+import com.lwa.shop.lwa_order_service.entity.Order;
+import com.lwa.shop.lwa_order_service.entity.OrderSummary;
+import com.lwa.shop.lwa_order_service.model.response.OrderItemResponseDTO;
+import com.lwa.shop.lwa_order_service.model.response.OrderResponseDTO;
+import com.lwa.shop.lwa_order_service.repository.OrderRepository;
+import com.lwa.shop.lwa_order_service.repository.OrderSummaryRepository;
+import com.lwa.shop.lwa_order_service.util.JsonUtil;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Keeps the {@link OrderSummary} read model in step with the orders. Every write of an order calls it in the
+ * same transaction, so a read after a write sees the write, and a rolled back write leaves no summary behind.
+ * Orders written before the read model existed, or before it carried {@code created_at}, are projected at startup.
+ */
+@Slf4j
+@Service
+public class OrderSummaryProjector {
+
+    private final OrderSummaryRepository orderSummaryRepository;
+    private final OrderRepository orderRepository;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${order.read-model.backfill-batch-size:500}")
+    private int backfillBatchSize;
+
+    public OrderSummaryProjector(OrderSummaryRepository orderSummaryRepository, OrderRepository orderRepository,
+                                 PlatformTransactionManager transactionManager) {
+        this.orderSummaryRepository = orderSummaryRepository;
+        this.orderRepository = orderRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    /**
+     * Write the summary of an order created in the caller's transaction, inserted without a lookup.
+     */
+    @Transactional
+    public void projectNew(Order order) {
+        OrderSummary summary = new OrderSummary();
+        summary.setNew(true);
+        orderSummaryRepository.save(fill(summary, order));
+    }
+
+    /**
+     * Write the summary of an order as it is now, in the caller's transaction.
+     */
+    @Transactional
+    public void project(Order order) {
+        OrderSummary summary = orderSummaryRepository.findById(order.getId()).orElseGet(() -> {
+            OrderSummary created = new OrderSummary();
+            created.setNew(true);
+            return created;
+        });
+        orderSummaryRepository.save(fill(summary, order));
+    }
+
+    private static OrderSummary fill(OrderSummary summary, Order order) {
+        OrderResponseDTO response = toResponse(order);
+        summary.setId(response.getId());
+        summary.setCustomerName(response.getCustomerName());
+        summary.setStatus(response.getStatus());
+        summary.setTotalAmount(response.getTotalAmount());
+        summary.setItemCount(response.getOrderItems().size());
+        summary.setItemsJson(JsonUtil.toJson(response.getOrderItems()));
+        summary.setCreatedAt(order.getCreatedAt() == null ? null
+                : LocalDateTime.ofInstant(order.getCreatedAt().toInstant(), ZoneId.systemDefault()));
+        summary.setUpdatedAt(LocalDateTime.now());
+        return summary;
+    }
+
+    /**
+     * Follow a status change made with a bulk update, which leaves the order entity untouched.
+     */
+    @Transactional
+    public void updateStatus(Long orderId, String status) {
+        orderSummaryRepository.updateStatus(orderId, status, LocalDateTime.now());
+    }
+
+    @Transactional
+    public void remove(Long orderId) {
+        orderSummaryRepository.deleteByOrderId(orderId);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfill() {
+        int total = 0;
+        long after = 0;
+        List<Long> ids;
+        do {
+            // Walk forward by id, an order without created_at would otherwise be picked up again
+            ids = orderRepository.findIdsWithoutSummary(after, PageRequest.of(0, backfillBatchSize));
+            if (ids.isEmpty()) {
+                break;
+            }
+            List<Long> batch = ids;
+            transactionTemplate.executeWithoutResult(status ->
+                    orderRepository.findAllWithItemsByIdIn(batch).forEach(this::project));
+            after = ids.get(ids.size() - 1);
+            total += ids.size();
+        } while (ids.size() == backfillBatchSize);
+        if (total > 0) {
+            log.info("Projected {} existing orders into order_summary", total);
+        }
+    }
+
+    public static OrderResponseDTO toResponse(OrderSummary summary) {
+        OrderResponseDTO dto = new OrderResponseDTO();
+        dto.setId(summary.getId());
+        dto.setCustomerName(summary.getCustomerName());
+        dto.setStatus(summary.getStatus());
+        dto.setTotalAmount(summary.getTotalAmount());
+        OrderItemResponseDTO[] items = summary.getItemsJson() == null ? null
+                : JsonUtil.fromJson(summary.getItemsJson(), OrderItemResponseDTO[].class);
+        dto.setOrderItems(items == null ? List.of() : Arrays.asList(items));
+        return dto;
+    }
+
+    public static OrderResponseDTO toResponse(Order order) {
+        OrderResponseDTO dto = new OrderResponseDTO();
+        dto.setId(order.getId());
+        dto.setCustomerName(order.getCustomerName());
+        dto.setStatus(order.getStatus());
+        dto.setTotalAmount(order.getTotalAmount());
+
+        List<OrderItemResponseDTO> items = order.getOrderItems().stream()
+                .map(item -> {
+                    OrderItemResponseDTO itemDto = new OrderItemResponseDTO();
+                    itemDto.setId(item.getId());
+                    itemDto.setQuantity(item.getQuantity());
+                    itemDto.setPrice(item.getPrice());
+                    itemDto.setVariantColor(item.getColor()); // use snapshot
+                    itemDto.setVariantSize(item.getSize());   // use snapshot
+                    return itemDto;
+                }).collect(Collectors.toList());
+
+        dto.setOrderItems(items);
+        return dto;
+    }
+}
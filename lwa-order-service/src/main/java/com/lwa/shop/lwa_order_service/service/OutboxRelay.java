@@ -0,0 +1,221 @@
+package com.lwa.shop.lwa_order_service.service;
+
+import com.lwa.shop.lwa_order_service.entity.Order;
+import com.lwa.shop.lwa_order_service.entity.OrderItem;
+import com.lwa.shop.lwa_order_service.entity.OutboxEvent;
+import com.lwa.shop.lwa_order_service.feign.LwaProductFeign;
+import com.lwa.shop.lwa_order_service.model.GeneralResponse;
+import com.lwa.shop.lwa_order_service.model.Variant;
+import com.lwa.shop.lwa_order_service.model.request.ReserveStockRequest;
+import com.lwa.shop.lwa_order_service.repository.OrderRepository;
+import com.lwa.shop.lwa_order_service.repository.OutboxEventRepository;
+import com.lwa.shop.lwa_order_service.util.JsonUtil;
+import feign.FeignException;
+import io.micrometer.core.instrument.Metrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Delivers outbox commands to Product Service off the request thread.
+ * An event is leased with a conditional update before it is sent, so several instances can run the relay.
+ * Delivery is at least once; Product Service deduplicates by reservation id, and a reserve is marked sent in the
+ * transaction that applies it to the order, so a repeated delivery leaves a reserved order alone.
+ * A reserve rejected with a 4xx, or still failing after {@code order.outbox.max-attempts}, fails the order
+ * and queues a compensating release. Sent and failed events are deleted after {@code order.outbox.retention-seconds}.
+ */
+@Slf4j
+@Service
+public class OutboxRelay {
+
+    private final OutboxEventRepository outboxEventRepository;
+    private final OrderRepository orderRepository;
+    private final OutboxService outboxService;
+    private final LwaProductFeign lwaProductFeign;
+    private final ReservationExpiryService reservationExpiryService;
+    private final OrderSummaryProjector orderSummaryProjector;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${order.outbox.batch-size:50}")
+    private int batchSize;
+
+    @Value("${order.outbox.max-attempts:10}")
+    private int maxAttempts;
+
+    @Value("${order.outbox.lease-ms:30000}")
+    private long leaseMs;
+
+    @Value("${order.outbox.retention-seconds:3600}")
+    private long retentionSeconds;
+
+    public OutboxRelay(OutboxEventRepository outboxEventRepository, OrderRepository orderRepository,
+                       OutboxService outboxService, LwaProductFeign lwaProductFeign,
+                       ReservationExpiryService reservationExpiryService,
+                       OrderSummaryProjector orderSummaryProjector,
+                       PlatformTransactionManager transactionManager) {
+        this.outboxEventRepository = outboxEventRepository;
+        this.orderRepository = orderRepository;
+        this.outboxService = outboxService;
+        this.lwaProductFeign = lwaProductFeign;
+        this.reservationExpiryService = reservationExpiryService;
+        this.orderSummaryProjector = orderSummaryProjector;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    @Scheduled(fixedDelayString = "${order.outbox.poll-interval-ms:200}")
+    public void relay() {
+        LocalDateTime now = LocalDateTime.now();
+        List<Long> due = outboxEventRepository.findDueIds(now, PageRequest.of(0, batchSize));
+        for (Long id : due) {
+            if (outboxEventRepository.claim(id, now, now.plusNanos(leaseMs * 1_000_000)) == 1) {
+                outboxEventRepository.findById(id).ifPresent(this::deliver);
+            }
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${order.outbox.prune-interval-ms:600000}")
+    public void prune() {
+        Date before = new Date(System.currentTimeMillis() - retentionSeconds * 1000);
+        int deleted = outboxEventRepository.deleteFinishedBefore(before);
+        if (deleted > 0) {
+            log.info("Deleted {} sent or failed outbox events older than {}", deleted, before);
+        }
+    }
+
+    void deliver(OutboxEvent event) {
+        try {
+            if (OutboxEvent.RESERVE_STOCK.equals(event.getType())) {
+                sendReserve(event);
+            } else {
+                sendRelease(event);
+                markSent(event);
+            }
+        } catch (FeignException e) {
+            if (e.status() >= 400 && e.status() < 500) {
+                if (OutboxEvent.RESERVE_STOCK.equals(event.getType())) {
+                    Metrics.counter("order.stock.rejections", "mode", "outbox").increment();
+                }
+                reject(event, e.getMessage());
+            } else {
+                retryLater(event, e);
+            }
+        } catch (RuntimeException e) {
+            retryLater(event, e);
+        }
+    }
+
+    private void sendReserve(OutboxEvent event) {
+        ReserveStockRequest request = JsonUtil.fromJson(event.getPayload(), ReserveStockRequest.class);
+        GeneralResponse<List<Variant>> response = lwaProductFeign.reserveStock(request);
+        if (response == null || response.getData() == null) {
+            throw new IllegalStateException("Unable to reserve stock: " + (response == null ? "no response" : response.getMessage()));
+        }
+
+        Map<Long, Variant> reserved = response.getData().stream()
+                .collect(Collectors.toMap(Variant::getId, Function.identity()));
+        // The order and the event are written together: a second delivery of the same event, after a crash or an
+        // expired lease, finds the order past RESERVING and must not take its stock back
+        transactionTemplate.executeWithoutResult(status -> {
+            markSent(event);
+            Order order = orderRepository.findById(event.getOrderId()).orElse(null);
+            if (order == null || "FAILED".equals(order.getStatus())
+                    || !request.getReservationId().equals(order.getReservationId())) {
+                // Deleted or failed meanwhile, the stock is not needed any more
+                outboxService.enqueueRelease(event.getOrderId(), request.getReservationId());
+                return;
+            }
+            if (!"RESERVING".equals(order.getStatus())) {
+                log.info("Reservation {} of order {} was already applied", request.getReservationId(), order.getId());
+                return;
+            }
+            double totalAmount = 0.0;
+            for (OrderItem item : order.getOrderItems()) {
+                Variant variant = reserved.get(item.getVariantId());
+                item.setPrice(variant.getPrice());
+                item.setColor(variant.getColor());
+                item.setSize(variant.getSize());
+                totalAmount += item.getPrice() * item.getQuantity();
+            }
+            order.setTotalAmount(totalAmount);
+            order.setStatus("PENDING");
+            order.setExpiresAt(reservationExpiryService.expiresAt(LocalDateTime.now()));
+            orderRepository.save(order);
+            orderSummaryProjector.project(order);
+            reservationExpiryService.schedule(order.getId(), order.getExpiresAt());
+            log.info("Stock reserved for order {}", order.getId());
+        });
+    }
+
+    private void markSent(OutboxEvent event) {
+        event.setStatus("SENT");
+        event.setLastError(null);
+        outboxEventRepository.save(event);
+    }
+
+    private void sendRelease(OutboxEvent event) {
+        GeneralResponse<Void> response = lwaProductFeign.releaseReservation(event.getPayload());
+        if (response == null || "FAILED".equals(response.getStatus())) {
+            throw new IllegalStateException("Unable to release reservation: " + (response == null ? "no response" : response.getMessage()));
+        }
+        log.info("Released reservation {} for order {}", event.getPayload(), event.getOrderId());
+    }
+
+    private void retryLater(OutboxEvent event, RuntimeException e) {
+        if (event.getAttempts() >= maxAttempts) {
+            reject(event, e.getMessage());
+            return;
+        }
+        // Exponential backoff from 1s, capped at 5 minutes
+        long delayMs = Math.min(1000L << Math.min(event.getAttempts(), 16), 300_000L);
+        event.setNextAttemptAt(LocalDateTime.now().plusNanos(delayMs * 1_000_000));
+        event.setLastError(truncate(e.getMessage()));
+        outboxEventRepository.save(event);
+        log.warn("Delivery of {} {} failed (attempt {}), retrying in {} ms", event.getType(), event.getId(),
+                event.getAttempts(), delayMs, e);
+    }
+
+    private void reject(OutboxEvent event, String reason) {
+        log.error("Giving up on {} {} for order {}: {}", event.getType(), event.getId(), event.getOrderId(), reason);
+        Metrics.counter("order.fallbacks", "method",
+                OutboxEvent.RESERVE_STOCK.equals(event.getType()) ? "reserveStock" : "releaseReservation").increment();
+        transactionTemplate.executeWithoutResult(status -> {
+            event.setStatus("FAILED");
+            event.setLastError(truncate(reason));
+            outboxEventRepository.save(event);
+
+            if (OutboxEvent.RESERVE_STOCK.equals(event.getType())) {
+                // Compensate: the reserve may have been applied even if we never saw the answer. Only an order still
+                // waiting for it: an earlier delivery may have made it PENDING, and a deleted order released its stock
+                ReserveStockRequest request = JsonUtil.fromJson(event.getPayload(), ReserveStockRequest.class);
+                Order order = orderRepository.findById(event.getOrderId()).orElse(null);
+                if (order == null || !"RESERVING".equals(order.getStatus())) {
+                    log.info("Order {} is {}, nothing to compensate", event.getOrderId(),
+                            order == null ? "deleted" : order.getStatus());
+                    return;
+                }
+                order.setStatus("FAILED");
+                orderRepository.save(order);
+                orderSummaryProjector.project(order);
+                outboxService.enqueueRelease(event.getOrderId(), request.getReservationId());
+            }
+        });
+    }
+
+    private String truncate(String message) {
+        if (message == null) {
+            return null;
+        }
+        return message.length() > 1000 ? message.substring(0, 1000) : message;
+    }
+}
@@ -0,0 +1,111 @@
+package com.lwa.shop.lwa_order_service.service;
+
+import com.lwa.shop.lwa_order_service.entity.Order;
+import com.lwa.shop.lwa_order_service.entity.OutboxEvent;
+import com.lwa.shop.lwa_order_service.model.request.ReserveStockItem;
+import com.lwa.shop.lwa_order_service.model.request.ReserveStockRequest;
+import com.lwa.shop.lwa_order_service.repository.OutboxEventRepository;
+import com.lwa.shop.lwa_order_service.util.JsonUtil;
+import io.micrometer.core.instrument.Metrics;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+@Slf4j
+@Service
+public class OutboxService {
+
+    private final OutboxEventRepository outboxEventRepository;
+    private final TransactionTemplate newTransaction;
+
+    // Writes the releases of rolled back orders. The rolled back transaction keeps its connection until after
+    // afterCompletion, so taking a second one there would exhaust the pool when many orders fail at once.
+    private final ExecutorService rollbackWriter = Executors.newSingleThreadExecutor(task -> {
+        Thread thread = new Thread(task, "outbox-rollback");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public OutboxService(OutboxEventRepository outboxEventRepository, PlatformTransactionManager transactionManager) {
+        this.outboxEventRepository = outboxEventRepository;
+        this.newTransaction = new TransactionTemplate(transactionManager);
+        this.newTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    /**
+     * Queue the reservation of an order, in the caller's transaction.
+     */
+    @Transactional
+    public void enqueueReserve(Order order) {
+        List<ReserveStockItem> lines = order.getOrderItems().stream()
+                .map(item -> new ReserveStockItem(item.getVariantId(), item.getQuantity()))
+                .collect(Collectors.toList());
+        save(order.getId(), OutboxEvent.RESERVE_STOCK, JsonUtil.toJson(new ReserveStockRequest(lines, order.getReservationId())));
+    }
+
+    /**
+     * Queue the release of a reservation, in the caller's transaction.
+     */
+    @Transactional
+    public void enqueueRelease(Long orderId, String reservationId) {
+        save(orderId, OutboxEvent.RELEASE_STOCK, reservationId);
+    }
+
+    /**
+     * Queue a release of the reservation if the current transaction rolls back,
+     * so stock taken by a failed or retried attempt is given back. Not needed when Product Service refused the
+     * reserve with a 409, nothing was taken then.
+     */
+    public void releaseOnRollback(String reservationId) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status == STATUS_ROLLED_BACK) {
+                    log.warn("Order transaction rolled back, queueing release of reservation {}", reservationId);
+                    rollbackWriter.execute(() -> {
+                        try {
+                            newTransaction.executeWithoutResult(tx -> enqueueRelease(null, reservationId));
+                        } catch (RuntimeException e) {
+                            Metrics.counter("order.fallbacks", "method", "queueRelease").increment();
+                            log.error("Failed to queue release of reservation {}", reservationId, e);
+                        }
+                    });
+                }
+            }
+        });
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        rollbackWriter.shutdown();
+        rollbackWriter.awaitTermination(10, TimeUnit.SECONDS);
+    }
+
+    private void save(Long orderId, String type, String payload) {
+        OutboxEvent event = new OutboxEvent();
+        event.setOrderId(orderId);
+        event.setType(type);
+        event.setStatus("PENDING");
+        event.setPayload(payload);
+        event.setAttempts(0);
+        event.setNextAttemptAt(LocalDateTime.now());
+        outboxEventRepository.save(event);
+        log.info("Queued {} for order {}", type, orderId);
+    }
+}
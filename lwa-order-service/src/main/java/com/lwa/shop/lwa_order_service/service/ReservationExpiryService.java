@@ -0,0 +1,177 @@
+package com.lwa.shop.lwa_order_service.service;
+
+import com.lwa.shop.lwa_order_service.entity.Order;
+import com.lwa.shop.lwa_order_service.entity.OrderItem;
+import com.lwa.shop.lwa_order_service.feign.LwaProductFeign;
+import com.lwa.shop.lwa_order_service.model.GeneralResponse;
+import com.lwa.shop.lwa_order_service.model.Variant;
+import com.lwa.shop.lwa_order_service.repository.OrderRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Gives the stock of abandoned orders back. A {@code PENDING} order holding a reservation expires
+ * {@code order.reservation.ttl-seconds} after it was reserved: it moves to {@code EXPIRED} and a release of its
+ * reservation is queued in the outbox, in the same transaction. An order reserved line by line
+ * ({@code order.line-processing.mode=PARALLEL}) has no reservation: each line is given back with
+ * {@code increase-stock} under the same idempotency keys as a delete, in its own transaction, and an order whose
+ * lines could not all be given back stays {@code PENDING} for the next sweep.
+ * <p>
+ * Orders created by this instance are tracked in a {@link TimingWheel} and expired in batches as their tick passes.
+ * Orders of other or restarted instances are picked up by a periodic sweep over the {@code (status, expires_at)}
+ * index. The expiry itself is a conditional update, so when several instances race for an order exactly one
+ * releases it, and a complete that races an expiry fails on the order version.
+ */
+@Slf4j
+@Service
+public class ReservationExpiryService {
+
+    private final OrderRepository orderRepository;
+    private final OutboxService outboxService;
+    private final LwaProductFeign lwaProductFeign;
+    private final OrderSummaryProjector orderSummaryProjector;
+    private final TransactionTemplate transactionTemplate;
+    private final TimingWheel<Long> wheel;
+
+    @Value("${order.reservation.ttl-seconds:900}")
+    private long ttlSeconds;
+
+    @Value("${order.reservation.expiry.batch-size:100}")
+    private int batchSize;
+
+    public ReservationExpiryService(OrderRepository orderRepository, OutboxService outboxService,
+                                    LwaProductFeign lwaProductFeign, OrderSummaryProjector orderSummaryProjector,
+                                    PlatformTransactionManager transactionManager,
+                                    @Value("${order.reservation.expiry.tick-ms:1000}") long tickMs,
+                                    @Value("${order.reservation.expiry.wheel-size:512}") int wheelSize) {
+        this.orderRepository = orderRepository;
+        this.outboxService = outboxService;
+        this.lwaProductFeign = lwaProductFeign;
+        this.orderSummaryProjector = orderSummaryProjector;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.wheel = new TimingWheel<>(tickMs, wheelSize, System.currentTimeMillis());
+    }
+
+    /**
+     * @return when a reservation taken now expires, or null if reservations do not expire
+     */
+    public LocalDateTime expiresAt(LocalDateTime reservedAt) {
+        return ttlSeconds > 0 ? reservedAt.plusSeconds(ttlSeconds) : null;
+    }
+
+    /**
+     * Track an order for expiry, once the current transaction has committed.
+     */
+    public void schedule(Long orderId, LocalDateTime expiresAt) {
+        if (orderId == null || expiresAt == null) {
+            return;
+        }
+        long deadlineMs = expiresAt.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            wheel.add(orderId, deadlineMs);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                wheel.add(orderId, deadlineMs);
+            }
+        });
+    }
+
+    @Scheduled(fixedDelayString = "${order.reservation.expiry.tick-ms:1000}")
+    public void tick() {
+        List<Long> due = wheel.advance(System.currentTimeMillis());
+        for (int from = 0; from < due.size(); from += batchSize) {
+            expire(due.subList(from, Math.min(from + batchSize, due.size())));
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${order.reservation.expiry.sweep-interval-ms:60000}")
+    public void sweep() {
+        List<Long> ids;
+        int expired;
+        do {
+            ids = orderRepository.findExpiredIds(LocalDateTime.now(), PageRequest.of(0, batchSize));
+            expired = expire(ids);
+        } while (ids.size() == batchSize && expired > 0);
+    }
+
+    /**
+     * Expire the orders that are still pending and past their expiry, in one transaction.
+     *
+     * @return how many orders this call expired
+     */
+    public int expire(List<Long> orderIds) {
+        if (orderIds.isEmpty()) {
+            return 0;
+        }
+        List<Long> lineOrders = new ArrayList<>();
+        Integer expired = transactionTemplate.execute(status -> {
+            LocalDateTime now = LocalDateTime.now();
+            int count = 0;
+            for (Long id : orderIds) {
+                String reservationId = orderRepository.findReservationIdById(id);
+                if (reservationId == null) {
+                    // Reserved line by line, or deleted
+                    lineOrders.add(id);
+                    continue;
+                }
+                // Completed, deleted or already expired by another instance
+                if (orderRepository.expire(id, now) == 0) {
+                    continue;
+                }
+                orderSummaryProjector.updateStatus(id, "EXPIRED");
+                outboxService.enqueueRelease(id, reservationId);
+                count++;
+            }
+            return count;
+        });
+        int count = expired == null ? 0 : expired;
+        for (Long id : lineOrders) {
+            if (expireLines(id)) {
+                count++;
+            }
+        }
+        if (count > 0) {
+            log.info("Expired {} of {} pending orders", count, orderIds.size());
+        }
+        return count;
+    }
+
+    private boolean expireLines(Long orderId) {
+        try {
+            Boolean expired = transactionTemplate.execute(status -> {
+                if (orderRepository.expire(orderId, LocalDateTime.now()) == 0) {
+                    return false;
+                }
+                orderSummaryProjector.updateStatus(orderId, "EXPIRED");
+                Order order = orderRepository.findById(orderId).orElseThrow();
+                for (OrderItem item : order.getOrderItems()) {
+                    GeneralResponse<Variant> response = lwaProductFeign.increaseStock(item.getVariantId(),
+                            item.getQuantity(), "delete-order:" + orderId + ":" + item.getId());
+                    if (response == null || "FAILED".equals(response.getStatus())) {
+                        throw new IllegalStateException("Unable to give back stock of variant " + item.getVariantId());
+                    }
+                }
+                return true;
+            });
+            return Boolean.TRUE.equals(expired);
+        } catch (RuntimeException e) {
+            log.warn("Could not give back the stock of order {}, it stays pending until the next sweep", orderId, e);
+            return false;
+        }
+    }
+}
@@ -1,5 +1,6 @@
 package com.lwa.shop.lwa_order_service.service;
 
+import com.lwa.shop.lwa_order_service.exception.ConcurrencyLimitExceededException;
 import com.lwa.shop.lwa_order_service.exception.CustomException;
 import com.lwa.shop.lwa_order_service.model.GeneralResponse;
 import com.lwa.shop.lwa_order_service.util.ResponseUtil;
@@ -11,6 +12,9 @@ public class ServiceHandler {
     public static <T> ResponseEntity<GeneralResponse<T>> handle(ServiceExecutor<T> executor) {
         try {
             return executor.execute();
+        } catch (ConcurrencyLimitExceededException e) {
+            log.warn("Rejected: {}", e.getMessage());
+            return ResponseUtil.unavailable(e.getMessage());
         } catch (CustomException e) {
             log.error("Business error: {}", e.getMessage());
             return ResponseUtil.error(e.getMessage());
@@ -0,0 +1,82 @@
+package com.lwa.shop.lwa_order_service.service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Hashed timing wheel: adding a timeout and picking it up when due are O(1), however many are pending.
+ * Time is cut in ticks of {@code tickMs}; a timeout goes to bucket {@code tick % size} and a timeout more than one
+ * rotation away stays there until its round comes.
+ * {@link #add} is thread safe, {@link #advance} is meant for one ticking thread.
+ */
+class TimingWheel<T> {
+
+    private record Timeout<T>(T item, long deadlineTick) {
+    }
+
+    private final long tickMs;
+    private final int mask;
+    private final Queue<Timeout<T>>[] buckets;
+    private final AtomicInteger size = new AtomicInteger();
+
+    // Last tick that has been processed
+    private volatile long currentTick;
+
+    @SuppressWarnings("unchecked")
+    TimingWheel(long tickMs, int wheelSize, long nowMs) {
+        if (tickMs <= 0 || wheelSize <= 0) {
+            throw new IllegalArgumentException("tickMs and wheelSize must be positive");
+        }
+        // Round up to a power of two so the bucket is a mask instead of a modulo
+        int buckets = wheelSize == 1 ? 1 : Integer.highestOneBit(wheelSize - 1) << 1;
+        this.tickMs = tickMs;
+        this.mask = buckets - 1;
+        this.buckets = new Queue[buckets];
+        for (int i = 0; i < buckets; i++) {
+            this.buckets[i] = new ConcurrentLinkedQueue<>();
+        }
+        this.currentTick = nowMs / tickMs;
+    }
+
+    /**
+     * Schedule an item. A deadline in the past is due on the next tick.
+     */
+    void add(T item, long deadlineMs) {
+        long tick = Math.max(-Math.floorDiv(-deadlineMs, tickMs), currentTick + 1);
+        // If a tick passes this bucket meanwhile the item is picked up one rotation late, never lost
+        buckets[(int) (tick & mask)].add(new Timeout<>(item, tick));
+        size.incrementAndGet();
+    }
+
+    /**
+     * Move the wheel to the given time and return every item that became due, in no particular order.
+     */
+    synchronized List<T> advance(long nowMs) {
+        long target = nowMs / tickMs;
+        List<T> due = new ArrayList<>();
+        // After a long pause one full rotation visits every bucket, so there is no need to walk every missed tick
+        for (long tick = Math.max(currentTick + 1, target - mask); tick <= target; tick++) {
+            Queue<Timeout<T>> bucket = buckets[(int) (tick & mask)];
+            List<Timeout<T>> later = new ArrayList<>();
+            Timeout<T> timeout;
+            while ((timeout = bucket.poll()) != null) {
+                if (timeout.deadlineTick() <= target) {
+                    due.add(timeout.item());
+                    size.decrementAndGet();
+                } else {
+                    later.add(timeout);
+                }
+            }
+            bucket.addAll(later);
+            currentTick = tick;
+        }
+        return due;
+    }
+
+    int size() {
+        return size.get();
+    }
+}
@@ -0,0 +1,112 @@
+package com.lwa.shop.lwa_order_service.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import com.lwa.shop.lwa_order_service.exception.CustomException;
+import com.lwa.shop.lwa_order_service.feign.LwaProductFeign;
+import com.lwa.shop.lwa_order_service.model.GeneralResponse;
+import com.lwa.shop.lwa_order_service.model.Variant;
+import com.lwa.shop.lwa_order_service.model.VariantBatch;
+import com.lwa.shop.lwa_order_service.model.response.VariantCacheStatsDTO;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Bounded near-cache of variant catalog data (price, color, size, stock) keyed by variant id.
+ * Entries expire after {@code order.variant-cache.ttl-seconds} and are dropped early when
+ * Product Service calls the invalidation endpoint after a variant is saved or deleted.
+ * Cached stock is only used as a pre-check; the stock reduction itself always goes to Product Service.
+ */
+@Slf4j
+@Component
+public class VariantCache {
+
+    private final LwaProductFeign lwaProductFeign;
+    private final Cache<Long, Variant> cache;
+
+    public VariantCache(LwaProductFeign lwaProductFeign,
+                        @Value("${order.variant-cache.max-size:10000}") long maxSize,
+                        @Value("${order.variant-cache.ttl-seconds:30}") long ttlSeconds) {
+        this.lwaProductFeign = lwaProductFeign;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+                .recordStats()
+                .build();
+    }
+
+    /**
+     * Get a variant, loading it from Product Service on a miss.
+     *
+     * @param id the variant ID
+     * @return the variant
+     */
+    public Variant get(Long id) {
+        Variant variant = cache.get(id, this::load);
+        if (variant == null) {
+            throw new CustomException("Unable to fetch variant id: " + id);
+        }
+        return variant;
+    }
+
+    /**
+     * Get a variant straight from Product Service and replace the cached copy.
+     *
+     * @param id the variant ID
+     * @return the fresh variant
+     */
+    public Variant refresh(Long id) {
+        cache.invalidate(id);
+        return get(id);
+    }
+
+    /**
+     * Get several variants, loading all misses with one batch call.
+     *
+     * @param ids the variant IDs
+     * @return the variants found, keyed by id
+     */
+    public Map<Long, Variant> getAll(Collection<Long> ids) {
+        return cache.getAll(ids, this::loadAll);
+    }
+
+    public void invalidate(Long id) {
+        cache.invalidate(id);
+        log.info("Invalidated cached variant id: {}", id);
+    }
+
+    public void invalidateAll() {
+        cache.invalidateAll();
+        log.info("Invalidated all cached variants");
+    }
+
+    public VariantCacheStatsDTO stats() {
+        CacheStats stats = cache.stats();
+        return new VariantCacheStatsDTO(cache.estimatedSize(), stats.hitCount(), stats.missCount(),
+                stats.evictionCount(), stats.hitRate());
+    }
+
+    private Variant load(Long id) {
+        GeneralResponse<Variant> response = lwaProductFeign.getVariant(id);
+        return response == null ? null : response.getData();
+    }
+
+    private Map<Long, Variant> loadAll(Set<? extends Long> ids) {
+        GeneralResponse<VariantBatch> response = lwaProductFeign.getVariants(new ArrayList<>(ids));
+        if (response == null || response.getData() == null || response.getData().getVariants() == null) {
+            throw new CustomException("Unable to fetch variants: " + ids);
+        }
+        return response.getData().getVariants().stream()
+                .collect(Collectors.toMap(Variant::getId, Function.identity()));
+    }
+}
@@ -2,25 +2,65 @@ package com.lwa.shop.lwa_order_service.service.impl;
 
 import com.lwa.shop.lwa_order_service.entity.Order;
 import com.lwa.shop.lwa_order_service.entity.OrderItem;
+import com.lwa.shop.lwa_order_service.entity.OrderSummary;
 import com.lwa.shop.lwa_order_service.model.Variant;
+import com.lwa.shop.lwa_order_service.exception.ConcurrencyLimitExceededException;
 import com.lwa.shop.lwa_order_service.exception.CustomException;
+import com.lwa.shop.lwa_order_service.exception.InvalidRequestException;
+import com.lwa.shop.lwa_order_service.exception.OrderStateException;
 import com.lwa.shop.lwa_order_service.feign.LwaProductFeign;
 import com.lwa.shop.lwa_order_service.model.GeneralResponse;
+import com.lwa.shop.lwa_order_service.model.LineProcessingMode;
+import com.lwa.shop.lwa_order_service.model.ReservationMode;
 import com.lwa.shop.lwa_order_service.model.request.OrderItemRequestDTO;
 import com.lwa.shop.lwa_order_service.model.request.OrderRequestDTO;
-import com.lwa.shop.lwa_order_service.model.response.OrderItemResponseDTO;
+import com.lwa.shop.lwa_order_service.model.request.ReserveStockItem;
+import com.lwa.shop.lwa_order_service.model.request.ReserveStockRequest;
+import com.lwa.shop.lwa_order_service.model.response.OrderPageResponseDTO;
 import com.lwa.shop.lwa_order_service.model.response.OrderResponseDTO;
+import com.lwa.shop.lwa_order_service.model.response.OrderSearchResponseDTO;
 import com.lwa.shop.lwa_order_service.repository.OrderRepository;
+import com.lwa.shop.lwa_order_service.repository.OrderSummaryRepository;
 import com.lwa.shop.lwa_order_service.service.OrderService;
+import com.lwa.shop.lwa_order_service.service.OrderSummaryProjector;
+import com.lwa.shop.lwa_order_service.service.OutboxService;
+import com.lwa.shop.lwa_order_service.service.ReservationExpiryService;
+import com.lwa.shop.lwa_order_service.service.VariantCache;
+import feign.FeignException;
 import io.github.resilience4j.circuitbreaker.annotation.CircuitBreaker;
-import io.github.resilience4j.retry.annotation.Retry;
+import io.micrometer.core.annotation.Timed;
+import io.micrometer.core.instrument.Metrics;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.util.StringUtils;
 
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+import java.util.function.Function;
 import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
 
 @Slf4j
 @Service
@@ -29,29 +69,67 @@ public class OrderServiceImpl implements OrderService {
 
     private final OrderRepository orderRepository;
     private final LwaProductFeign lwaProductFeign;
+    private final Executor orderLineExecutor;
+    private final VariantCache variantCache;
+    private final OutboxService outboxService;
+    private final ReservationExpiryService reservationExpiryService;
+    private final OrderSummaryRepository orderSummaryRepository;
+    private final OrderSummaryProjector orderSummaryProjector;
+
+    @Value("${order.line-processing.mode:BATCH}")
+    private LineProcessingMode lineProcessingMode;
+
+    @Value("${order.reservation.mode:SYNC}")
+    private ReservationMode reservationMode;
+
+    @Value("${order.line-processing.timeout-ms:10000}")
+    private long lineTimeoutMs;
+
+    @Value("${order.logging.line-sample-rate:0.01}")
+    private double lineLogSampleRate;
+
+    @PersistenceContext
+    private EntityManager entityManager;
 
     private static final String STOCK_CB = "stockService";
+    private static final int MAX_PAGE_SIZE = 100;
+    // Bounds of a search without from or to, still a range so the created_at indexes apply
+    private static final LocalDateTime SEARCH_FROM = LocalDateTime.of(1970, 1, 1, 0, 0);
+    private static final LocalDateTime SEARCH_TO = LocalDateTime.of(9999, 1, 1, 0, 0);
 
     @Override
     @Transactional
-    @Retry(name = STOCK_CB, fallbackMethod = "fallbackSaveOrder")
+    @Timed(value = "order.service", histogram = true)
+    // Not retried as a whole: the Feign calls retry on their own, another layer would multiply the load on Product Service
     @CircuitBreaker(name = STOCK_CB, fallbackMethod = "fallbackSaveOrder")
     public OrderResponseDTO saveOrder(OrderRequestDTO dto) {
         log.info("==== START creating order for customer: {} ====", dto.getCustomerName());
 
+        if (dto.getOrderItems() == null || dto.getOrderItems().isEmpty()) {
+            throw new CustomException("Order must contain at least one item");
+        }
+
+        if (reservationMode == ReservationMode.OUTBOX) {
+            return acceptOrder(dto);
+        }
+
         Order order = new Order();
         order.setCustomerName(dto.getCustomerName());
         order.setStatus("PENDING");
 
         double totalAmount = 0.0;
+        boolean logLines = sampleLineLogs();
 
-        List<OrderItem> orderItems = dto.getOrderItems().stream()
-                .map(itemDto -> {
-                    log.info("Processing order item for variantId: {} with quantity: {}",
-                            itemDto.getVariantId(), itemDto.getQuantity());
-                    return createOrderItem(itemDto);
-                })
-                .collect(Collectors.toList());
+        List<OrderItem> orderItems;
+        if (lineProcessingMode == LineProcessingMode.PARALLEL) {
+            orderItems = processLinesInParallel(dto.getOrderItems(), logLines);
+        } else {
+            // A fresh id per attempt: a retried or rolled back attempt releases its own reservation
+            order.setReservationId(UUID.randomUUID().toString());
+            orderItems = processLinesInBatch(dto.getOrderItems(), order.getReservationId(), logLines);
+        }
+        // Without a reservation id the expiry gives the lines back one by one
+        order.setExpiresAt(reservationExpiryService.expiresAt(LocalDateTime.now()));
 
         for (OrderItem item : orderItems) {
             totalAmount += item.getPrice() * item.getQuantity();
@@ -62,38 +140,263 @@ public class OrderServiceImpl implements OrderService {
         order.setTotalAmount(totalAmount);
 
         Order savedOrder = orderRepository.save(order);
+        orderSummaryProjector.projectNew(savedOrder);
+        reservationExpiryService.schedule(savedOrder.getId(), savedOrder.getExpiresAt());
+
+        log.info("==== FINISHED creating order with id: {} for customer: {}, items: {} ====",
+                savedOrder.getId(), savedOrder.getCustomerName(), orderItems.size());
+
+        return OrderSummaryProjector.toResponse(savedOrder);
+    }
 
-        log.info("==== FINISHED creating order with id: {} for customer: {} ====",
+    /**
+     * Store the order with its lines and a reserve command in one local transaction.
+     * Prices are filled in by the outbox relay once Product Service has reserved the stock.
+     */
+    private OrderResponseDTO acceptOrder(OrderRequestDTO dto) {
+        Order order = new Order();
+        order.setCustomerName(dto.getCustomerName());
+        order.setStatus("RESERVING");
+        order.setTotalAmount(0.0);
+        order.setReservationId(UUID.randomUUID().toString());
+        order.setOrderItems(dto.getOrderItems().stream()
+                .map(itemDto -> {
+                    if (itemDto.getVariantId() == null || itemDto.getQuantity() == null || itemDto.getQuantity() <= 0) {
+                        throw new CustomException("Invalid order line for variant id: " + itemDto.getVariantId());
+                    }
+                    OrderItem item = new OrderItem();
+                    item.setVariantId(itemDto.getVariantId());
+                    item.setQuantity(itemDto.getQuantity());
+                    item.setOrder(order);
+                    return item;
+                })
+                .collect(Collectors.toList()));
+
+        Order savedOrder = orderRepository.save(order);
+        orderSummaryProjector.projectNew(savedOrder);
+        outboxService.enqueueReserve(savedOrder);
+
+        log.info("==== FINISHED accepting order with id: {} for customer: {}, reservation queued ====",
                 savedOrder.getId(), savedOrder.getCustomerName());
+        return OrderSummaryProjector.toResponse(savedOrder);
+    }
+
+    private void releaseOnRollback(List<OrderItem> orderItems, List<String> lineKeys) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status == STATUS_ROLLED_BACK) {
+                    for (int i = 0; i < orderItems.size(); i++) {
+                        releaseStock(orderItems.get(i), lineKeys.get(i));
+                    }
+                }
+            }
+        });
+    }
+
+    /**
+     * Per-line logs are kept for a sample of orders, {@code order.logging.line-sample-rate}, or for all of them at DEBUG.
+     * The choice is made once per order so a sampled order is logged with all its lines.
+     */
+    private boolean sampleLineLogs() {
+        return log.isDebugEnabled() || ThreadLocalRandom.current().nextDouble() < lineLogSampleRate;
+    }
+
+    private List<OrderItem> processLinesInBatch(List<OrderItemRequestDTO> itemDtos, String reservationId,
+                                                boolean logLines) {
+        // Reserve all lines in one call so latency does not grow with the basket size
+        Map<Long, Variant> reserved = reserveStock(itemDtos, reservationId);
+
+        return itemDtos.stream()
+                .map(itemDto -> {
+                    if (logLines) {
+                        log.info("Processing order item for variantId: {} with quantity: {}",
+                                itemDto.getVariantId(), itemDto.getQuantity());
+                    }
+                    return createOrderItem(itemDto, reserved.get(itemDto.getVariantId()));
+                })
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Process every line concurrently so the order waits for the slowest line instead of the sum of all lines.
+     * The first failing line aborts the order: lines that have not started yet are skipped, and stock taken by
+     * lines that already succeeded (or that succeed later) is given back to Product Service.
+     * Every line has its own idempotency key, so Feign retries of a reduce or a release are applied once.
+     */
+    private List<OrderItem> processLinesInParallel(List<OrderItemRequestDTO> itemDtos, boolean logLines) {
+        AtomicBoolean aborted = new AtomicBoolean(false);
+        CompletableFuture<Void> firstFailure = new CompletableFuture<>();
+
+        // Every cache miss of the basket loaded with one batch call before the lines fan out
+        Map<Long, Variant> variants = variantCache.getAll(itemDtos.stream()
+                .map(OrderItemRequestDTO::getVariantId)
+                .filter(Objects::nonNull)
+                .distinct()
+                .collect(Collectors.toList()));
+
+        String attemptId = UUID.randomUUID().toString();
+        List<String> lineKeys = IntStream.range(0, itemDtos.size())
+                .mapToObj(i -> attemptId + ":" + i)
+                .collect(Collectors.toList());
+        List<CompletableFuture<OrderItem>> futures = IntStream.range(0, itemDtos.size())
+                .mapToObj(i -> CompletableFuture.supplyAsync(
+                        () -> createOrderItem(itemDtos.get(i), variants.get(itemDtos.get(i).getVariantId()),
+                                lineKeys.get(i), aborted, logLines), orderLineExecutor))
+                .collect(Collectors.toList());
+        futures.forEach(future -> future.whenComplete((item, ex) -> {
+            if (ex != null) {
+                firstFailure.completeExceptionally(ex);
+            }
+        }));
+
+        try {
+            CompletableFuture.anyOf(CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])), firstFailure)
+                    .get(lineTimeoutMs, TimeUnit.MILLISECONDS);
+            List<OrderItem> orderItems = futures.stream().map(CompletableFuture::join).collect(Collectors.toList());
+            releaseOnRollback(orderItems, lineKeys);
+            return orderItems;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            abort(aborted, futures, lineKeys);
+            throw new CustomException("Interrupted while processing order lines");
+        } catch (TimeoutException e) {
+            abort(aborted, futures, lineKeys);
+            throw new CustomException("Timed out after " + lineTimeoutMs + " ms while processing order lines");
+        } catch (ExecutionException | CompletionException e) {
+            abort(aborted, futures, lineKeys);
+            Throwable cause = unwrap(e);
+            if (cause instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new CustomException("Failed to process order line: " + cause.getMessage());
+        }
+    }
 
-        return mapToResponse(savedOrder);
+    private void abort(AtomicBoolean aborted, List<CompletableFuture<OrderItem>> futures, List<String> lineKeys) {
+        aborted.set(true);
+        // Runs now for lines already reserved and later for lines still in flight
+        for (int i = 0; i < futures.size(); i++) {
+            String lineKey = lineKeys.get(i);
+            futures.get(i).thenAccept(item -> releaseStock(item, lineKey));
+        }
     }
 
-    private OrderItem createOrderItem(OrderItemRequestDTO itemDto) {
-        // 1. Fetch variant
-        GeneralResponse<Variant> variant = lwaProductFeign.getVariant(itemDto.getVariantId());
+    private Throwable unwrap(Throwable e) {
+        Throwable cause = e;
+        while ((cause instanceof ExecutionException || cause instanceof CompletionException) && cause.getCause() != null) {
+            cause = cause.getCause();
+        }
+        return cause;
+    }
 
-        // 2. Check stock
-        if (variant.getData().getStock() < itemDto.getQuantity()) {
-            throw new CustomException("Insufficient stock for variant id: " + itemDto.getVariantId());
+    private OrderItem createOrderItem(OrderItemRequestDTO itemDto, Variant variant, String lineKey,
+                                      AtomicBoolean aborted, boolean logLines) {
+        if (aborted.get()) {
+            throw new CancellationException("Order aborted before processing variantId: " + itemDto.getVariantId());
+        }
+        if (logLines) {
+            log.info("Processing order item for variantId: {} with quantity: {}",
+                    itemDto.getVariantId(), itemDto.getQuantity());
         }
 
-        // 3. Reduce stock atomically via Product Service
-        lwaProductFeign.reduceStock(itemDto.getVariantId(), itemDto.getQuantity());
+        // 1. Variant prefetched from the near-cache
+        if (variant == null) {
+            throw new CustomException("Unable to fetch variant id: " + itemDto.getVariantId());
+        }
+
+        // 2. Check stock, re-reading once before rejecting since the cached stock may be stale
+        if (variant.getStock() < itemDto.getQuantity()) {
+            variant = variantCache.refresh(itemDto.getVariantId());
+            if (variant.getStock() < itemDto.getQuantity()) {
+                countRejection("parallel");
+                throw new CustomException("Insufficient stock for variant id: " + itemDto.getVariantId());
+            }
+        }
+
+        // 3. Reduce stock atomically via Product Service, unless a sibling line already failed
+        if (aborted.get()) {
+            throw new CancellationException("Order aborted before reserving variantId: " + itemDto.getVariantId());
+        }
+        GeneralResponse<Variant> reduced;
+        try {
+            reduced = lwaProductFeign.reduceStock(itemDto.getVariantId(), itemDto.getQuantity(), "reduce:" + lineKey);
+        } catch (FeignException.Conflict e) {
+            countRejection("parallel");
+            throw e;
+        }
+        if (reduced == null || reduced.getData() == null) {
+            throw new CustomException("Unable to reduce stock for variant id: " + itemDto.getVariantId());
+        }
 
         // 4. Create order item
+        return createOrderItem(itemDto, variant);
+    }
+
+    private void releaseStock(OrderItem item, String lineKey) {
+        try {
+            lwaProductFeign.increaseStock(item.getVariantId(), item.getQuantity(), "release:" + lineKey);
+            log.info("Released stock for variantId: {}, quantity: {}", item.getVariantId(), item.getQuantity());
+        } catch (Exception e) {
+            Metrics.counter("order.fallbacks", "method", "increaseStock").increment();
+            log.error("Failed to release stock for variantId: {}, quantity: {}", item.getVariantId(), item.getQuantity(), e);
+        }
+    }
+
+    private Map<Long, Variant> reserveStock(List<OrderItemRequestDTO> itemDtos, String reservationId) {
+        List<ReserveStockItem> lines = itemDtos.stream()
+                .map(itemDto -> new ReserveStockItem(itemDto.getVariantId(), itemDto.getQuantity()))
+                .collect(Collectors.toList());
+
+        GeneralResponse<List<Variant>> response;
+        boolean refused = false;
+        try {
+            response = lwaProductFeign.reserveStock(new ReserveStockRequest(lines, reservationId));
+        } catch (FeignException.Conflict e) {
+            refused = true;
+            countRejection("batch");
+            throw e;
+        } finally {
+            // Any outcome but a refusal may have taken stock, released again if the order does not commit
+            if (!refused) {
+                outboxService.releaseOnRollback(reservationId);
+            }
+        }
+        if (response == null || response.getData() == null) {
+            throw new CustomException("Unable to reserve stock: " + (response == null ? "no response" : response.getMessage()));
+        }
+
+        return response.getData().stream()
+                .collect(Collectors.toMap(Variant::getId, Function.identity()));
+    }
+
+    private OrderItem createOrderItem(OrderItemRequestDTO itemDto, Variant variant) {
+        if (variant == null) {
+            throw new CustomException("Stock was not reserved for variant id: " + itemDto.getVariantId());
+        }
+
+        // Snapshot the reserved variant into the order item
         OrderItem orderItem = new OrderItem();
-        orderItem.setVariantId(variant.getData().getId());
+        orderItem.setVariantId(variant.getId());
         orderItem.setQuantity(itemDto.getQuantity());
-        orderItem.setPrice(variant.getData().getPrice());
-        orderItem.setColor(variant.getData().getColor());
-        orderItem.setSize(variant.getData().getSize());
+        orderItem.setPrice(variant.getPrice());
+        orderItem.setColor(variant.getColor());
+        orderItem.setSize(variant.getSize());
         return orderItem;
     }
 
 
+    // Shed by the Product Service concurrency limit: passed on to be answered with 503, without logging each order
+    private OrderResponseDTO fallbackSaveOrder(OrderRequestDTO dto, ConcurrencyLimitExceededException e) {
+        throw e;
+    }
+
     // Fallback for Resilience4j with detailed logging
     private OrderResponseDTO fallbackSaveOrder(OrderRequestDTO dto, Throwable t) {
+        Metrics.counter("order.fallbacks", "method", "saveOrder").increment();
         log.error("==== FALLBACK triggered for saveOrder ====");
         log.error("Customer: {}", dto.getCustomerName());
 
@@ -115,73 +418,193 @@ public class OrderServiceImpl implements OrderService {
     @Transactional(readOnly = true)
     public List<OrderResponseDTO> getAllOrders() {
         log.info("==== START fetching all orders ====");
-        List<OrderResponseDTO> orders = orderRepository.findAll().stream()
-                .map(this::mapToResponse)
+        // Served from the order_summary read model, one row per order and no join
+        List<OrderResponseDTO> orders = orderSummaryRepository.findAll(Sort.by("id")).stream()
+                .map(OrderSummaryProjector::toResponse)
                 .collect(Collectors.toList());
         log.info("==== FINISHED fetching all orders, total: {} ====", orders.size());
         return orders;
     }
 
+    @Override
+    @Transactional(readOnly = true)
+    public OrderPageResponseDTO getOrdersPage(Long cursor, int limit, String status, String customerName) {
+        int pageSize = Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+        log.info("==== START fetching orders page after cursor: {}, limit: {} ====", cursor, pageSize);
+
+        // Fetch one extra row to know whether another page exists
+        List<OrderSummary> rows = findPage(cursor == null ? 0 : cursor, status, customerName, pageSize + 1);
+        boolean hasMore = rows.size() > pageSize;
+        List<OrderResponseDTO> orders = (hasMore ? rows.subList(0, pageSize) : rows).stream()
+                .map(OrderSummaryProjector::toResponse)
+                .collect(Collectors.toList());
+        Long nextCursor = hasMore ? orders.get(orders.size() - 1).getId() : null;
+
+        log.info("==== FINISHED fetching orders page, size: {}, nextCursor: {} ====", orders.size(), nextCursor);
+        return new OrderPageResponseDTO(orders, nextCursor, hasMore);
+    }
+
+    private List<OrderSummary> findPage(long cursor, String status, String customerName, int limit) {
+        boolean byCustomer = StringUtils.hasText(customerName);
+        boolean byStatus = StringUtils.hasText(status);
+        if (byCustomer && byStatus) {
+            return orderSummaryRepository.pageByCustomerAndStatus(customerName, status, cursor, limit);
+        } else if (byCustomer) {
+            return orderSummaryRepository.pageByCustomer(customerName, cursor, limit);
+        } else if (byStatus) {
+            return orderSummaryRepository.pageByStatus(status, cursor, limit);
+        }
+        return orderSummaryRepository.pageAll(cursor, limit);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public OrderSearchResponseDTO searchOrders(String customerName, String status, LocalDateTime from,
+                                               LocalDateTime to, String cursor, int limit) {
+        int pageSize = Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+        log.info("==== START searching orders, customer: {}, status: {}, from: {}, to: {}, cursor: {} ====",
+                customerName, status, from, to, cursor);
+
+        LocalDateTime start = from != null ? from : SEARCH_FROM;
+        LocalDateTime end = to != null ? to : SEARCH_TO;
+        long cursorId = 0;
+        if (cursor != null) {
+            // <created_at>_<id> of the last row of the previous page
+            int separator = cursor.lastIndexOf('_');
+            LocalDateTime cursorAt;
+            try {
+                cursorAt = LocalDateTime.parse(cursor.substring(0, separator));
+                cursorId = Long.parseLong(cursor.substring(separator + 1));
+            } catch (RuntimeException e) {
+                throw new InvalidRequestException("Invalid cursor: " + cursor);
+            }
+            if (cursorAt.isBefore(start)) {
+                cursorId = 0;
+            } else {
+                start = cursorAt;
+            }
+        }
+
+        boolean byCustomer = StringUtils.hasText(customerName);
+        boolean byStatus = StringUtils.hasText(status);
+        // Fetch one extra row to know whether another page exists
+        int fetch = pageSize + 1;
+        List<OrderSummary> rows;
+        if (byCustomer && byStatus) {
+            rows = orderSummaryRepository.searchByCustomerAndStatus(customerName, status, start, end, cursorId, fetch);
+        } else if (byCustomer) {
+            rows = orderSummaryRepository.searchByCustomer(customerName, start, end, cursorId, fetch);
+        } else if (byStatus) {
+            rows = orderSummaryRepository.searchByStatus(status, start, end, cursorId, fetch);
+        } else {
+            rows = orderSummaryRepository.searchByCreated(start, end, cursorId, fetch);
+        }
+
+        boolean hasMore = rows.size() > pageSize;
+        List<OrderSummary> page = hasMore ? rows.subList(0, pageSize) : rows;
+        OrderSummary last = hasMore ? page.get(page.size() - 1) : null;
+        String nextCursor = last == null ? null : last.getCreatedAt() + "_" + last.getId();
+        List<OrderResponseDTO> orders = page.stream()
+                .map(OrderSummaryProjector::toResponse)
+                .collect(Collectors.toList());
+
+        log.info("==== FINISHED searching orders, size: {}, nextCursor: {} ====", orders.size(), nextCursor);
+        return new OrderSearchResponseDTO(orders, nextCursor, hasMore);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public void streamOrders(String status, String customerName, Consumer<OrderResponseDTO> consumer) {
+        log.info("==== START streaming orders ====");
+        long count = 0;
+        try (Stream<OrderSummary> orders = streamSummaries(status, customerName)) {
+            for (OrderSummary order : (Iterable<OrderSummary>) orders::iterator) {
+                consumer.accept(OrderSummaryProjector.toResponse(order));
+                // Drop the entity from the persistence context so memory stays flat
+                entityManager.detach(order);
+                count++;
+            }
+        }
+        log.info("==== FINISHED streaming orders, total: {} ====", count);
+    }
+
+    private Stream<OrderSummary> streamSummaries(String status, String customerName) {
+        boolean byCustomer = StringUtils.hasText(customerName);
+        boolean byStatus = StringUtils.hasText(status);
+        if (byCustomer && byStatus) {
+            return orderSummaryRepository.streamByCustomerAndStatus(customerName, status);
+        } else if (byCustomer) {
+            return orderSummaryRepository.streamByCustomer(customerName);
+        } else if (byStatus) {
+            return orderSummaryRepository.streamByStatus(status);
+        }
+        return orderSummaryRepository.streamAll();
+    }
+
     @Override
     @Transactional(readOnly = true)
     public OrderResponseDTO getOrder(Long id) {
         log.info("==== START fetching order with id: {} ====", id);
-        Order order = orderRepository.findById(id)
+        OrderSummary order = orderSummaryRepository.findById(id)
                 .orElseThrow(() -> new CustomException("Order not found: " + id));
-        OrderResponseDTO response = mapToResponse(order);
+        OrderResponseDTO response = OrderSummaryProjector.toResponse(order);
         log.info("==== FINISHED fetching order with id: {} ====", id);
         return response;
     }
 
     @Override
     @Transactional
+    @Timed(value = "order.service", histogram = true)
     public OrderResponseDTO completeOrder(Long id) {
         log.info("==== START completing order with id: {} ====", id);
         Order order = orderRepository.findById(id)
                 .orElseThrow(() -> new CustomException("Order not found: " + id));
-        order.setStatus("COMPLETED");
-        Order saved = orderRepository.save(order);
+
+        // Conditional, so an order cannot be completed after its reservation expired
+        LocalDateTime now = LocalDateTime.now();
+        if (orderRepository.complete(id, now) == 0) {
+            boolean expired = "EXPIRED".equals(order.getStatus())
+                    || (order.getExpiresAt() != null && !order.getExpiresAt().isAfter(now));
+            throw new OrderStateException(expired
+                    ? "Reservation of order " + id + " has expired"
+                    : "Order " + id + " cannot be completed, status: " + order.getStatus());
+        }
+        Order saved = orderRepository.findById(id)
+                .orElseThrow(() -> new CustomException("Order not found: " + id));
+        orderSummaryProjector.project(saved);
         log.info("==== FINISHED completing order with id: {}, status: {} ====", id, saved.getStatus());
-        return mapToResponse(saved);
+        return OrderSummaryProjector.toResponse(saved);
     }
 
     @Transactional
+    @Timed(value = "order.service", histogram = true)
     public void deleteOrder(Long id) {
         log.info("==== START deleting order with id: {} ====", id);
 
         Order order = orderRepository.findById(id)
                 .orElseThrow(() -> new CustomException("Order not found: " + id));
 
-        // Rollback stock via Product Service
-        for (OrderItem item : order.getOrderItems()) {
-            lwaProductFeign.increaseStock(item.getVariantId(), item.getQuantity());
-            log.info("Rolled back stock for variantId: {}, quantity: {}", item.getVariantId(), item.getQuantity());
+        if ("EXPIRED".equals(order.getStatus())) {
+            log.info("Order {} expired, its stock was already released", id);
+        } else if (order.getReservationId() != null) {
+            // Released by the outbox relay, idempotent on the Product Service side
+            outboxService.enqueueRelease(order.getId(), order.getReservationId());
+        } else {
+            // Rollback stock via Product Service
+            for (OrderItem item : order.getOrderItems()) {
+                lwaProductFeign.increaseStock(item.getVariantId(), item.getQuantity(),
+                        "delete-order:" + order.getId() + ":" + item.getId());
+                log.info("Rolled back stock for variantId: {}, quantity: {}", item.getVariantId(), item.getQuantity());
+            }
         }
 
         orderRepository.delete(order);
+        orderSummaryProjector.remove(id);
         log.info("==== FINISHED deleting order with id: {} ====", id);
     }
 
-    private OrderResponseDTO mapToResponse(Order order) {
-        OrderResponseDTO dto = new OrderResponseDTO();
-        dto.setId(order.getId());
-        dto.setCustomerName(order.getCustomerName());
-        dto.setStatus(order.getStatus());
-        dto.setTotalAmount(order.getTotalAmount());
-
-        List<OrderItemResponseDTO> items = order.getOrderItems().stream()
-                .map(item -> {
-                    OrderItemResponseDTO itemDto = new OrderItemResponseDTO();
-                    itemDto.setId(item.getId());
-                    itemDto.setQuantity(item.getQuantity());
-                    itemDto.setPrice(item.getPrice());
-                    itemDto.setVariantColor(item.getColor()); // use snapshot
-                    itemDto.setVariantSize(item.getSize());   // use snapshot
-                    return itemDto;
-                }).collect(Collectors.toList());
-
-        dto.setOrderItems(items);
-        return dto;
+    // Product Service refused the stock, as opposed to being unavailable
+    private void countRejection(String mode) {
+        Metrics.counter("order.stock.rejections", "mode", mode).increment();
     }
-
 }
@@ -30,4 +30,9 @@ public class ResponseUtil {
         GeneralResponse<T> response = new GeneralResponse<>("500", "Error", message, null);
         return ResponseEntity.status(500).body(response);
     }
+
+    public static <T> ResponseEntity<GeneralResponse<T>> unavailable(String message) {
+        GeneralResponse<T> response = new GeneralResponse<>("503", "Error", message, null);
+        return ResponseEntity.status(503).body(response);
+    }
 }
@@ -0,0 +1,73 @@
+-- Schema as Hibernate created it with ddl-auto=update, the starting point of versioned migrations.
+-- IF NOT EXISTS adopts a database that update already created as it is.
+
+create sequence if not exists orders_seq start with 1 increment by 50;
+create sequence if not exists order_item_seq start with 1 increment by 50;
+create sequence if not exists outbox_event_seq start with 1 increment by 50;
+
+create table if not exists orders (
+    id bigint not null,
+    customer_name varchar(255),
+    total_amount float(53),
+    status varchar(255),
+    reservation_id varchar(255),
+    expires_at timestamp(6),
+    version bigint,
+    created_at timestamp(6),
+    updated_at timestamp(6),
+    created_by varchar(255),
+    updated_by varchar(255),
+    primary key (id)
+);
+
+create index if not exists idx_orders_status_expires on orders (status, expires_at);
+
+create table if not exists order_item (
+    id bigint not null,
+    order_id bigint,
+    variant_id bigint,
+    color varchar(255),
+    size varchar(255),
+    price float(53),
+    quantity integer,
+    created_at timestamp(6),
+    updated_at timestamp(6),
+    created_by varchar(255),
+    updated_by varchar(255),
+    primary key (id),
+    constraint fk_order_item_order foreign key (order_id) references orders
+);
+
+create table if not exists outbox_event (
+    id bigint not null,
+    order_id bigint,
+    type varchar(255),
+    payload varchar(4000),
+    status varchar(255),
+    attempts integer,
+    next_attempt_at timestamp(6),
+    last_error varchar(1000),
+    created_at timestamp(6),
+    updated_at timestamp(6),
+    created_by varchar(255),
+    updated_by varchar(255),
+    primary key (id)
+);
+
+create index if not exists idx_outbox_status_next on outbox_event (status, next_attempt_at);
+
+create table if not exists order_summary (
+    id bigint not null,
+    customer_name varchar(255),
+    status varchar(255),
+    total_amount float(53),
+    item_count integer,
+    items_json varchar(1000000),
+    created_at timestamp(6),
+    updated_at timestamp(6),
+    primary key (id)
+);
+
+create index if not exists idx_order_summary_customer_created on order_summary (customer_name, created_at, id);
+create index if not exists idx_order_summary_status_created on order_summary (status, created_at, id);
+create index if not exists idx_order_summary_created on order_summary (created_at, id);
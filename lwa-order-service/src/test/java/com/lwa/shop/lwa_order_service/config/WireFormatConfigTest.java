@@ -0,0 +1,40 @@
+package com.lwa.shop.lwa_order_service.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.lwa.shop.lwa_order_service.model.request.ReserveStockItem;
+import com.lwa.shop.lwa_order_service.model.request.ReserveStockRequest;
+import feign.Request;
+import feign.RequestTemplate;
+import feign.codec.Encoder;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.boot.autoconfigure.http.HttpMessageConverters;
+import org.springframework.cloud.openfeign.support.FeignEncoderProperties;
+import org.springframework.cloud.openfeign.support.HttpMessageConverterCustomizer;
+import org.springframework.http.HttpHeaders;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class WireFormatConfigTest {
+
+    @Test
+    void feignEncoder_writesBodyAsSmileBytes() throws Exception {
+        Encoder encoder = new WireFormatConfig().feignEncoder(HttpMessageConverters::new, new FeignEncoderProperties(),
+                new StaticListableBeanFactory().getBeanProvider(HttpMessageConverterCustomizer.class));
+        ReserveStockRequest request = new ReserveStockRequest(List.of(new ReserveStockItem(1L, 2)), "r-1");
+        RequestTemplate template = new RequestTemplate().method(Request.HttpMethod.POST);
+
+        encoder.encode(request, ReserveStockRequest.class, template);
+
+        assertEquals(List.of(WireFormatConfig.SMILE), List.copyOf(template.headers().get(HttpHeaders.CONTENT_TYPE)));
+        // A binary body is sent untouched, a text body would be re-encoded by the HTTP client
+        template.target("http://lwa-product-service");
+        assertTrue(template.resolve(Map.of()).request().isBinary());
+        ReserveStockRequest decoded = new ObjectMapper(new SmileFactory()).readValue(template.body(), ReserveStockRequest.class);
+        assertEquals(request, decoded);
+    }
+}
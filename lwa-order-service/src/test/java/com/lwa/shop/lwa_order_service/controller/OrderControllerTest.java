@@ -1,9 +1,12 @@
 package com.lwa.shop.lwa_order_service.controller;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.lwa.shop.lwa_common.idempotency.IdempotencyStore;
 import com.lwa.shop.lwa_order_service.model.request.OrderItemRequestDTO;
 import com.lwa.shop.lwa_order_service.model.request.OrderRequestDTO;
+import com.lwa.shop.lwa_order_service.model.response.OrderPageResponseDTO;
 import com.lwa.shop.lwa_order_service.model.response.OrderResponseDTO;
+import com.lwa.shop.lwa_order_service.model.response.OrderSearchResponseDTO;
 import com.lwa.shop.lwa_order_service.service.OrderService;
 import com.lwa.shop.lwa_order_service.exception.CustomException;
 import org.junit.jupiter.api.BeforeEach;
@@ -11,13 +14,19 @@ import org.junit.jupiter.api.Test;
 import org.mockito.Mockito;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.test.web.servlet.setup.MockMvcBuilders;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.concurrent.*;
+import java.util.function.Consumer;
 
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
 import static org.mockito.Mockito.*;
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
@@ -33,7 +42,7 @@ class OrderControllerTest {
         orderService = Mockito.mock(OrderService.class);
         objectMapper = new ObjectMapper();
 
-        OrderController controller = new OrderController(orderService);
+        OrderController controller = new OrderController(orderService, new IdempotencyStore(1000, 60, 1000));
 
         mockMvc = MockMvcBuilders
                 .standaloneSetup(controller)
@@ -67,6 +76,55 @@ class OrderControllerTest {
         verify(orderService, times(1)).saveOrder(any(OrderRequestDTO.class));
     }
 
+    @Test
+    void addOrder_replayWithSameIdempotencyKeyCreatesOneOrder() throws Exception {
+        OrderRequestDTO requestDTO = new OrderRequestDTO();
+        requestDTO.setCustomerName("John Doe");
+        requestDTO.setOrderItems(List.of(new OrderItemRequestDTO(1L, 2)));
+
+        OrderResponseDTO responseDTO = new OrderResponseDTO();
+        responseDTO.setId(1L);
+        responseDTO.setCustomerName("John Doe");
+        when(orderService.saveOrder(any(OrderRequestDTO.class))).thenReturn(responseDTO);
+
+        for (int i = 0; i < 2; i++) {
+            mockMvc.perform(post("/orders")
+                            .header("Idempotency-Key", "checkout-1")
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(objectMapper.writeValueAsString(requestDTO)))
+                    .andExpect(status().isCreated())
+                    .andExpect(jsonPath("$.data.id").value(1));
+        }
+        mockMvc.perform(post("/orders")
+                        .header("Idempotency-Key", "checkout-1")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(requestDTO)))
+                .andExpect(header().string("Idempotent-Replayed", "true"));
+
+        verify(orderService, times(1)).saveOrder(any(OrderRequestDTO.class));
+    }
+
+    @Test
+    void addOrder_idempotencyKeyReusedWithOtherBodyIsConflict() throws Exception {
+        OrderResponseDTO responseDTO = new OrderResponseDTO();
+        responseDTO.setId(1L);
+        when(orderService.saveOrder(any(OrderRequestDTO.class))).thenReturn(responseDTO);
+
+        OrderRequestDTO first = new OrderRequestDTO();
+        first.setCustomerName("John Doe");
+        first.setOrderItems(List.of(new OrderItemRequestDTO(1L, 2)));
+        OrderRequestDTO second = new OrderRequestDTO();
+        second.setCustomerName("John Doe");
+        second.setOrderItems(List.of(new OrderItemRequestDTO(1L, 3)));
+
+        mockMvc.perform(post("/orders").header("Idempotency-Key", "checkout-2")
+                        .contentType(MediaType.APPLICATION_JSON).content(objectMapper.writeValueAsString(first)))
+                .andExpect(status().isCreated());
+        mockMvc.perform(post("/orders").header("Idempotency-Key", "checkout-2")
+                        .contentType(MediaType.APPLICATION_JSON).content(objectMapper.writeValueAsString(second)))
+                .andExpect(status().isConflict());
+    }
+
     @Test
     void concurrentOrderPlacement() throws InterruptedException, ExecutionException {
         int threadCount = 5;
@@ -114,6 +172,67 @@ class OrderControllerTest {
         verify(orderService, times(1)).getAllOrders();
     }
 
+    @Test
+    void getOrdersPage_success() throws Exception {
+        OrderResponseDTO responseDTO = new OrderResponseDTO();
+        responseDTO.setId(21L);
+        responseDTO.setCustomerName("John Doe");
+
+        when(orderService.getOrdersPage(20L, 1, "PENDING", null))
+                .thenReturn(new OrderPageResponseDTO(List.of(responseDTO), 21L, true));
+
+        mockMvc.perform(get("/orders/page").param("cursor", "20").param("limit", "1").param("status", "PENDING"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data.orders[0].id").value(21))
+                .andExpect(jsonPath("$.data.nextCursor").value(21))
+                .andExpect(jsonPath("$.data.hasMore").value(true));
+
+        verify(orderService, times(1)).getOrdersPage(20L, 1, "PENDING", null);
+    }
+
+    @Test
+    void searchOrders_bindsDateRange() throws Exception {
+        OrderResponseDTO responseDTO = new OrderResponseDTO();
+        responseDTO.setId(7L);
+        LocalDateTime from = LocalDateTime.of(2025, 1, 1, 0, 0);
+        LocalDateTime to = LocalDateTime.of(2025, 2, 1, 0, 0);
+
+        when(orderService.searchOrders("Alice", null, from, to, null, 20))
+                .thenReturn(new OrderSearchResponseDTO(List.of(responseDTO), "2025-01-03T10:00_7", true));
+
+        mockMvc.perform(get("/orders/search").param("customerName", "Alice")
+                        .param("from", "2025-01-01T00:00:00").param("to", "2025-02-01T00:00:00"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data.orders[0].id").value(7))
+                .andExpect(jsonPath("$.data.nextCursor").value("2025-01-03T10:00_7"));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void streamOrders_writesOneJsonPerLine() throws Exception {
+        doAnswer(invocation -> {
+            Consumer<OrderResponseDTO> consumer = invocation.getArgument(2);
+            for (long id = 1; id <= 2; id++) {
+                OrderResponseDTO order = new OrderResponseDTO();
+                order.setId(id);
+                consumer.accept(order);
+            }
+            return null;
+        }).when(orderService).streamOrders(isNull(), eq("John Doe"), any(Consumer.class));
+
+        MvcResult result = mockMvc.perform(get("/orders/stream").param("customerName", "John Doe"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        String body = mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+
+        String[] lines = body.trim().split("\n");
+        assertEquals(2, lines.length);
+        assertEquals(2L, objectMapper.readValue(lines[1], OrderResponseDTO.class).getId());
+    }
+
     @Test
     void getOrder_success() throws Exception {
         OrderResponseDTO responseDTO = new OrderResponseDTO();
@@ -0,0 +1,115 @@
+package com.lwa.shop.lwa_order_service.feign;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AdaptiveConcurrencyLimiterTest {
+
+    private static final long MS = 1_000_000L;
+
+    private final AtomicLong now = new AtomicLong(1);
+
+    private AdaptiveConcurrencyLimiter limiter;
+
+    @BeforeEach
+    void setUp() {
+        limiter = new AdaptiveConcurrencyLimiter(10, 2, 12, 0.5, 2.0, 10_000, now::get);
+    }
+
+    @Test
+    void tryAcquire_rejectsOverTheLimit() {
+        List<Long> starts = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            starts.add(limiter.tryAcquire().orElseThrow());
+        }
+
+        assertTrue(limiter.tryAcquire().isEmpty());
+        assertEquals(10, limiter.inFlight());
+
+        limiter.release(starts.get(0), false);
+        assertTrue(limiter.tryAcquire().isPresent());
+    }
+
+    @Test
+    void fastCalls_growTheLimitOnlyWhileItIsUsed() {
+        // One call at a time never comes close to the limit
+        for (int i = 0; i < 5; i++) {
+            call(10, false);
+        }
+        assertEquals(10, limiter.limit());
+
+        concurrentCalls(7, 10, false);
+        assertEquals(12, limiter.limit());
+    }
+
+    @Test
+    void slowOrFailedCalls_shrinkTheLimitOncePerRoundTrip() {
+        call(10, false);
+
+        // Six calls in flight together all come back slow: one backoff, not six
+        concurrentCalls(6, 50, false);
+        assertEquals(5, limiter.limit());
+
+        call(5, true);
+        assertEquals(2, limiter.limit());
+        call(5, true);
+        assertEquals(2, limiter.limit());
+    }
+
+    @Test
+    void latencyWithinTheTolerance_keepsTheLimit() {
+        call(10, false);
+        call(19, false);
+
+        assertEquals(10, limiter.limit());
+    }
+
+    @Test
+    void latencyUnderTheJitterFloor_keepsTheLimit() {
+        call(1, false);
+        // Four times the baseline, but only 4 ms
+        call(4, false);
+
+        assertEquals(10, limiter.limit());
+    }
+
+    @Test
+    void baseline_followsALastingSlowdown() {
+        call(10, false);
+        call(50, false);
+        assertEquals(5, limiter.limit());
+
+        // Still compared with the 10 ms of the previous window
+        now.addAndGet(Duration.ofSeconds(10).toNanos());
+        call(50, false);
+        assertEquals(2, limiter.limit());
+
+        // Once that window is over 50 ms is the new normal and the limit grows back
+        now.addAndGet(Duration.ofSeconds(10).toNanos());
+        concurrentCalls(2, 50, false);
+        concurrentCalls(3, 50, false);
+        assertEquals(5, limiter.limit());
+    }
+
+    private void call(long latencyMs, boolean failed) {
+        long start = limiter.tryAcquire().orElseThrow();
+        now.addAndGet(latencyMs * MS);
+        limiter.release(start, failed);
+    }
+
+    private void concurrentCalls(int calls, long latencyMs, boolean failed) {
+        List<Long> starts = new ArrayList<>();
+        for (int i = 0; i < calls; i++) {
+            starts.add(limiter.tryAcquire().orElseThrow());
+        }
+        now.addAndGet(latencyMs * MS);
+        starts.forEach(start -> limiter.release(start, failed));
+    }
+}
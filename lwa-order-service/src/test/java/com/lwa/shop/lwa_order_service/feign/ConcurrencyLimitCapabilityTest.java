@@ -0,0 +1,59 @@
+package com.lwa.shop.lwa_order_service.feign;
+
+import com.lwa.shop.lwa_order_service.exception.ConcurrencyLimitExceededException;
+import feign.Client;
+import feign.Request;
+import feign.Response;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.net.SocketTimeoutException;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ConcurrencyLimitCapabilityTest {
+
+    private final AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(4, 4, 4, 0.5, 2.0, 10_000);
+    private final AtomicInteger calls = new AtomicInteger();
+
+    @Test
+    void execute_rejectsOverTheLimitWithoutCallingProductService() throws IOException {
+        for (int i = 0; i < 4; i++) {
+            limiter.tryAcquire();
+        }
+        Client client = new ConcurrencyLimitCapability(limiter).enrich(respondingWith(200));
+
+        assertThrows(ConcurrencyLimitExceededException.class, () -> client.execute(request(), new Request.Options()));
+        assertEquals(0, calls.get());
+    }
+
+    @Test
+    void execute_releasesTheSlotWhateverTheOutcome() throws IOException {
+        Client ok = new ConcurrencyLimitCapability(limiter).enrich(respondingWith(200));
+        Client unavailable = new ConcurrencyLimitCapability(limiter).enrich(respondingWith(503));
+        Client timingOut = new ConcurrencyLimitCapability(limiter).enrich((Client) (request, options) -> {
+            throw new SocketTimeoutException("Read timed out");
+        });
+
+        assertEquals(200, ok.execute(request(), new Request.Options()).status());
+        assertEquals(503, unavailable.execute(request(), new Request.Options()).status());
+        assertThrows(SocketTimeoutException.class, () -> timingOut.execute(request(), new Request.Options()));
+
+        assertEquals(0, limiter.inFlight());
+    }
+
+    private Client respondingWith(int status) {
+        return (request, options) -> {
+            calls.incrementAndGet();
+            return Response.builder().status(status).request(request).headers(Map.of()).build();
+        };
+    }
+
+    private static Request request() {
+        return Request.create(Request.HttpMethod.GET, "http://lwa-product-service/product/variants/1", Map.of(),
+                null, StandardCharsets.UTF_8, null);
+    }
+}
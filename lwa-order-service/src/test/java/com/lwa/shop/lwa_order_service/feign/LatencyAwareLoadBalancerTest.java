@@ -0,0 +1,141 @@
+package com.lwa.shop.lwa_order_service.feign;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.cloud.client.DefaultServiceInstance;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.loadbalancer.CompletionContext;
+import org.springframework.cloud.client.loadbalancer.DefaultRequest;
+import org.springframework.cloud.client.loadbalancer.DefaultResponse;
+import org.springframework.cloud.client.loadbalancer.Request;
+import org.springframework.cloud.client.loadbalancer.RequestDataContext;
+import org.springframework.cloud.client.loadbalancer.Response;
+import org.springframework.cloud.client.loadbalancer.ResponseData;
+import org.springframework.http.HttpStatus;
+
+import java.net.SocketTimeoutException;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+
+class LatencyAwareLoadBalancerTest {
+
+    private static final long MS = 1_000_000L;
+
+    private final ServiceInstance fast = instance("fast", 8082);
+    private final ServiceInstance slow = instance("slow", 8083);
+    private final AtomicLong now = new AtomicLong(1);
+
+    private LatencyAwareLoadBalancer loadBalancer;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        loadBalancer = new LatencyAwareLoadBalancer(mock(ObjectProvider.class), "lwa-product-service",
+                3, 30_000, 10_000, now::get);
+    }
+
+    @Test
+    void choose_prefersTheLowerLatency() {
+        call(fast, 5, HttpStatus.OK);
+        call(slow, 200, HttpStatus.OK);
+
+        for (int i = 0; i < 20; i++) {
+            assertSame(fast, loadBalancer.choose(List.of(fast, slow)).getServer());
+        }
+    }
+
+    @Test
+    void choose_movesAwayFromQueuedCalls() {
+        call(fast, 10, HttpStatus.OK);
+        call(slow, 20, HttpStatus.OK);
+        for (int i = 0; i < 3; i++) {
+            loadBalancer.onStartRequest(request(), new DefaultResponse(fast));
+        }
+
+        // 10 ms x 4 in flight scores worse than 20 ms x 1
+        assertSame(slow, loadBalancer.choose(List.of(fast, slow)).getServer());
+    }
+
+    @Test
+    void choose_probesAnInstanceAgainAfterTheDecay() {
+        call(fast, 5, HttpStatus.OK);
+        call(slow, 200, HttpStatus.OK);
+        now.addAndGet(Duration.ofSeconds(5).toNanos());
+        call(fast, 5, HttpStatus.OK);
+
+        now.addAndGet(Duration.ofSeconds(6).toNanos());
+
+        assertSame(slow, loadBalancer.choose(List.of(fast, slow)).getServer());
+    }
+
+    @Test
+    void choose_doesNotMistakeFastFailuresForSpeed() {
+        call(fast, 50, HttpStatus.OK);
+        fail(slow);
+
+        assertSame(fast, loadBalancer.choose(List.of(fast, slow)).getServer());
+    }
+
+    @Test
+    void consecutiveErrors_ejectTheInstanceForAWhile() {
+        call(slow, 1, HttpStatus.SERVICE_UNAVAILABLE);
+        call(slow, 1, HttpStatus.SERVICE_UNAVAILABLE);
+        // A 4xx is an answer, not an error, and breaks the streak
+        call(slow, 1, HttpStatus.CONFLICT);
+        call(slow, 1, HttpStatus.SERVICE_UNAVAILABLE);
+        call(slow, 1, HttpStatus.SERVICE_UNAVAILABLE);
+        // Once its latency has decayed slow scores as new and wins again
+        afterDecay();
+        assertSame(slow, loadBalancer.choose(List.of(fast, slow)).getServer());
+
+        fail(slow);
+        afterDecay();
+        assertSame(fast, loadBalancer.choose(List.of(fast, slow)).getServer());
+        // Never eject everything
+        assertSame(slow, loadBalancer.choose(List.of(slow)).getServer());
+
+        now.addAndGet(Duration.ofSeconds(20).toNanos());
+        call(fast, 100, HttpStatus.OK);
+        assertSame(slow, loadBalancer.choose(List.of(fast, slow)).getServer());
+    }
+
+    @Test
+    void choose_withoutInstancesHasNoServer() {
+        assertFalse(loadBalancer.choose(List.of()).hasServer());
+    }
+
+    private void call(ServiceInstance instance, long latencyMs, HttpStatus status) {
+        Request<Object> request = request();
+        Response<ServiceInstance> response = new DefaultResponse(instance);
+        loadBalancer.onStartRequest(request, response);
+        now.addAndGet(latencyMs * MS);
+        loadBalancer.onComplete(new CompletionContext<>(CompletionContext.Status.SUCCESS, request, response,
+                new ResponseData(status, null, null, null)));
+    }
+
+    private void afterDecay() {
+        now.addAndGet(Duration.ofSeconds(11).toNanos());
+        call(fast, 100, HttpStatus.OK);
+    }
+
+    private void fail(ServiceInstance instance) {
+        Request<Object> request = request();
+        Response<ServiceInstance> response = new DefaultResponse(instance);
+        loadBalancer.onStartRequest(request, response);
+        loadBalancer.onComplete(new CompletionContext<>(CompletionContext.Status.FAILED,
+                new SocketTimeoutException("Read timed out"), request, response));
+    }
+
+    private Request<Object> request() {
+        return new DefaultRequest<>(new RequestDataContext());
+    }
+
+    private static ServiceInstance instance(String host, int port) {
+        return new DefaultServiceInstance(host + "-" + port, "lwa-product-service", host, port, false);
+    }
+}
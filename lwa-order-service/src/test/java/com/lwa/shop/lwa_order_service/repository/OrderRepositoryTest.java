@@ -0,0 +1,78 @@
+package com.lwa.shop.lwa_order_service.repository;
+
+import com.lwa.shop.lwa_order_service.entity.Order;
+import com.lwa.shop.lwa_order_service.entity.OrderItem;
+import com.lwa.shop.lwa_order_service.entity.OrderSummary;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.PageRequest;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest
+class OrderRepositoryTest {
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private OrderSummaryRepository orderSummaryRepository;
+
+    private List<Long> ids;
+
+    @BeforeEach
+    void setUp() {
+        ids = Stream.of(
+                        order("Alice", "PENDING"),
+                        order("Bob", "COMPLETED"),
+                        order("Alice", "PENDING"),
+                        order("Alice", "COMPLETED"))
+                .map(orderRepository::save)
+                .map(Order::getId)
+                .toList();
+    }
+
+    @Test
+    void findAllWithItemsByIdIn_returnsEachOrderOnce() {
+        List<Order> orders = orderRepository.findAllWithItemsByIdIn(List.of(ids.get(1), ids.get(0)));
+
+        assertEquals(List.of(ids.get(0), ids.get(1)), orders.stream().map(Order::getId).toList());
+        assertEquals(2, orders.get(0).getOrderItems().size());
+    }
+
+    @Test
+    void findIdsWithoutSummary_skipsProjectedOrders() {
+        OrderSummary summary = new OrderSummary();
+        summary.setId(ids.get(1));
+        summary.setStatus("COMPLETED");
+        summary.setCreatedAt(LocalDateTime.now());
+        orderSummaryRepository.save(summary);
+
+        assertEquals(List.of(ids.get(0), ids.get(2), ids.get(3)),
+                orderRepository.findIdsWithoutSummary(0L, PageRequest.of(0, 10)));
+    }
+
+    private Order order(String customerName, String status) {
+        Order order = new Order();
+        order.setCustomerName(customerName);
+        order.setStatus(status);
+        order.setTotalAmount(30.0);
+        order.setOrderItems(List.of(item(order, 1L), item(order, 2L)));
+        return order;
+    }
+
+    private OrderItem item(Order order, Long variantId) {
+        OrderItem item = new OrderItem();
+        item.setVariantId(variantId);
+        item.setQuantity(1);
+        item.setPrice(15.0);
+        item.setOrder(order);
+        return item;
+    }
+}
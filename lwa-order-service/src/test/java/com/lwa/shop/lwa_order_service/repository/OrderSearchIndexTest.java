@@ -0,0 +1,114 @@
+package com.lwa.shop.lwa_order_service.repository;
+
+import com.lwa.shop.lwa_order_service.entity.OrderSummary;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Guards the order search against full scans: every filter combination must be served by its index.
+ */
+@DataJpaTest
+class OrderSearchIndexTest {
+
+    private static final LocalDateTime START = LocalDateTime.of(2025, 1, 1, 0, 0);
+
+    @Autowired
+    private OrderSummaryRepository orderSummaryRepository;
+
+    @Autowired
+    private NamedParameterJdbcTemplate jdbcTemplate;
+
+    private final Map<String, Object> params = Map.of(
+            "customerName", "Alice", "status", "PENDING",
+            "from", START, "to", START.plusDays(30), "cursorId", 0L, "cursor", 0L, "limit", 21);
+
+    @BeforeEach
+    void setUp() {
+        List<OrderSummary> rows = new ArrayList<>();
+        for (long i = 1; i <= 200; i++) {
+            OrderSummary summary = new OrderSummary();
+            summary.setId(i);
+            summary.setCustomerName(i % 4 == 0 ? "Alice" : "Customer-" + i);
+            summary.setStatus(i % 3 == 0 ? "PENDING" : "COMPLETED");
+            summary.setTotalAmount(10.0);
+            summary.setItemCount(0);
+            summary.setItemsJson("[]");
+            summary.setCreatedAt(START.plusHours(i));
+            rows.add(summary);
+        }
+        orderSummaryRepository.saveAllAndFlush(rows);
+    }
+
+    @Test
+    void searchByCustomerAndStatus_usesIndex() {
+        assertUsesIndex(OrderSummaryRepository.SEARCH_BY_CUSTOMER_AND_STATUS, "IDX_ORDER_SUMMARY_");
+        assertEquals(List.of(12L, 24L, 36L), ids(orderSummaryRepository.searchByCustomerAndStatus(
+                "Alice", "PENDING", START, START.plusDays(30), 0L, 3)));
+    }
+
+    @Test
+    void searchByCustomer_usesCustomerIndex() {
+        assertUsesIndex(OrderSummaryRepository.SEARCH_BY_CUSTOMER, "IDX_ORDER_SUMMARY_CUSTOMER_CREATED");
+        assertEquals(List.of(8L, 12L), ids(orderSummaryRepository.searchByCustomer(
+                "Alice", START.plusHours(4), START.plusDays(30), 4L, 2)));
+    }
+
+    @Test
+    void searchByStatus_usesStatusIndex() {
+        assertUsesIndex(OrderSummaryRepository.SEARCH_BY_STATUS, "IDX_ORDER_SUMMARY_STATUS_CREATED");
+        assertEquals(List.of(3L, 6L), ids(orderSummaryRepository.searchByStatus(
+                "PENDING", START, START.plusHours(7), 0L, 10)));
+    }
+
+    @Test
+    void searchByCreated_usesCreatedIndex() {
+        assertUsesIndex(OrderSummaryRepository.SEARCH_BY_CREATED, "IDX_ORDER_SUMMARY_CREATED");
+        assertEquals(List.of(10L, 11L), ids(orderSummaryRepository.searchByCreated(
+                START.plusHours(10), START.plusHours(12), 0L, 10)));
+    }
+
+    @Test
+    void pageByCustomerAndStatus_usesIndex() {
+        assertUsesIndex(OrderSummaryRepository.PAGE_BY_CUSTOMER_AND_STATUS, "IDX_ORDER_SUMMARY_");
+        assertEquals(List.of(24L, 36L), ids(orderSummaryRepository.pageByCustomerAndStatus("Alice", "PENDING", 12L, 2)));
+    }
+
+    @Test
+    void pageByCustomer_usesCustomerIndex() {
+        assertUsesIndex(OrderSummaryRepository.PAGE_BY_CUSTOMER, "IDX_ORDER_SUMMARY_CUSTOMER_CREATED");
+        assertEquals(List.of(8L, 12L), ids(orderSummaryRepository.pageByCustomer("Alice", 4L, 2)));
+    }
+
+    @Test
+    void pageByStatus_usesStatusIndex() {
+        assertUsesIndex(OrderSummaryRepository.PAGE_BY_STATUS, "IDX_ORDER_SUMMARY_STATUS_CREATED");
+        assertEquals(List.of(6L, 9L), ids(orderSummaryRepository.pageByStatus("PENDING", 3L, 2)));
+    }
+
+    @Test
+    void pageAll_usesPrimaryKey() {
+        assertUsesIndex(OrderSummaryRepository.PAGE_ALL, "PRIMARY_KEY");
+        assertEquals(List.of(11L, 12L), ids(orderSummaryRepository.pageAll(10L, 2)));
+    }
+
+    private void assertUsesIndex(String sql, String index) {
+        String plan = jdbcTemplate.queryForObject("EXPLAIN " + sql, params, String.class);
+        assertNotNull(plan);
+        assertTrue(plan.toUpperCase().contains(index), "Expected " + index + " in plan:\n" + plan);
+        assertFalse(plan.contains("tableScan"), "Unexpected table scan:\n" + plan);
+    }
+
+    private List<Long> ids(List<OrderSummary> rows) {
+        return rows.stream().map(OrderSummary::getId).toList();
+    }
+}
@@ -0,0 +1,137 @@
+package com.lwa.shop.lwa_order_service.service;
+
+import com.lwa.shop.lwa_order_service.entity.Order;
+import com.lwa.shop.lwa_order_service.entity.OrderItem;
+import com.lwa.shop.lwa_order_service.entity.OrderSummary;
+import com.lwa.shop.lwa_order_service.model.response.OrderResponseDTO;
+import com.lwa.shop.lwa_order_service.repository.OrderRepository;
+import com.lwa.shop.lwa_order_service.repository.OrderSummaryRepository;
+import jakarta.persistence.EntityManager;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@Import(OrderSummaryProjector.class)
+class OrderSummaryProjectorTest {
+
+    @Autowired
+    private OrderSummaryProjector orderSummaryProjector;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private OrderSummaryRepository orderSummaryRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Test
+    void project_storesOrderWithItems() {
+        Order order = save("Alice", "PENDING");
+        orderSummaryProjector.project(order);
+
+        OrderResponseDTO response = OrderSummaryProjector.toResponse(orderSummaryRepository.findById(order.getId()).orElseThrow());
+
+        assertEquals("Alice", response.getCustomerName());
+        assertEquals(30.0, response.getTotalAmount());
+        assertEquals(List.of("Red", "Blue"), response.getOrderItems().stream().map(i -> i.getVariantColor()).toList());
+        assertEquals(order.getOrderItems().get(0).getId(), response.getOrderItems().get(0).getId());
+    }
+
+    @Test
+    void projectNew_insertsWithoutSelectingFirst() {
+        Order order = save("Alice", "PENDING");
+        Statistics statistics = entityManager.getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        orderSummaryProjector.projectNew(order);
+        entityManager.flush();
+
+        assertEquals(1, statistics.getPrepareStatementCount());
+        assertEquals(1, statistics.getEntityInsertCount());
+
+        order.setStatus("COMPLETED");
+        orderSummaryProjector.project(order);
+        entityManager.flush();
+        entityManager.clear();
+        assertEquals("COMPLETED", orderSummaryRepository.findById(order.getId()).orElseThrow().getStatus());
+    }
+
+    @Test
+    void updateStatusAndRemove_followTheOrder() {
+        Order order = save("Alice", "PENDING");
+        orderSummaryProjector.project(order);
+
+        orderSummaryProjector.updateStatus(order.getId(), "EXPIRED");
+        assertEquals("EXPIRED", orderSummaryRepository.findById(order.getId()).orElseThrow().getStatus());
+
+        orderSummaryProjector.remove(order.getId());
+        assertTrue(orderSummaryRepository.findById(order.getId()).isEmpty());
+    }
+
+    @Test
+    void pageByCustomerAndStatus_walksKeyset() {
+        List<Long> ids = Stream.of(
+                        save("Alice", "PENDING"),
+                        save("Bob", "COMPLETED"),
+                        save("Alice", "PENDING"),
+                        save("Alice", "COMPLETED"))
+                .peek(orderSummaryProjector::project)
+                .map(Order::getId)
+                .toList();
+
+        List<OrderSummary> firstPage = orderSummaryRepository.pageByCustomerAndStatus("Alice", "PENDING", 0L, 1);
+        assertEquals(List.of(ids.get(0)), firstPage.stream().map(OrderSummary::getId).toList());
+
+        List<OrderSummary> secondPage = orderSummaryRepository.pageByCustomerAndStatus("Alice", "PENDING", ids.get(0), 1);
+        assertEquals(List.of(ids.get(2)), secondPage.stream().map(OrderSummary::getId).toList());
+
+        assertTrue(orderSummaryRepository.pageByCustomerAndStatus("Alice", "PENDING", ids.get(2), 1).isEmpty());
+        try (Stream<OrderSummary> completed = orderSummaryRepository.streamByStatus("COMPLETED")) {
+            assertEquals(List.of(ids.get(1), ids.get(3)), completed.map(OrderSummary::getId).toList());
+        }
+    }
+
+    @Test
+    void backfill_projectsOrdersWrittenBeforeTheReadModel() {
+        Long projected = save("Alice", "PENDING").getId();
+        orderSummaryProjector.project(orderRepository.findById(projected).orElseThrow());
+        Long legacy = save("Bob", "COMPLETED").getId();
+
+        orderSummaryProjector.backfill();
+
+        assertEquals(2, orderSummaryRepository.count());
+        OrderSummary summary = orderSummaryRepository.findById(legacy).orElseThrow();
+        assertEquals("COMPLETED", summary.getStatus());
+        assertEquals(2, summary.getItemCount());
+    }
+
+    private Order save(String customerName, String status) {
+        Order order = new Order();
+        order.setCustomerName(customerName);
+        order.setStatus(status);
+        order.setTotalAmount(30.0);
+        order.setOrderItems(List.of(item(order, 1L, "Red"), item(order, 2L, "Blue")));
+        return orderRepository.saveAndFlush(order);
+    }
+
+    private OrderItem item(Order order, Long variantId, String color) {
+        OrderItem item = new OrderItem();
+        item.setVariantId(variantId);
+        item.setQuantity(1);
+        item.setPrice(15.0);
+        item.setColor(color);
+        item.setOrder(order);
+        return item;
+    }
+}
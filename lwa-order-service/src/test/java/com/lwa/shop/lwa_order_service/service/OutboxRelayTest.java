@@ -0,0 +1,226 @@
+package com.lwa.shop.lwa_order_service.service;
+
+import com.lwa.shop.lwa_order_service.entity.Order;
+import com.lwa.shop.lwa_order_service.entity.OrderItem;
+import com.lwa.shop.lwa_order_service.entity.OutboxEvent;
+import com.lwa.shop.lwa_order_service.feign.LwaProductFeign;
+import com.lwa.shop.lwa_order_service.model.GeneralResponse;
+import com.lwa.shop.lwa_order_service.model.Variant;
+import com.lwa.shop.lwa_order_service.model.request.ReserveStockItem;
+import com.lwa.shop.lwa_order_service.model.request.ReserveStockRequest;
+import com.lwa.shop.lwa_order_service.repository.OrderRepository;
+import com.lwa.shop.lwa_order_service.repository.OutboxEventRepository;
+import com.lwa.shop.lwa_order_service.util.JsonUtil;
+import feign.FeignException;
+import feign.Request;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class OutboxRelayTest {
+
+    private OutboxEventRepository outboxEventRepository;
+    private OrderRepository orderRepository;
+    private OutboxService outboxService;
+    private LwaProductFeign lwaProductFeign;
+    private PlatformTransactionManager transactionManager;
+    private OutboxRelay relay;
+    private Order order;
+
+    @BeforeEach
+    void setUp() {
+        outboxEventRepository = mock(OutboxEventRepository.class);
+        orderRepository = mock(OrderRepository.class);
+        outboxService = mock(OutboxService.class);
+        lwaProductFeign = mock(LwaProductFeign.class);
+        transactionManager = mock(PlatformTransactionManager.class);
+        relay = new OutboxRelay(outboxEventRepository, orderRepository, outboxService, lwaProductFeign,
+                mock(ReservationExpiryService.class), mock(OrderSummaryProjector.class), transactionManager);
+        ReflectionTestUtils.setField(relay, "maxAttempts", 3);
+
+        OrderItem item = new OrderItem();
+        item.setVariantId(1L);
+        item.setQuantity(2);
+        order = new Order();
+        order.setId(9L);
+        order.setStatus("RESERVING");
+        order.setReservationId("res-9");
+        order.setOrderItems(new ArrayList<>(List.of(item)));
+        when(orderRepository.findById(9L)).thenReturn(Optional.of(order));
+    }
+
+    @Test
+    void deliver_reserveFillsOrderFromReservedVariants() {
+        Variant variant = new Variant();
+        variant.setId(1L);
+        variant.setPrice(50.0);
+        variant.setColor("Red");
+        variant.setSize("L");
+        when(lwaProductFeign.reserveStock(any(ReserveStockRequest.class)))
+                .thenReturn(new GeneralResponse<>("200", "Success", "Stock reserved", List.of(variant)));
+
+        OutboxEvent event = reserveEvent(1);
+        relay.deliver(event);
+
+        assertEquals("SENT", event.getStatus());
+        assertEquals("PENDING", order.getStatus());
+        assertEquals(100.0, order.getTotalAmount());
+        assertEquals("Red", order.getOrderItems().get(0).getColor());
+        verify(outboxService, never()).enqueueRelease(any(), any());
+    }
+
+    @Test
+    void deliver_sameReserveTwiceKeepsTheReservation() {
+        when(lwaProductFeign.reserveStock(any(ReserveStockRequest.class)))
+                .thenReturn(new GeneralResponse<>("200", "Success", "Stock reserved", List.of(variant())));
+
+        // The second delivery follows a crash after the reserve or an expired lease
+        OutboxEvent first = reserveEvent(1);
+        relay.deliver(first);
+        OutboxEvent second = reserveEvent(2);
+        relay.deliver(second);
+
+        assertEquals("SENT", second.getStatus());
+        assertEquals("PENDING", order.getStatus());
+        verify(outboxService, never()).enqueueRelease(any(), any());
+        verify(lwaProductFeign, times(2)).reserveStock(any(ReserveStockRequest.class));
+    }
+
+    @Test
+    void deliver_reserveIsMarkedSentWithTheOrder() {
+        when(lwaProductFeign.reserveStock(any(ReserveStockRequest.class)))
+                .thenReturn(new GeneralResponse<>("200", "Success", "Stock reserved", List.of(variant())));
+
+        OutboxEvent event = reserveEvent(1);
+        relay.deliver(event);
+
+        InOrder inOrder = inOrder(transactionManager, outboxEventRepository, orderRepository);
+        inOrder.verify(transactionManager).getTransaction(any());
+        inOrder.verify(outboxEventRepository).save(event);
+        inOrder.verify(orderRepository).save(order);
+        inOrder.verify(transactionManager).commit(any());
+    }
+
+    @Test
+    void deliver_reserveForFailedOrderIsReleased() {
+        when(lwaProductFeign.reserveStock(any(ReserveStockRequest.class)))
+                .thenReturn(new GeneralResponse<>("200", "Success", "Stock reserved", List.of(variant())));
+        order.setStatus("FAILED");
+
+        relay.deliver(reserveEvent(1));
+
+        verify(outboxService).enqueueRelease(9L, "res-9");
+    }
+
+    @Test
+    void deliver_rejectedReserveFailsOrderAndCompensates() {
+        when(lwaProductFeign.reserveStock(any(ReserveStockRequest.class))).thenThrow(conflict());
+
+        OutboxEvent event = reserveEvent(1);
+        relay.deliver(event);
+
+        assertEquals("FAILED", event.getStatus());
+        assertEquals("FAILED", order.getStatus());
+        verify(outboxService).enqueueRelease(9L, "res-9");
+    }
+
+    @Test
+    void deliver_transientFailureIsRetriedWithBackoff() {
+        when(lwaProductFeign.reserveStock(any(ReserveStockRequest.class))).thenThrow(new IllegalStateException("timeout"));
+
+        OutboxEvent event = reserveEvent(1);
+        relay.deliver(event);
+
+        assertEquals("PENDING", event.getStatus());
+        assertTrue(event.getNextAttemptAt().isAfter(LocalDateTime.now()));
+        assertEquals("RESERVING", order.getStatus());
+        verify(outboxService, never()).enqueueRelease(any(), any());
+    }
+
+    @Test
+    void deliver_givesUpAfterMaxAttempts() {
+        when(lwaProductFeign.reserveStock(any(ReserveStockRequest.class))).thenThrow(new IllegalStateException("timeout"));
+
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        Metrics.addRegistry(registry);
+        try {
+            OutboxEvent event = reserveEvent(3);
+            relay.deliver(event);
+
+            assertEquals("FAILED", event.getStatus());
+            assertEquals("FAILED", order.getStatus());
+            verify(outboxService).enqueueRelease(9L, "res-9");
+            assertEquals(1.0, registry.counter("order.fallbacks", "method", "reserveStock").count());
+        } finally {
+            Metrics.removeRegistry(registry);
+        }
+    }
+
+    @Test
+    void deliver_givingUpLeavesAReservedOrderAlone() {
+        when(lwaProductFeign.reserveStock(any(ReserveStockRequest.class))).thenThrow(new IllegalStateException("timeout"));
+        order.setStatus("PENDING");
+
+        OutboxEvent event = reserveEvent(3);
+        relay.deliver(event);
+
+        assertEquals("FAILED", event.getStatus());
+        assertEquals("PENDING", order.getStatus());
+        verify(outboxService, never()).enqueueRelease(any(), any());
+    }
+
+    @Test
+    void prune_deletesFinishedEventsOlderThanTheRetention() {
+        ReflectionTestUtils.setField(relay, "retentionSeconds", 3600L);
+        long now = System.currentTimeMillis();
+
+        relay.prune();
+
+        ArgumentCaptor<Date> before = ArgumentCaptor.forClass(Date.class);
+        verify(outboxEventRepository).deleteFinishedBefore(before.capture());
+        assertTrue(Math.abs(now - 3_600_000 - before.getValue().getTime()) < 5_000);
+    }
+
+    private Variant variant() {
+        Variant variant = new Variant();
+        variant.setId(1L);
+        variant.setPrice(50.0);
+        variant.setColor("Red");
+        variant.setSize("L");
+        return variant;
+    }
+
+    private OutboxEvent reserveEvent(int attempts) {
+        OutboxEvent event = new OutboxEvent();
+        event.setId(1L);
+        event.setOrderId(9L);
+        event.setType(OutboxEvent.RESERVE_STOCK);
+        event.setStatus("PENDING");
+        event.setAttempts(attempts);
+        event.setPayload(JsonUtil.toJson(new ReserveStockRequest(List.of(new ReserveStockItem(1L, 2)), "res-9")));
+        return event;
+    }
+
+    private FeignException conflict() {
+        Request request = Request.create(Request.HttpMethod.POST, "/product/variants/reserve", Map.of(), null,
+                StandardCharsets.UTF_8, null);
+        return new FeignException.Conflict("Insufficient stock", request, null, null);
+    }
+}
@@ -0,0 +1,117 @@
+package com.lwa.shop.lwa_order_service.service;
+
+import com.lwa.shop.lwa_order_service.entity.Order;
+import com.lwa.shop.lwa_order_service.entity.OrderItem;
+import com.lwa.shop.lwa_order_service.entity.OutboxEvent;
+import com.lwa.shop.lwa_order_service.feign.LwaProductFeign;
+import com.lwa.shop.lwa_order_service.model.GeneralResponse;
+import com.lwa.shop.lwa_order_service.repository.OrderRepository;
+import com.lwa.shop.lwa_order_service.repository.OutboxEventRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@DataJpaTest
+@Import({ReservationExpiryService.class, OutboxService.class, OrderSummaryProjector.class})
+class ReservationExpiryServiceTest {
+
+    @Autowired
+    private ReservationExpiryService reservationExpiryService;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private OutboxEventRepository outboxEventRepository;
+
+    @MockitoBean
+    private LwaProductFeign lwaProductFeign;
+
+    @Test
+    void sweep_expiresOnlyPendingOrdersPastTheirExpiry() {
+        Long expired = save("PENDING", LocalDateTime.now().minusMinutes(1));
+        Long live = save("PENDING", LocalDateTime.now().plusMinutes(10));
+        Long completed = save("COMPLETED", LocalDateTime.now().minusMinutes(1));
+
+        reservationExpiryService.sweep();
+
+        assertEquals("EXPIRED", status(expired));
+        assertEquals("PENDING", status(live));
+        assertEquals("COMPLETED", status(completed));
+
+        List<OutboxEvent> events = outboxEventRepository.findAll();
+        assertEquals(1, events.size());
+        assertEquals(OutboxEvent.RELEASE_STOCK, events.get(0).getType());
+        assertEquals("res-" + expired, events.get(0).getPayload());
+    }
+
+    @Test
+    void expire_secondInstanceDoesNotReleaseAgain() {
+        Long id = save("PENDING", LocalDateTime.now().minusSeconds(1));
+
+        assertEquals(1, reservationExpiryService.expire(List.of(id)));
+        assertEquals(0, reservationExpiryService.expire(List.of(id)));
+        assertEquals(1, outboxEventRepository.count());
+    }
+
+    @Test
+    void complete_failsOnceExpired() {
+        Long id = save("PENDING", LocalDateTime.now().minusSeconds(1));
+
+        assertEquals(0, orderRepository.complete(id, LocalDateTime.now()));
+        reservationExpiryService.expire(List.of(id));
+        assertEquals(0, orderRepository.complete(id, LocalDateTime.now()));
+        assertEquals("EXPIRED", status(id));
+    }
+
+    @Test
+    void expire_givesLinesBackForOrderWithoutReservation() {
+        Order order = new Order();
+        order.setCustomerName("Alice");
+        order.setStatus("PENDING");
+        order.setTotalAmount(10.0);
+        order.setExpiresAt(LocalDateTime.now().minusSeconds(1));
+        OrderItem item = new OrderItem();
+        item.setVariantId(7L);
+        item.setQuantity(2);
+        item.setPrice(5.0);
+        item.setOrder(order);
+        order.setOrderItems(new ArrayList<>(List.of(item)));
+        Order saved = orderRepository.saveAndFlush(order);
+        Long itemId = saved.getOrderItems().get(0).getId();
+        when(lwaProductFeign.increaseStock(anyLong(), anyInt(), anyString()))
+                .thenReturn(new GeneralResponse<>("200", "Success", "Stock increased", null));
+
+        assertEquals(1, reservationExpiryService.expire(List.of(saved.getId())));
+
+        assertEquals("EXPIRED", status(saved.getId()));
+        verify(lwaProductFeign).increaseStock(7L, 2, "delete-order:" + saved.getId() + ":" + itemId);
+        assertEquals(0, outboxEventRepository.count());
+    }
+
+    private Long save(String status, LocalDateTime expiresAt) {
+        Order order = new Order();
+        order.setCustomerName("Alice");
+        order.setStatus(status);
+        order.setTotalAmount(10.0);
+        order.setExpiresAt(expiresAt);
+        order.setOrderItems(new ArrayList<>());
+        Order saved = orderRepository.save(order);
+        saved.setReservationId("res-" + saved.getId());
+        return orderRepository.saveAndFlush(saved).getId();
+    }
+
+    private String status(Long id) {
+        return orderRepository.findById(id).orElseThrow().getStatus();
+    }
+}
@@ -0,0 +1,56 @@
+package com.lwa.shop.lwa_order_service.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TimingWheelTest {
+
+    @Test
+    void advance_returnsItemsOnceTheirTickHasPassed() {
+        TimingWheel<String> wheel = new TimingWheel<>(100, 8, 0);
+        wheel.add("a", 250);
+        wheel.add("b", 500);
+
+        assertTrue(wheel.advance(200).isEmpty());
+        assertEquals(List.of("a"), wheel.advance(300));
+        assertEquals(List.of("b"), wheel.advance(500));
+        assertEquals(0, wheel.size());
+    }
+
+    @Test
+    void advance_keepsItemsMoreThanOneRotationAway() {
+        TimingWheel<String> wheel = new TimingWheel<>(100, 4, 0);
+        // Tick 10 shares a bucket with tick 2 and 6
+        wheel.add("far", 1000);
+
+        assertTrue(wheel.advance(200).isEmpty());
+        assertTrue(wheel.advance(600).isEmpty());
+        assertEquals(1, wheel.size());
+        assertEquals(List.of("far"), wheel.advance(1000));
+    }
+
+    @Test
+    void advance_catchesUpAfterALongPause() {
+        TimingWheel<String> wheel = new TimingWheel<>(100, 4, 0);
+        wheel.add("a", 100);
+        wheel.add("b", 300);
+        wheel.add("c", 5000);
+
+        List<String> due = wheel.advance(2000);
+
+        assertEquals(2, due.size());
+        assertTrue(due.containsAll(List.of("a", "b")));
+        assertEquals(List.of("c"), wheel.advance(5000));
+    }
+
+    @Test
+    void add_pastDeadlineIsDueOnNextTick() {
+        TimingWheel<String> wheel = new TimingWheel<>(100, 8, 1000);
+        wheel.add("late", 0);
+
+        assertEquals(List.of("late"), wheel.advance(1100));
+    }
+}
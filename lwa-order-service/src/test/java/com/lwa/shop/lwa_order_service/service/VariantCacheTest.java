@@ -0,0 +1,82 @@
+package com.lwa.shop.lwa_order_service.service;
+
+import com.lwa.shop.lwa_order_service.exception.CustomException;
+import com.lwa.shop.lwa_order_service.feign.LwaProductFeign;
+import com.lwa.shop.lwa_order_service.model.GeneralResponse;
+import com.lwa.shop.lwa_order_service.model.Variant;
+import com.lwa.shop.lwa_order_service.model.VariantBatch;
+import com.lwa.shop.lwa_order_service.model.response.VariantCacheStatsDTO;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+class VariantCacheTest {
+
+    private LwaProductFeign lwaProductFeign;
+    private VariantCache variantCache;
+
+    @BeforeEach
+    void setUp() {
+        lwaProductFeign = mock(LwaProductFeign.class);
+        variantCache = new VariantCache(lwaProductFeign, 100, 30);
+    }
+
+    @Test
+    void get_cachesVariantAfterFirstLoad() {
+        when(lwaProductFeign.getVariant(1L)).thenReturn(new GeneralResponse<>("200", "OK", "Fetched", variant(1L, 5)));
+
+        assertEquals(5, variantCache.get(1L).getStock());
+        assertEquals(5, variantCache.get(1L).getStock());
+
+        verify(lwaProductFeign, times(1)).getVariant(1L);
+        VariantCacheStatsDTO stats = variantCache.stats();
+        assertEquals(1, stats.getHitCount());
+        assertEquals(1, stats.getMissCount());
+    }
+
+    @Test
+    void invalidate_forcesReload() {
+        when(lwaProductFeign.getVariant(1L))
+                .thenReturn(new GeneralResponse<>("200", "OK", "Fetched", variant(1L, 5)))
+                .thenReturn(new GeneralResponse<>("200", "OK", "Fetched", variant(1L, 9)));
+
+        variantCache.get(1L);
+        variantCache.invalidate(1L);
+
+        assertEquals(9, variantCache.get(1L).getStock());
+        verify(lwaProductFeign, times(2)).getVariant(1L);
+    }
+
+    @Test
+    void get_fallbackResponseIsNotCached() {
+        when(lwaProductFeign.getVariant(1L))
+                .thenReturn(new GeneralResponse<>("500", "FAILED", "Product Service unavailable", null))
+                .thenReturn(new GeneralResponse<>("200", "OK", "Fetched", variant(1L, 3)));
+
+        assertThrows(CustomException.class, () -> variantCache.get(1L));
+        assertEquals(3, variantCache.get(1L).getStock());
+    }
+
+    @Test
+    void getAll_loadsMissesWithOneBatchCall() {
+        when(lwaProductFeign.getVariant(1L)).thenReturn(new GeneralResponse<>("200", "OK", "Fetched", variant(1L, 5)));
+        when(lwaProductFeign.getVariants(anyList())).thenReturn(new GeneralResponse<>("200", "OK", "Fetched",
+                new VariantBatch(List.of(variant(2L, 1), variant(3L, 2)), List.of())));
+
+        variantCache.get(1L);
+        Map<Long, Variant> variants = variantCache.getAll(List.of(1L, 2L, 3L));
+
+        assertEquals(3, variants.size());
+        verify(lwaProductFeign, times(1)).getVariants(List.of(2L, 3L));
+    }
+
+    private Variant variant(Long id, int stock) {
+        return new Variant(id, "Red", "M", 100.0, stock, null, null, null, null);
+    }
+}
@@ -1,24 +1,53 @@
 package com.lwa.shop.lwa_order_service.service.impl;
 
 import com.lwa.shop.lwa_order_service.entity.Order;
+import com.lwa.shop.lwa_order_service.entity.OrderItem;
+import com.lwa.shop.lwa_order_service.entity.OrderSummary;
 import com.lwa.shop.lwa_order_service.exception.CustomException;
+import com.lwa.shop.lwa_order_service.exception.InvalidRequestException;
+import com.lwa.shop.lwa_order_service.exception.OrderStateException;
 import com.lwa.shop.lwa_order_service.feign.LwaProductFeign;
 import com.lwa.shop.lwa_order_service.model.GeneralResponse;
+import com.lwa.shop.lwa_order_service.model.LineProcessingMode;
+import com.lwa.shop.lwa_order_service.model.ReservationMode;
 import com.lwa.shop.lwa_order_service.model.Variant;
+import com.lwa.shop.lwa_order_service.model.VariantBatch;
 import com.lwa.shop.lwa_order_service.model.request.OrderItemRequestDTO;
 import com.lwa.shop.lwa_order_service.model.request.OrderRequestDTO;
+import com.lwa.shop.lwa_order_service.model.request.ReserveStockItem;
+import com.lwa.shop.lwa_order_service.model.request.ReserveStockRequest;
+import com.lwa.shop.lwa_order_service.model.response.OrderPageResponseDTO;
 import com.lwa.shop.lwa_order_service.model.response.OrderResponseDTO;
+import com.lwa.shop.lwa_order_service.model.response.OrderSearchResponseDTO;
 import com.lwa.shop.lwa_order_service.repository.OrderRepository;
+import com.lwa.shop.lwa_order_service.repository.OrderSummaryRepository;
+import com.lwa.shop.lwa_order_service.service.OrderSummaryProjector;
+import com.lwa.shop.lwa_order_service.service.OutboxService;
+import com.lwa.shop.lwa_order_service.service.ReservationExpiryService;
+import com.lwa.shop.lwa_order_service.service.VariantCache;
+import feign.FeignException;
+import feign.Request;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityManager;
 import lombok.extern.slf4j.Slf4j;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.springframework.test.util.ReflectionTestUtils;
 
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
 import java.util.concurrent.*;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
@@ -35,6 +64,18 @@ class OrderServiceImplTest {
     @Mock
     private LwaProductFeign lwaProductFeign;
 
+    @Mock
+    private OutboxService outboxService;
+
+    @Mock
+    private ReservationExpiryService reservationExpiryService;
+
+    @Mock
+    private OrderSummaryRepository orderSummaryRepository;
+
+    @Mock
+    private OrderSummaryProjector orderSummaryProjector;
+
     @BeforeEach
     void setUp() {
         MockitoAnnotations.openMocks(this);
@@ -58,11 +99,8 @@ class OrderServiceImplTest {
         variant.setColor("Red");
         variant.setSize("M");
 
-        when(lwaProductFeign.getVariant(1L))
-                .thenReturn(new GeneralResponse<>("200", "OK", "Fetched", variant));
-
-        when(lwaProductFeign.reduceStock(1L, 2))
-                .thenReturn(new GeneralResponse<>("200", "OK", "Stock reduced", variant));
+        when(lwaProductFeign.reserveStock(any(ReserveStockRequest.class)))
+                .thenReturn(new GeneralResponse<>("200", "OK", "Stock reserved", List.of(variant)));
 
         when(orderRepository.save(any(Order.class))).thenAnswer(invocation -> {
             Order order = invocation.getArgument(0);
@@ -76,8 +114,183 @@ class OrderServiceImplTest {
         assertEquals("John Doe", response.getCustomerName());
         assertEquals(200.0, response.getTotalAmount());
         assertEquals(1, response.getOrderItems().size());
-        verify(lwaProductFeign, times(1)).reduceStock(1L, 2);
+        verify(lwaProductFeign, times(1)).reserveStock(any(ReserveStockRequest.class));
+        verify(lwaProductFeign, never()).getVariant(anyLong());
+        verify(lwaProductFeign, never()).reduceStock(anyLong(), anyInt(), anyString());
         verify(orderRepository, times(1)).save(any(Order.class));
+        verify(orderSummaryProjector).projectNew(any(Order.class));
+    }
+
+    // === MULTI-LINE ORDER USES ONE RESERVATION ===
+    @Test
+    void saveOrder_multipleLines_singleReservation() {
+        OrderRequestDTO dto = new OrderRequestDTO();
+        dto.setCustomerName("John Doe");
+        dto.setOrderItems(List.of(
+                new OrderItemRequestDTO(1L, 2),
+                new OrderItemRequestDTO(2L, 1),
+                new OrderItemRequestDTO(3L, 3)));
+
+        List<Variant> variants = List.of(
+                new Variant(1L, "Red", "M", 100.0, 10, null, null, null, null),
+                new Variant(2L, "Blue", "L", 50.0, 10, null, null, null, null),
+                new Variant(3L, "Black", "S", 10.0, 10, null, null, null, null));
+
+        when(lwaProductFeign.reserveStock(any(ReserveStockRequest.class)))
+                .thenReturn(new GeneralResponse<>("200", "OK", "Stock reserved", variants));
+        when(orderRepository.save(any(Order.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        OrderResponseDTO response = orderService.saveOrder(dto);
+
+        ArgumentCaptor<ReserveStockRequest> captor = ArgumentCaptor.forClass(ReserveStockRequest.class);
+        verify(lwaProductFeign, times(1)).reserveStock(captor.capture());
+        assertEquals(List.of(new ReserveStockItem(1L, 2), new ReserveStockItem(2L, 1), new ReserveStockItem(3L, 3)),
+                captor.getValue().getItems());
+        assertEquals(280.0, response.getTotalAmount());
+        assertEquals("Blue", response.getOrderItems().get(1).getVariantColor());
+    }
+
+    // === PRODUCT SERVICE UNAVAILABLE CASE ===
+    @Test
+    void saveOrder_reservationFallback() {
+        OrderRequestDTO dto = new OrderRequestDTO();
+        dto.setCustomerName("John Doe");
+        dto.setOrderItems(List.of(new OrderItemRequestDTO(1L, 1)));
+
+        when(lwaProductFeign.reserveStock(any(ReserveStockRequest.class)))
+                .thenReturn(new GeneralResponse<>("500", "FAILED", "Product Service unavailable", null));
+
+        assertThrows(CustomException.class, () -> orderService.saveOrder(dto));
+        verify(orderRepository, never()).save(any());
+    }
+
+    @Test
+    void saveOrder_batchReservationCarriesIdAndReleasesOnRollback() {
+        OrderRequestDTO dto = new OrderRequestDTO();
+        dto.setCustomerName("John Doe");
+        dto.setOrderItems(List.of(new OrderItemRequestDTO(1L, 1)));
+
+        when(lwaProductFeign.reserveStock(any(ReserveStockRequest.class)))
+                .thenReturn(new GeneralResponse<>("500", "FAILED", "Product Service unavailable", null));
+
+        assertThrows(CustomException.class, () -> orderService.saveOrder(dto));
+
+        ArgumentCaptor<ReserveStockRequest> captor = ArgumentCaptor.forClass(ReserveStockRequest.class);
+        verify(lwaProductFeign).reserveStock(captor.capture());
+        assertNotNull(captor.getValue().getReservationId());
+        verify(outboxService).releaseOnRollback(captor.getValue().getReservationId());
+    }
+
+    @Test
+    void saveOrder_outboxModeAcceptsWithoutRemoteCall() {
+        ReflectionTestUtils.setField(orderService, "reservationMode", ReservationMode.OUTBOX);
+        OrderRequestDTO dto = new OrderRequestDTO();
+        dto.setCustomerName("John Doe");
+        dto.setOrderItems(List.of(new OrderItemRequestDTO(1L, 2)));
+
+        when(orderRepository.save(any(Order.class))).thenAnswer(invocation -> {
+            Order order = invocation.getArgument(0);
+            order.setId(7L);
+            return order;
+        });
+
+        OrderResponseDTO response = orderService.saveOrder(dto);
+
+        assertEquals("RESERVING", response.getStatus());
+        ArgumentCaptor<Order> captor = ArgumentCaptor.forClass(Order.class);
+        verify(outboxService).enqueueReserve(captor.capture());
+        assertNotNull(captor.getValue().getReservationId());
+        verifyNoInteractions(lwaProductFeign);
+    }
+
+    @Test
+    void completeOrder_pendingWithinReservation() {
+        Order order = new Order();
+        order.setId(3L);
+        order.setStatus("PENDING");
+        order.setExpiresAt(LocalDateTime.now().plusMinutes(10));
+        order.setOrderItems(new ArrayList<>());
+        when(orderRepository.findById(3L)).thenReturn(Optional.of(order));
+        when(orderRepository.complete(eq(3L), any(LocalDateTime.class))).thenAnswer(invocation -> {
+            order.setStatus("COMPLETED");
+            return 1;
+        });
+
+        assertEquals("COMPLETED", orderService.completeOrder(3L).getStatus());
+        verify(orderSummaryProjector).project(order);
+    }
+
+    @Test
+    void completeOrder_expiredReservationIsRefused() {
+        Order order = new Order();
+        order.setId(4L);
+        order.setStatus("PENDING");
+        order.setExpiresAt(LocalDateTime.now().minusSeconds(1));
+        order.setOrderItems(new ArrayList<>());
+        when(orderRepository.findById(4L)).thenReturn(Optional.of(order));
+        when(orderRepository.complete(eq(4L), any(LocalDateTime.class))).thenReturn(0);
+
+        OrderStateException ex = assertThrows(OrderStateException.class, () -> orderService.completeOrder(4L));
+        assertEquals("Reservation of order 4 has expired", ex.getMessage());
+        assertEquals("PENDING", order.getStatus());
+    }
+
+    @Test
+    void saveOrder_batchModeSchedulesExpiry() {
+        OrderItemRequestDTO itemDto = new OrderItemRequestDTO();
+        itemDto.setVariantId(1L);
+        itemDto.setQuantity(1);
+        OrderRequestDTO dto = new OrderRequestDTO();
+        dto.setCustomerName("Jane");
+        dto.setOrderItems(List.of(itemDto));
+
+        Variant variant = new Variant();
+        variant.setId(1L);
+        variant.setPrice(10.0);
+        LocalDateTime expiresAt = LocalDateTime.now().plusMinutes(15);
+        when(reservationExpiryService.expiresAt(any(LocalDateTime.class))).thenReturn(expiresAt);
+        when(lwaProductFeign.reserveStock(any(ReserveStockRequest.class)))
+                .thenReturn(new GeneralResponse<>("200", "OK", "Stock reserved", List.of(variant)));
+        when(orderRepository.save(any(Order.class))).thenAnswer(invocation -> {
+            Order order = invocation.getArgument(0);
+            order.setId(11L);
+            return order;
+        });
+
+        orderService.saveOrder(dto);
+
+        verify(reservationExpiryService).schedule(11L, expiresAt);
+    }
+
+    @Test
+    void deleteOrder_expiredDoesNotReleaseAgain() {
+        Order order = new Order();
+        order.setId(6L);
+        order.setStatus("EXPIRED");
+        order.setReservationId("res-6");
+        order.setOrderItems(new ArrayList<>());
+        when(orderRepository.findById(6L)).thenReturn(Optional.of(order));
+
+        orderService.deleteOrder(6L);
+
+        verify(outboxService, never()).enqueueRelease(any(), any());
+        verify(orderRepository).delete(order);
+    }
+
+    @Test
+    void deleteOrder_withReservationQueuesRelease() {
+        Order order = new Order();
+        order.setId(5L);
+        order.setReservationId("res-5");
+        order.setOrderItems(new ArrayList<>());
+        when(orderRepository.findById(5L)).thenReturn(Optional.of(order));
+
+        orderService.deleteOrder(5L);
+
+        verify(outboxService).enqueueRelease(5L, "res-5");
+        verify(lwaProductFeign, never()).increaseStock(anyLong(), anyInt(), anyString());
+        verify(orderRepository).delete(order);
+        verify(orderSummaryProjector).remove(5L);
     }
 
     // === INSUFFICIENT STOCK CASE ===
@@ -96,13 +309,39 @@ class OrderServiceImplTest {
         variant.setStock(2);
         variant.setPrice(100.0);
 
-        when(lwaProductFeign.getVariant(1L))
-                .thenReturn(new GeneralResponse<>("200", "OK", "Fetched", variant));
+        when(lwaProductFeign.reserveStock(any(ReserveStockRequest.class)))
+                .thenThrow(new CustomException("Insufficient stock for variant id: 1"));
 
         assertThrows(CustomException.class, () -> orderService.saveOrder(dto));
         verify(orderRepository, never()).save(any());
     }
 
+    @Test
+    void saveOrder_rejectedByProductServiceIsCounted() {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        Metrics.addRegistry(registry);
+        try {
+            OrderItemRequestDTO itemDto = new OrderItemRequestDTO();
+            itemDto.setVariantId(1L);
+            itemDto.setQuantity(5);
+            OrderRequestDTO dto = new OrderRequestDTO();
+            dto.setCustomerName("John Doe");
+            dto.setOrderItems(List.of(itemDto));
+
+            Request request = Request.create(Request.HttpMethod.POST, "/product/variants/reserve", Map.of(), null,
+                    StandardCharsets.UTF_8, null);
+            when(lwaProductFeign.reserveStock(any(ReserveStockRequest.class)))
+                    .thenThrow(new FeignException.Conflict("Insufficient stock", request, null, null));
+
+            assertThrows(FeignException.Conflict.class, () -> orderService.saveOrder(dto));
+            assertEquals(1.0, registry.counter("order.stock.rejections", "mode", "batch").count());
+            // Refused as a whole, there is no reservation to release
+            verify(outboxService, never()).releaseOnRollback(any());
+        } finally {
+            Metrics.removeRegistry(registry);
+        }
+    }
+
     // === CONCURRENCY TEST ===
     @Test
     void saveOrder_concurrentOrders() throws InterruptedException {
@@ -125,20 +364,16 @@ class OrderServiceImplTest {
             return order;
         });
 
-        // Always return a valid variant first
-        when(lwaProductFeign.getVariant(anyLong())).thenAnswer(inv ->
-                new GeneralResponse<>("200", "OK", "Fetched", variant)
-        );
-
-        // Simulate atomic stock update
-        when(lwaProductFeign.reduceStock(anyLong(), anyInt())).thenAnswer(invocation -> {
-            int qty = invocation.getArgument(1);
+        // Simulate atomic stock reservation
+        when(lwaProductFeign.reserveStock(any(ReserveStockRequest.class))).thenAnswer(invocation -> {
+            ReserveStockRequest request = invocation.getArgument(0);
+            int qty = request.getItems().get(0).getQuantity();
             synchronized (stock) {
                 if (stock.get() >= qty) {
                     stock.addAndGet(-qty);
                     successCount.incrementAndGet();
                     log.info("✅ Stock reduced by {}. Remaining: {}", qty, stock.get());
-                    return new GeneralResponse<>("200", "OK", "Stock reduced", variant);
+                    return new GeneralResponse<>("200", "OK", "Stock reserved", List.of(variant));
                 } else {
                     log.warn("❌ Insufficient stock. Requested: {}, Available: {}", qty, stock.get());
                     throw new CustomException("Insufficient stock");
@@ -178,4 +413,208 @@ class OrderServiceImplTest {
         assertEquals(initialStock, successCount.get(), "Only " + initialStock + " orders should succeed");
     }
 
+    // === READ MODEL ===
+    @Test
+    void getOrder_servedFromSummaryWithoutLoadingTheOrder() {
+        when(orderSummaryRepository.findById(7L)).thenReturn(Optional.of(summary(7L)));
+
+        OrderResponseDTO response = orderService.getOrder(7L);
+
+        assertEquals(7L, response.getId());
+        assertEquals(1, response.getOrderItems().size());
+        assertEquals("Red", response.getOrderItems().get(0).getVariantColor());
+        verifyNoInteractions(orderRepository);
+    }
+
+    @Test
+    void getOrder_unknownIdIsNotFound() {
+        when(orderSummaryRepository.findById(8L)).thenReturn(Optional.empty());
+
+        CustomException ex = assertThrows(CustomException.class, () -> orderService.getOrder(8L));
+        assertEquals("Order not found: 8", ex.getMessage());
+    }
+
+    // === KEYSET PAGINATION ===
+    @Test
+    void getOrdersPage_returnsCursorWhenMoreRowsExist() {
+        when(orderSummaryRepository.pageByStatus("PENDING", 10L, 3))
+                .thenReturn(List.of(summary(11L), summary(12L), summary(13L)));
+
+        OrderPageResponseDTO page = orderService.getOrdersPage(10L, 2, "PENDING", null);
+
+        assertEquals(2, page.getOrders().size());
+        assertTrue(page.isHasMore());
+        assertEquals(12L, page.getNextCursor());
+        verifyNoInteractions(orderRepository);
+    }
+
+    @Test
+    void getOrdersPage_lastPageHasNoCursor() {
+        when(orderSummaryRepository.pageAll(0L, 101)).thenReturn(List.of(summary(1L)));
+
+        OrderPageResponseDTO page = orderService.getOrdersPage(null, 500, null, null);
+
+        assertEquals(1, page.getOrders().size());
+        assertFalse(page.isHasMore());
+        assertNull(page.getNextCursor());
+    }
+
+    // === SEARCH ===
+    @Test
+    void searchOrders_picksTheQueryOfTheFilters() {
+        LocalDateTime from = LocalDateTime.of(2025, 1, 1, 0, 0);
+        when(orderSummaryRepository.searchByStatus(eq("PENDING"), eq(from), any(LocalDateTime.class), eq(0L), eq(3)))
+                .thenReturn(List.of(summary(1L), summary(2L)));
+
+        OrderSearchResponseDTO page = orderService.searchOrders(" ", "PENDING", from, null, null, 2);
+
+        assertEquals(2, page.getOrders().size());
+        assertFalse(page.isHasMore());
+        assertNull(page.getNextCursor());
+        verify(orderSummaryRepository, never()).searchByCustomerAndStatus(any(), any(), any(), any(), anyLong(), anyInt());
+    }
+
+    @Test
+    void searchOrders_cursorResumesAfterLastRow() {
+        LocalDateTime createdAt = LocalDateTime.of(2025, 1, 3, 10, 0, 5);
+        OrderSummary first = summary(4L);
+        first.setCreatedAt(createdAt.minusHours(1));
+        OrderSummary second = summary(9L);
+        second.setCreatedAt(createdAt);
+        when(orderSummaryRepository.searchByCustomer(eq("Alice"), any(LocalDateTime.class), any(LocalDateTime.class),
+                eq(0L), eq(3))).thenReturn(List.of(first, second, summary(12L)));
+
+        OrderSearchResponseDTO page = orderService.searchOrders("Alice", null, null, null, null, 2);
+
+        assertTrue(page.isHasMore());
+        assertEquals("2025-01-03T10:00:05_9", page.getNextCursor());
+
+        orderService.searchOrders("Alice", null, null, null, page.getNextCursor(), 2);
+        verify(orderSummaryRepository).searchByCustomer(eq("Alice"), eq(createdAt), any(LocalDateTime.class), eq(9L), eq(3));
+    }
+
+    @Test
+    void searchOrders_malformedCursorIsRejected() {
+        assertThrows(InvalidRequestException.class,
+                () -> orderService.searchOrders(null, null, null, null, "not-a-cursor", 20));
+    }
+
+    // === STREAMING ===
+    @Test
+    void streamOrders_detachesEachOrder() {
+        EntityManager entityManager = mock(EntityManager.class);
+        ReflectionTestUtils.setField(orderService, "entityManager", entityManager);
+        OrderSummary first = summary(1L);
+        OrderSummary second = summary(2L);
+        when(orderSummaryRepository.streamByStatus("PENDING")).thenReturn(Stream.of(first, second));
+
+        List<Long> streamed = new ArrayList<>();
+        orderService.streamOrders("PENDING", null, dto -> streamed.add(dto.getId()));
+
+        assertEquals(List.of(1L, 2L), streamed);
+        verify(entityManager).detach(first);
+        verify(entityManager).detach(second);
+    }
+
+    private OrderSummary summary(Long id) {
+        OrderSummary summary = new OrderSummary();
+        summary.setId(id);
+        summary.setCustomerName("John Doe");
+        summary.setStatus("PENDING");
+        summary.setTotalAmount(10.0);
+        summary.setItemCount(1);
+        summary.setItemsJson("[{\"id\":1,\"variantColor\":\"Red\",\"variantSize\":\"M\",\"price\":10.0,\"quantity\":1}]");
+        return summary;
+    }
+
+    // === PARALLEL LINE PROCESSING ===
+    @Test
+    void saveOrder_parallel_success() {
+        ExecutorService lineExecutor = Executors.newFixedThreadPool(3);
+        OrderServiceImpl parallelService = parallelOrderService(lineExecutor);
+
+        OrderRequestDTO dto = new OrderRequestDTO();
+        dto.setCustomerName("John Doe");
+        dto.setOrderItems(List.of(
+                new OrderItemRequestDTO(1L, 1),
+                new OrderItemRequestDTO(2L, 2),
+                new OrderItemRequestDTO(3L, 3)));
+
+        when(lwaProductFeign.getVariants(anyList())).thenAnswer(inv -> {
+            List<Long> ids = inv.getArgument(0);
+            return new GeneralResponse<>("200", "OK", "Fetched", new VariantBatch(ids.stream()
+                    .map(id -> new Variant(id, "Color-" + id, "M", 10.0 * id, 10, null, null, null, null))
+                    .toList(), List.of()));
+        });
+        when(lwaProductFeign.reduceStock(anyLong(), anyInt(), anyString())).thenAnswer(inv ->
+                new GeneralResponse<>("200", "OK", "Stock reduced", new Variant()));
+        when(orderRepository.save(any(Order.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        LocalDateTime expiresAt = LocalDateTime.now().plusMinutes(15);
+        when(reservationExpiryService.expiresAt(any(LocalDateTime.class))).thenReturn(expiresAt);
+
+        OrderResponseDTO response = parallelService.saveOrder(dto);
+
+        assertEquals(140.0, response.getTotalAmount());
+        // Expires like a batch order, without a reservation id
+        ArgumentCaptor<Order> saved = ArgumentCaptor.forClass(Order.class);
+        verify(orderRepository).save(saved.capture());
+        assertEquals(expiresAt, saved.getValue().getExpiresAt());
+        assertNull(saved.getValue().getReservationId());
+        assertEquals(List.of("Color-1", "Color-2", "Color-3"),
+                response.getOrderItems().stream().map(i -> i.getVariantColor()).toList());
+        verify(lwaProductFeign, times(3)).reduceStock(anyLong(), anyInt(), anyString());
+        // One batch lookup for the basket, no per-line lookups
+        verify(lwaProductFeign).getVariants(anyList());
+        verify(lwaProductFeign, never()).getVariant(anyLong());
+        verify(lwaProductFeign, never()).reserveStock(any());
+        verify(lwaProductFeign, never()).increaseStock(anyLong(), anyInt(), anyString());
+        lineExecutor.shutdown();
+    }
+
+    @Test
+    void saveOrder_parallel_failedLineReleasesSiblings() {
+        ExecutorService lineExecutor = Executors.newFixedThreadPool(3);
+        OrderServiceImpl parallelService = parallelOrderService(lineExecutor);
+        CountDownLatch siblingsReserved = new CountDownLatch(2);
+
+        OrderRequestDTO dto = new OrderRequestDTO();
+        dto.setCustomerName("John Doe");
+        dto.setOrderItems(List.of(
+                new OrderItemRequestDTO(1L, 1),
+                new OrderItemRequestDTO(2L, 5),
+                new OrderItemRequestDTO(3L, 1)));
+
+        when(lwaProductFeign.getVariants(anyList())).thenReturn(new GeneralResponse<>("200", "OK", "Fetched",
+                new VariantBatch(List.of(
+                        new Variant(1L, "Red", "M", 10.0, 10, null, null, null, null),
+                        new Variant(2L, "Blue", "L", 10.0, 1, null, null, null, null),
+                        new Variant(3L, "Red", "M", 10.0, 10, null, null, null, null)), List.of())));
+        // The short line re-reads its variant before rejecting, and fails only after both siblings took their stock
+        when(lwaProductFeign.getVariant(2L)).thenAnswer(inv -> {
+            siblingsReserved.await(5, TimeUnit.SECONDS);
+            return new GeneralResponse<>("200", "OK", "Fetched",
+                    new Variant(2L, "Blue", "L", 10.0, 1, null, null, null, null));
+        });
+        when(lwaProductFeign.reduceStock(anyLong(), anyInt(), anyString())).thenAnswer(inv -> {
+            siblingsReserved.countDown();
+            return new GeneralResponse<>("200", "OK", "Stock reduced", new Variant());
+        });
+
+        assertThrows(CustomException.class, () -> parallelService.saveOrder(dto));
+
+        verify(lwaProductFeign, timeout(2000)).increaseStock(eq(1L), eq(1), anyString());
+        verify(lwaProductFeign, timeout(2000)).increaseStock(eq(3L), eq(1), anyString());
+        verify(lwaProductFeign, never()).reduceStock(eq(2L), eq(5), anyString());
+        verify(orderRepository, never()).save(any());
+        lineExecutor.shutdown();
+    }
+
+    private OrderServiceImpl parallelOrderService(Executor lineExecutor) {
+        OrderServiceImpl parallelService = new OrderServiceImpl(orderRepository, lwaProductFeign, lineExecutor,
+                new VariantCache(lwaProductFeign, 100, 30), outboxService, reservationExpiryService,
+                orderSummaryRepository, orderSummaryProjector);
+        ReflectionTestUtils.setField(parallelService, "lineProcessingMode", LineProcessingMode.PARALLEL);
+        ReflectionTestUtils.setField(parallelService, "lineTimeoutMs", 5000L);
+        return parallelService;
+    }
 }
@@ -0,0 +1,28 @@
+package com.lwa.shop.lwa_product_service.config;
+
+import com.lwa.shop.lwa_common.jdbc.IdSequenceAligner;
+import org.springframework.boot.LazyInitializationExcludeFilter;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.List;
+
+@Configuration
+public class IdSequenceConfig {
+
+    @Bean
+    @DependsOn("entityManagerFactory")
+    public IdSequenceAligner idSequenceAligner(JdbcTemplate jdbcTemplate) {
+        // Tables of the entities extending BaseEntity
+        return new IdSequenceAligner(jdbcTemplate, List.of("item", "variant", "stock_reservation", "variant_stock_shard"));
+    }
+
+    // Nothing injects the aligner, so the fast-start profile's lazy initialization would never run it.
+    // Through its EntityManagerFactory dependency this also keeps migrations and schema validation at startup.
+    @Bean
+    static LazyInitializationExcludeFilter idSequenceAlignerEager() {
+        return LazyInitializationExcludeFilter.forBeanTypes(IdSequenceAligner.class);
+    }
+}
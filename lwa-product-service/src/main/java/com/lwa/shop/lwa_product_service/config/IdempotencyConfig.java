@@ -0,0 +1,18 @@
+package com.lwa.shop.lwa_product_service.config;
+
+import com.lwa.shop.lwa_common.idempotency.IdempotencyStore;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class IdempotencyConfig {
+
+    @Bean
+    public IdempotencyStore idempotencyStore(
+            @Value("${product.idempotency.max-size:100000}") long maxSize,
+            @Value("${product.idempotency.ttl-seconds:3600}") long ttlSeconds,
+            @Value("${product.idempotency.wait-ms:30000}") long waitMs) {
+        return new IdempotencyStore(maxSize, ttlSeconds, waitMs);
+    }
+}
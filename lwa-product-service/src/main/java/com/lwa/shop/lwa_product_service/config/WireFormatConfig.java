@@ -0,0 +1,33 @@
+package com.lwa.shop.lwa_product_service.config;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.lwa.shop.lwa_product_service.entity.BaseEntity;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+
+/**
+ * Binary Smile encoding for internal callers. A request with {@code Accept: application/x-jackson-smile} gets
+ * its response in Smile, and a Smile request body is read as well; everyone else keeps getting JSON.
+ * Smile responses leave out the audit fields of {@link BaseEntity}, which services do not read.
+ */
+@Configuration
+public class WireFormatConfig {
+
+    public static final String SMILE = "application/x-jackson-smile";
+
+    @JsonIgnoreProperties({"createdAt", "updatedAt", "createdBy", "updatedBy"})
+    abstract static class WithoutAudit {
+    }
+
+    // Replaces the default Smile converter, keeping its place after the JSON one
+    @Bean
+    public MappingJackson2SmileHttpMessageConverter smileHttpMessageConverter(Jackson2ObjectMapperBuilder builder) {
+        return new MappingJackson2SmileHttpMessageConverter(builder
+                .factory(new SmileFactory())
+                .mixIn(BaseEntity.class, WithoutAudit.class)
+                .build());
+    }
+}
@@ -2,6 +2,9 @@ package com.lwa.shop.lwa_product_service.controller;
 
 import com.lwa.shop.lwa_product_service.entity.Item;
 import com.lwa.shop.lwa_product_service.model.GeneralResponse;
+import com.lwa.shop.lwa_product_service.model.response.ItemResponse;
+import com.lwa.shop.lwa_product_service.model.response.PageResponse;
+import com.lwa.shop.lwa_product_service.service.CatalogResponseCache;
 import com.lwa.shop.lwa_product_service.service.ItemService;
 import com.lwa.shop.lwa_product_service.util.JsonUtil;
 import com.lwa.shop.lwa_product_service.util.ResponseUtil;
@@ -18,6 +21,7 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.util.List;
 
@@ -29,16 +33,35 @@ public class ItemController {
     private static final Logger log = LoggerFactory.getLogger(ItemController.class);
 
     private final ItemService itemService;
+    private final CatalogResponseCache catalogResponseCache;
 
     @Operation(summary = "Get all items", description = "Fetch all items from the database")
     @ApiResponse(responseCode = "200", description = "Successfully fetched items",
             content = @Content(mediaType = "application/json",
                     schema = @Schema(implementation = GeneralResponse.class)))
     @GetMapping
-    public ResponseEntity<GeneralResponse<List<Item>>> getAllItems() {
+    public ResponseEntity<?> getAllItems(WebRequest request) {
         log.info("incoming getAllItems request");
-        List<Item> items = itemService.getAllItems();
-        return ResponseUtil.success("Fetched all items", items);
+        return catalogResponseCache.respond(request, "items", () -> {
+            List<Item> items = itemService.getAllItems();
+            return ResponseUtil.success("Fetched all items", items);
+        });
+    }
+
+    @Operation(summary = "Get a page of items", description = "Fetch one page of items with their variants")
+    @ApiResponse(responseCode = "200", description = "Successfully fetched items",
+            content = @Content(mediaType = "application/json",
+                    schema = @Schema(implementation = GeneralResponse.class)))
+    @GetMapping("/page")
+    public ResponseEntity<?> getItemPage(
+            @Parameter(description = "Zero-based page number") @RequestParam(defaultValue = "0") int page,
+            @Parameter(description = "Page size, at most 100") @RequestParam(defaultValue = "20") int size,
+            WebRequest request) {
+        log.info("incoming getItemPage request page={} size={}", page, size);
+        return catalogResponseCache.respond(request, "items/page?page=" + page + "&size=" + size, () -> {
+            PageResponse<ItemResponse> items = itemService.getItemPage(page, size);
+            return ResponseUtil.success("Fetched items page " + items.getPage(), items);
+        });
     }
 
     @Operation(summary = "Get item by ID", description = "Fetch a single item by its ID")
@@ -49,12 +72,15 @@ public class ItemController {
             content = @Content(mediaType = "application/json",
                     schema = @Schema(implementation = GeneralResponse.class)))
     @GetMapping("/{id}")
-    public ResponseEntity<GeneralResponse<Item>> getItem(
+    public ResponseEntity<?> getItem(
             @Parameter(description = "ID of the item to fetch", required = true)
-            @PathVariable Long id) {
+            @PathVariable Long id,
+            WebRequest request) {
         log.info("incoming getItem request");
-        Item item = itemService.getItem(id);
-        return ResponseUtil.success("Fetched item with id " + id, item);
+        return catalogResponseCache.respond(request, "items/" + id, () -> {
+            Item item = itemService.getItem(id);
+            return ResponseUtil.success("Fetched item with id " + id, item);
+        });
     }
 
     @Operation(summary = "Create a new item", description = "Add a new item")
@@ -84,7 +110,8 @@ public class ItemController {
                                     "}\n")
                     ))
             @RequestBody Item item) {
-        log.info("incoming add item request {}", JsonUtil.toJson(item));
+        log.info("incoming add item request");
+        log.debug("add item request body {}", JsonUtil.lazy(item));
         Item savedItem = itemService.saveItem(item);
         return ResponseUtil.created("Item created successfully", savedItem);
     }
@@ -1,13 +1,21 @@
 package com.lwa.shop.lwa_product_service.controller;
 
 
+import com.lwa.shop.lwa_common.idempotency.IdempotencyStore;
 import com.lwa.shop.lwa_product_service.entity.Variant;
 import com.lwa.shop.lwa_product_service.model.GeneralResponse;
+import com.lwa.shop.lwa_product_service.model.request.ReserveStockRequest;
 import com.lwa.shop.lwa_product_service.model.request.SaveVariant;
+import com.lwa.shop.lwa_product_service.model.response.PageResponse;
+import com.lwa.shop.lwa_product_service.model.response.VariantBatch;
+import com.lwa.shop.lwa_product_service.model.response.VariantResponse;
+import com.lwa.shop.lwa_product_service.service.CatalogResponseCache;
+import com.lwa.shop.lwa_product_service.service.StockReservationService;
 import com.lwa.shop.lwa_product_service.service.VariantService;
 import com.lwa.shop.lwa_product_service.util.JsonUtil;
 import com.lwa.shop.lwa_product_service.util.ResponseUtil;
 import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.media.Content;
 import io.swagger.v3.oas.annotations.media.ExampleObject;
 import io.swagger.v3.oas.annotations.media.Schema;
@@ -18,6 +26,7 @@ import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.util.List;
 
@@ -29,6 +38,9 @@ import java.util.List;
 public class VariantController {
 
     private final VariantService variantService;
+    private final StockReservationService stockReservationService;
+    private final IdempotencyStore idempotencyStore;
+    private final CatalogResponseCache catalogResponseCache;
 
     @Operation(summary = "Get all variants")
     @ApiResponse(
@@ -44,12 +56,37 @@ public class VariantController {
             )
     )
     @GetMapping
-    public ResponseEntity<GeneralResponse<List<Variant>>> getAllVariants() {
+    public ResponseEntity<?> getAllVariants(WebRequest request) {
         log.info("incoming getAllVariants request");
-        List<Variant> variants = variantService.getAllVariants();
-        return ResponseUtil.success("Fetched all variants", variants);
+        return catalogResponseCache.respond(request, "variants", () -> {
+            List<Variant> variants = variantService.getAllVariants();
+            return ResponseUtil.success("Fetched all variants", variants);
+        });
     }
 
+    @Operation(summary = "Get a page of variants")
+    @GetMapping("/page")
+    public ResponseEntity<?> getVariantPage(
+            @Parameter(description = "Zero-based page number") @RequestParam(defaultValue = "0") int page,
+            @Parameter(description = "Page size, at most 100") @RequestParam(defaultValue = "20") int size,
+            WebRequest request) {
+        log.info("incoming getVariantPage request page={} size={}", page, size);
+        return catalogResponseCache.respond(request, "variants/page?page=" + page + "&size=" + size, () -> {
+            PageResponse<VariantResponse> variants = variantService.getVariantPage(page, size);
+            return ResponseUtil.success("Fetched variants page " + variants.getPage(), variants);
+        });
+    }
+
+    @Operation(summary = "Get variants by IDs",
+            description = "Fetch several variants in one call. Results keep the requested order and unknown ids are listed in missingIds.")
+    @GetMapping(params = "ids")
+    public ResponseEntity<GeneralResponse<VariantBatch>> getVariants(
+            @Parameter(description = "Comma separated variant ids", required = true, example = "1,2,3")
+            @RequestParam List<Long> ids) {
+        log.info("incoming getVariants request for {} ids", ids.size());
+        VariantBatch batch = variantService.getVariants(ids);
+        return ResponseUtil.success("Fetched " + batch.getVariants().size() + " variants", batch);
+    }
 
     @Operation(summary = "Get variant by ID")
     @ApiResponse(
@@ -94,7 +131,8 @@ public class VariantController {
     )
     @PostMapping
     public ResponseEntity<GeneralResponse<Variant>> addVariant(@org.springframework.web.bind.annotation.RequestBody SaveVariant variant) {
-        log.info("incoming add variant request {}", JsonUtil.toJson(variant));
+        log.info("incoming add variant request");
+        log.debug("add variant request body {}", JsonUtil.lazy(variant));
         Variant savedVariant = variantService.saveVariant(variant, null);
         return ResponseUtil.created("Variant created successfully", savedVariant);
     }
@@ -124,25 +162,94 @@ public class VariantController {
     public ResponseEntity<GeneralResponse<Variant>> updateVariant(
             @PathVariable Long id,
             @org.springframework.web.bind.annotation.RequestBody SaveVariant request) {
-        log.info("incoming update variant request {} -> {}", id, JsonUtil.toJson(request));
+        log.info("incoming update variant request {}", id);
+        log.debug("update variant request body {}", JsonUtil.lazy(request));
         Variant updated = variantService.saveVariant(request, id);
         return ResponseUtil.success("Variant updated successfully", updated);
     }
 
+    @Operation(summary = "Reduce stock", description = "With an Idempotency-Key a retried call returns the first result instead of reducing again.")
     @PutMapping("/{id}/reduce-stock")
     public ResponseEntity<GeneralResponse<Variant>> reduceStock(
             @PathVariable Long id,
-            @RequestParam int quantity) {
-        Variant variant = variantService.reduceStock(id, quantity);
-        return ResponseUtil.success("Stock reduced", variant);
+            @RequestParam int quantity,
+            @RequestHeader(value = IdempotencyStore.HEADER, required = false) String idempotencyKey) {
+        return idempotencyStore.execute("reduceStock", idempotencyKey, List.of(id, quantity), () -> {
+            Variant variant = variantService.reduceStock(id, quantity);
+            return ResponseUtil.success("Stock reduced", variant);
+        });
+    }
+
+    @Operation(
+            summary = "Reserve stock for a whole order",
+            description = "Reduce stock for all order lines in one transaction. Either every line is reserved or none is. " +
+                    "With a reservationId the call is idempotent: replaying it returns the existing reservation.",
+            requestBody = @RequestBody(
+                    description = "Order lines to reserve",
+                    required = true,
+                    content = @Content(
+                            mediaType = "application/json",
+                            schema = @Schema(implementation = ReserveStockRequest.class),
+                            examples = @ExampleObject(
+                                    name = "ReserveStockExample",
+                                    value = "{\n" +
+                                            "  \"items\": [{\"variantId\": 1, \"quantity\": 2}, {\"variantId\": 2, \"quantity\": 1}],\n" +
+                                            "  \"reservationId\": \"6f1c2e4a-order-42\"\n" +
+                                            "}"
+                            )
+                    )
+            )
+    )
+    @PostMapping("/reserve")
+    public ResponseEntity<GeneralResponse<List<Variant>>> reserveStock(
+            @org.springframework.web.bind.annotation.RequestBody ReserveStockRequest request,
+            @RequestHeader(value = IdempotencyStore.HEADER, required = false) String idempotencyKey) {
+        log.info("incoming reserve stock request {}", request.getReservationId());
+        log.debug("reserve stock request body {}", JsonUtil.lazy(request));
+        return idempotencyStore.execute("reserveStock", idempotencyKey, request, () -> {
+            List<Variant> variants = stockReservationService.reserve(request.getReservationId(), request.getItems());
+            return ResponseUtil.success("Stock reserved", variants);
+        });
+    }
+
+    @Operation(summary = "Release a reservation",
+            description = "Give back the stock of a reservation. Idempotent, and a release before the reserve blocks that reserve.")
+    @PostMapping("/reservations/{reservationId}/release")
+    public ResponseEntity<GeneralResponse<Void>> releaseReservation(@PathVariable String reservationId) {
+        log.info("incoming release reservation request {}", reservationId);
+        stockReservationService.release(reservationId);
+        return ResponseUtil.success("Reservation released", null);
     }
 
+    @Operation(summary = "Increase stock", description = "With an Idempotency-Key a retried call returns the first result instead of increasing again.")
     @PutMapping("/{id}/increase-stock")
     public ResponseEntity<GeneralResponse<Variant>> increaseStock(
             @PathVariable Long id,
-            @RequestParam int quantity) {
-        Variant variant = variantService.increaseStock(id, quantity);
-        return ResponseUtil.success("Stock increased", variant);
+            @RequestParam int quantity,
+            @RequestHeader(value = IdempotencyStore.HEADER, required = false) String idempotencyKey) {
+        return idempotencyStore.execute("increaseStock", idempotencyKey, List.of(id, quantity), () -> {
+            Variant variant = variantService.increaseStock(id, quantity);
+            return ResponseUtil.success("Stock increased", variant);
+        });
+    }
+
+    @Operation(summary = "Flag a variant as hot",
+            description = "Split the stock of a variant over several counters so flash sale orders do not queue on one row lock.")
+    @PutMapping("/{id}/hot")
+    public ResponseEntity<GeneralResponse<Variant>> enableHotStock(
+            @PathVariable Long id,
+            @Parameter(description = "Number of stock shards, 1 to 64") @RequestParam(defaultValue = "8") int shards) {
+        log.info("incoming enable hot stock request {} shards={}", id, shards);
+        Variant variant = variantService.enableHotStock(id, shards);
+        return ResponseUtil.success("Variant stock sharded", variant);
+    }
+
+    @Operation(summary = "Remove the hot flag of a variant", description = "Fold the stock shards back into the variant.")
+    @DeleteMapping("/{id}/hot")
+    public ResponseEntity<GeneralResponse<Variant>> disableHotStock(@PathVariable Long id) {
+        log.info("incoming disable hot stock request {}", id);
+        Variant variant = variantService.disableHotStock(id);
+        return ResponseUtil.success("Variant stock unsharded", variant);
     }
 
     @Operation(summary = "Delete variant by ID")
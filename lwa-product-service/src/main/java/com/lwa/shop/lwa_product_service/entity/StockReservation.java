@@ -0,0 +1,29 @@
+package com.lwa.shop.lwa_product_service.entity;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Stock taken for one order, keyed by the reservation id chosen by Order Service.
+ * Replaying a reserve returns the existing reservation, and a release leaves a RELEASED row behind
+ * so a reserve that arrives after its release is refused, until the row is pruned.
+ */
+@EqualsAndHashCode(callSuper = true)
+@Data
+@Entity
+@Table(name = "stock_reservation",
+        uniqueConstraints = @UniqueConstraint(name = "uk_stock_reservation_id", columnNames = "reservation_id"))
+public class StockReservation extends BaseEntity {
+    @Column(name = "reservation_id", nullable = false, length = 64)
+    private String reservationId;
+
+    private String status; // RESERVED, RELEASED
+
+    @ElementCollection(fetch = FetchType.EAGER)
+    @CollectionTable(name = "stock_reservation_line", joinColumns = @JoinColumn(name = "reservation_id_fk"))
+    private List<StockReservationLine> lines = new ArrayList<>();
+}
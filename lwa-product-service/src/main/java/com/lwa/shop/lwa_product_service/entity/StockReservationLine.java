@@ -0,0 +1,15 @@
+package com.lwa.shop.lwa_product_service.entity;
+
+import jakarta.persistence.Embeddable;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Embeddable
+@NoArgsConstructor
+@AllArgsConstructor
+public class StockReservationLine {
+    private Long variantId;
+    private Integer quantity;
+}
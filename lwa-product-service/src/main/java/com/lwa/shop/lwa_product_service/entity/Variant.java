@@ -1,24 +1,54 @@
 package com.lwa.shop.lwa_product_service.entity;
 
 import com.fasterxml.jackson.annotation.JsonBackReference;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.*;
 import lombok.Data;
 import lombok.EqualsAndHashCode;
 import lombok.ToString;
+import org.hibernate.annotations.DynamicUpdate;
+import org.hibernate.annotations.Formula;
 
 @EqualsAndHashCode(callSuper = true)
 @Data
 @Entity
+@DynamicUpdate // only changed columns, so saving a variant does not write back a stock the ledger has since flushed
 public class Variant extends BaseEntity {
     private String color;
     private String size;
     private Double price;
     private Integer stock;
 
-    @ManyToOne
+    // Number of stock shards for hot variants, null when the stock lives in this row only
+    private Integer stockShards;
+
+    // Read-only sum of the shard counters, only computed for hot variants
+    @Formula("(case when stock_shards > 0 then " +
+            "(select coalesce(sum(s.stock), 0) from variant_stock_shard s where s.variant_id = id) else 0 end)")
+    @JsonIgnore
+    private Integer shardedStock;
+
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "item_id")
     @JsonBackReference
     @ToString.Exclude
     private Item item;
-}
 
+    /**
+     * Total sellable stock: the stock column plus the shard counters of a hot variant.
+     */
+    public Integer getStock() {
+        if (shardedStock == null || shardedStock == 0) {
+            return stock;
+        }
+        return (stock == null ? 0 : stock) + shardedStock;
+    }
+
+    /**
+     * Stock held by the variant row alone, without the shard counters.
+     */
+    @JsonIgnore
+    public int getRowStock() {
+        return stock == null ? 0 : stock;
+    }
+}
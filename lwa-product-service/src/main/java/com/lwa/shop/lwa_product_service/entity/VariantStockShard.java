@@ -0,0 +1,24 @@
+package com.lwa.shop.lwa_product_service.entity;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+
+/**
+ * One of the N stock counters of a hot variant. Reservations spread over the shards
+ * so concurrent orders for the same variant do not all wait on a single row lock.
+ */
+@EqualsAndHashCode(callSuper = true)
+@Data
+@Entity
+@Table(name = "variant_stock_shard",
+        uniqueConstraints = @UniqueConstraint(name = "uk_variant_stock_shard", columnNames = {"variant_id", "shard_no"}))
+public class VariantStockShard extends BaseEntity {
+    @Column(name = "variant_id", nullable = false)
+    private Long variantId;
+
+    @Column(name = "shard_no", nullable = false)
+    private Integer shardNo;
+
+    private Integer stock;
+}
@@ -0,0 +1,14 @@
+package com.lwa.shop.lwa_product_service.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * Business rejection of a stock change, returned as 409 so callers can tell it apart from an outage and not retry it.
+ */
+@ResponseStatus(HttpStatus.CONFLICT)
+public class InsufficientStockException extends RuntimeException {
+    public InsufficientStockException(String message) {
+        super(message);
+    }
+}
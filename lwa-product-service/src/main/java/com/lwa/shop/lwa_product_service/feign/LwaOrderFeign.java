@@ -0,0 +1,13 @@
+package com.lwa.shop.lwa_product_service.feign;
+
+import com.lwa.shop.lwa_product_service.model.GeneralResponse;
+import org.springframework.cloud.openfeign.FeignClient;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+
+@FeignClient(name = "lwa-order-service")
+public interface LwaOrderFeign {
+
+    @DeleteMapping("/order/cache/variants/{id}")
+    GeneralResponse<Void> invalidateVariant(@PathVariable("id") Long id);
+}
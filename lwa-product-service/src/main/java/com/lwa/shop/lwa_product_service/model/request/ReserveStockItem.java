@@ -0,0 +1,13 @@
+package com.lwa.shop.lwa_product_service.model.request;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ReserveStockItem {
+    private Long variantId;
+    private Integer quantity;
+}
@@ -0,0 +1,16 @@
+package com.lwa.shop.lwa_product_service.model.request;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ReserveStockRequest {
+    private List<ReserveStockItem> items;
+    // Optional, makes the reservation idempotent and releasable as a whole
+    private String reservationId;
+}
@@ -0,0 +1,17 @@
+package com.lwa.shop.lwa_product_service.model.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ItemResponse {
+    private Long id;
+    private String name;
+    private String description;
+    private List<VariantResponse> variants;
+}
@@ -0,0 +1,16 @@
+package com.lwa.shop.lwa_product_service.model.response;
+
+import com.lwa.shop.lwa_product_service.entity.Variant;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class VariantBatch {
+    private List<Variant> variants;   // in the order they were requested
+    private List<Long> missingIds;    // requested ids that do not exist
+}
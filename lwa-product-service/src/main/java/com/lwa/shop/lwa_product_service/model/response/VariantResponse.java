@@ -0,0 +1,17 @@
+package com.lwa.shop.lwa_product_service.model.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class VariantResponse {
+    private Long id;
+    private Long itemId;
+    private String color;
+    private String size;
+    private Double price;
+    private Integer stock;
+}
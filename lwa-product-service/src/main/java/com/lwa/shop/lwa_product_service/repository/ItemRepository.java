@@ -1,9 +1,35 @@
 package com.lwa.shop.lwa_product_service.repository;
 
 import com.lwa.shop.lwa_product_service.entity.Item;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
 @Repository
 public interface ItemRepository extends JpaRepository<Item, Long> {
+
+    /* Load variants in the same query instead of one extra select per item */
+    @Override
+    @EntityGraph(attributePaths = "variants")
+    List<Item> findAll();
+
+    @Override
+    @EntityGraph(attributePaths = "variants")
+    Optional<Item> findById(Long id);
+
+    /* Paging on ids only, fetch-joining a collection together with LIMIT would page in memory */
+    @Query(value = "SELECT i.id FROM Item i ORDER BY i.id",
+            countQuery = "SELECT COUNT(i) FROM Item i")
+    Page<Long> findIdPage(Pageable pageable);
+
+    @Query("SELECT DISTINCT i FROM Item i LEFT JOIN FETCH i.variants WHERE i.id IN :ids ORDER BY i.id")
+    List<Item> findAllWithVariantsByIdIn(@Param("ids") Collection<Long> ids);
 }
@@ -0,0 +1,29 @@
+package com.lwa.shop.lwa_product_service.repository;
+
+import com.lwa.shop.lwa_product_service.entity.StockReservation;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Date;
+import java.util.Optional;
+
+@Repository
+public interface StockReservationRepository extends JpaRepository<StockReservation, Long> {
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    Optional<StockReservation> findByReservationId(String reservationId);
+
+    @Modifying
+    @Query(value = "DELETE FROM stock_reservation_line WHERE reservation_id_fk IN " +
+            "(SELECT id FROM stock_reservation WHERE status = 'RELEASED' AND updated_at < :before)", nativeQuery = true)
+    int deleteReleasedLinesBefore(@Param("before") Date before);
+
+    @Modifying
+    @Query("DELETE FROM StockReservation r WHERE r.status = 'RELEASED' AND r.updatedAt < :before")
+    int deleteReleasedBefore(@Param("before") Date before);
+}
@@ -1,25 +1,52 @@
 package com.lwa.shop.lwa_product_service.repository;
 
 import com.lwa.shop.lwa_product_service.entity.Variant;
+import com.lwa.shop.lwa_product_service.model.response.VariantResponse;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
 @Repository
 public interface VariantRepository extends JpaRepository<Variant, Long> {
 
-    /* This atomic handle for concurency*/
+    /* This atomic handle for concurency, hot variants keep their stock in shards instead*/
     @Transactional
     @Modifying
-    @Query("UPDATE Variant v SET v.stock = v.stock - :quantity WHERE v.id = :id AND v.stock >= :quantity")
+    @Query("UPDATE Variant v SET v.stock = v.stock - :quantity " +
+            "WHERE v.id = :id AND v.stock >= :quantity AND (v.stockShards IS NULL OR v.stockShards = 0)")
     int reduceStock(@Param("id") Long id, @Param("quantity") Integer quantity);
 
     @Transactional
     @Modifying
-    @Query("UPDATE Variant v SET v.stock = v.stock + :quantity WHERE v.id = :id")
+    @Query("UPDATE Variant v SET v.stock = v.stock + :quantity " +
+            "WHERE v.id = :id AND (v.stockShards IS NULL OR v.stockShards = 0)")
     int increaseStock(@Param("id") Long id, @Param("quantity") Integer quantity);
-}
 
+    @Query("SELECT DISTINCT v.item.id FROM Variant v WHERE v.id IN :ids")
+    List<Long> findItemIdsByIdIn(@Param("ids") Collection<Long> ids);
+
+    @Query("SELECT v.stockShards FROM Variant v WHERE v.id = :id")
+    Integer findStockShardsById(@Param("id") Long id);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT v FROM Variant v WHERE v.id = :id")
+    Optional<Variant> lockById(@Param("id") Long id);
+
+    /* DTO projection: one select per page, no entity graph for Jackson to walk */
+    @Query(value = "SELECT new com.lwa.shop.lwa_product_service.model.response.VariantResponse(" +
+            "v.id, i.id, v.color, v.size, v.price, v.stock + v.shardedStock) " +
+            "FROM Variant v LEFT JOIN v.item i ORDER BY v.id",
+            countQuery = "SELECT COUNT(v) FROM Variant v")
+    Page<VariantResponse> findResponsePage(Pageable pageable);
+}
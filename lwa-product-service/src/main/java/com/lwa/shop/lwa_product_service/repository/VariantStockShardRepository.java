@@ -0,0 +1,37 @@
+package com.lwa.shop.lwa_product_service.repository;
+
+import com.lwa.shop.lwa_product_service.entity.VariantStockShard;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface VariantStockShardRepository extends JpaRepository<VariantStockShard, Long> {
+
+    /* Same conditional update as the variant row, but on one shard only.
+       The context is cleared so shards locked later in the transaction are read fresh */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE VariantStockShard s SET s.stock = s.stock - :quantity " +
+            "WHERE s.variantId = :variantId AND s.shardNo = :shardNo AND s.stock >= :quantity")
+    int reduceShard(@Param("variantId") Long variantId, @Param("shardNo") Integer shardNo, @Param("quantity") Integer quantity);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE VariantStockShard s SET s.stock = s.stock + :quantity " +
+            "WHERE s.variantId = :variantId AND s.shardNo = :shardNo")
+    int increaseShard(@Param("variantId") Long variantId, @Param("shardNo") Integer shardNo, @Param("quantity") Integer quantity);
+
+    /* Locks every shard of a variant, always in shard order */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT s FROM VariantStockShard s WHERE s.variantId = :variantId ORDER BY s.shardNo")
+    List<VariantStockShard> lockAllByVariantId(@Param("variantId") Long variantId);
+
+    @Modifying(flushAutomatically = true)
+    @Query("DELETE FROM VariantStockShard s WHERE s.variantId = :variantId")
+    int deleteByVariantId(@Param("variantId") Long variantId);
+}
@@ -0,0 +1,235 @@
+package com.lwa.shop.lwa_product_service.service;
+
+import com.lwa.shop.lwa_product_service.entity.BaseEntity;
+import com.lwa.shop.lwa_product_service.entity.Item;
+import com.lwa.shop.lwa_product_service.entity.Variant;
+import com.lwa.shop.lwa_product_service.repository.ItemRepository;
+import com.lwa.shop.lwa_product_service.repository.VariantRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.BeanUtils;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Immutable in-memory copy of the catalog (items with their variants) behind {@code GET /items} and {@code GET /variants}.
+ * <p>
+ * Readers take the current snapshot without locking or touching the database. The first read loads the whole
+ * catalog once; after that writers only mark the items or variants they changed (after commit), and every
+ * {@code product.catalog.refresh-interval-ms} the marked items are reloaded with one fetch join and swapped into a
+ * new snapshot. Stock in the snapshot can therefore lag behind the database by about one interval, stock checks
+ * and reservations keep reading the variant rows.
+ * <p>
+ * The returned entities are detached copies shared by all readers and must not be modified.
+ * {@link #version()} moves on with every applied batch of changes and versions the cached catalog responses.
+ */
+@Slf4j
+@Service
+public class CatalogReadModel {
+
+    private static final Comparator<BaseEntity> BY_ID = Comparator.comparing(BaseEntity::getId);
+
+    private final ItemRepository itemRepository;
+    private final VariantRepository variantRepository;
+    private final TransactionTemplate transactionTemplate;
+
+    private final AtomicReference<Snapshot> snapshot = new AtomicReference<>();
+    private final AtomicLong version = new AtomicLong(1);
+    private final Set<Long> dirtyItems = ConcurrentHashMap.newKeySet();
+    private final Set<Long> dirtyVariants = ConcurrentHashMap.newKeySet();
+    private final Object refreshLock = new Object();
+
+    public CatalogReadModel(ItemRepository itemRepository, VariantRepository variantRepository,
+                            PlatformTransactionManager transactionManager) {
+        this.itemRepository = itemRepository;
+        this.variantRepository = variantRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setReadOnly(true);
+    }
+
+    public List<Item> items() {
+        return current().items();
+    }
+
+    public Optional<Item> item(Long id) {
+        return Optional.ofNullable(current().itemsById().get(id));
+    }
+
+    public List<Variant> variants() {
+        return current().variants();
+    }
+
+    /**
+     * Catalog version, changes once the marked writes are visible. Never touches the database.
+     */
+    public long version() {
+        return version.get();
+    }
+
+    public void itemChanged(Long itemId) {
+        if (itemId != null) {
+            afterCommit(() -> dirtyItems.add(itemId));
+        }
+    }
+
+    public void variantChanged(Long variantId) {
+        if (variantId != null) {
+            afterCommit(() -> dirtyVariants.add(variantId));
+        }
+    }
+
+    public void variantsChanged(Collection<Long> variantIds) {
+        if (variantIds != null && !variantIds.isEmpty()) {
+            Set<Long> ids = Set.copyOf(variantIds);
+            afterCommit(() -> dirtyVariants.addAll(ids));
+        }
+    }
+
+    /**
+     * Reload the items marked since the last refresh, plus the items owning the marked variants, and publish a new
+     * snapshot. Nothing is loaded before the first read, the version moves on regardless.
+     */
+    @Scheduled(fixedDelayString = "${product.catalog.refresh-interval-ms:100}")
+    public void refresh() {
+        synchronized (refreshLock) {
+            if (dirtyItems.isEmpty() && dirtyVariants.isEmpty()) {
+                return;
+            }
+            Snapshot current = snapshot.get();
+            if (current == null) {
+                dirtyItems.clear();
+                dirtyVariants.clear();
+                version.incrementAndGet();
+                return;
+            }
+            Set<Long> itemIds = drain(dirtyItems);
+            Set<Long> variantIds = drain(dirtyVariants);
+            try {
+                Snapshot next = transactionTemplate.execute(status -> {
+                    Set<Long> affected = new HashSet<>(itemIds);
+                    if (!variantIds.isEmpty()) {
+                        // A moved variant leaves the item it was listed under and joins the one it points to now
+                        variantIds.stream()
+                                .map(current.variantsById()::get)
+                                .filter(Objects::nonNull)
+                                .forEach(variant -> affected.add(variant.getItem().getId()));
+                        affected.addAll(variantRepository.findItemIdsByIdIn(variantIds));
+                    }
+                    return current.replace(affected, itemRepository.findAllWithVariantsByIdIn(affected));
+                });
+                snapshot.set(next);
+                version.incrementAndGet();
+                log.debug("Refreshed catalog snapshot: {} items, {} variants changed", itemIds.size(), variantIds.size());
+            } catch (RuntimeException e) {
+                // Keep the marks, the next refresh retries them
+                dirtyItems.addAll(itemIds);
+                dirtyVariants.addAll(variantIds);
+                log.error("Failed to refresh catalog snapshot", e);
+            }
+        }
+    }
+
+    private Snapshot current() {
+        Snapshot current = snapshot.get();
+        if (current != null) {
+            return current;
+        }
+        synchronized (refreshLock) {
+            if (snapshot.get() == null) {
+                // Changes committed from here on are either in the full load or marked again
+                dirtyItems.clear();
+                dirtyVariants.clear();
+                Snapshot loaded = transactionTemplate.execute(status -> Snapshot.of(copyAll(itemRepository.findAll())));
+                snapshot.set(loaded);
+                log.info("Loaded catalog snapshot: {} items, {} variants", loaded.items().size(), loaded.variants().size());
+            }
+            return snapshot.get();
+        }
+    }
+
+    private static void afterCommit(Runnable mark) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    mark.run();
+                }
+            });
+        } else {
+            mark.run();
+        }
+    }
+
+    private static Set<Long> drain(Set<Long> marks) {
+        Set<Long> drained = new HashSet<>();
+        for (Iterator<Long> it = marks.iterator(); it.hasNext(); ) {
+            drained.add(it.next());
+            it.remove();
+        }
+        return drained;
+    }
+
+    private static Map<Long, Item> copyAll(List<Item> items) {
+        Map<Long, Item> copies = new HashMap<>();
+        items.forEach(item -> copies.put(item.getId(), copy(item)));
+        return copies;
+    }
+
+    private static Item copy(Item source) {
+        Item item = new Item();
+        BeanUtils.copyProperties(source, item, "variants");
+        item.setVariants(source.getVariants() == null ? List.of() : source.getVariants().stream()
+                .map(variant -> copy(variant, item))
+                .sorted(BY_ID)
+                .toList());
+        return item;
+    }
+
+    private static Variant copy(Variant source, Item item) {
+        Variant variant = new Variant();
+        BeanUtils.copyProperties(source, variant, "item", "stock", "shardedStock");
+        // Total stock, shards of a hot variant included
+        variant.setStock(source.getStock());
+        variant.setItem(item);
+        return variant;
+    }
+
+    private record Snapshot(Map<Long, Item> itemsById, Map<Long, Variant> variantsById,
+                            List<Item> items, List<Variant> variants) {
+
+        static Snapshot of(Map<Long, Item> itemsById) {
+            Map<Long, Variant> variantsById = new HashMap<>();
+            itemsById.values().forEach(item -> item.getVariants().forEach(variant -> variantsById.put(variant.getId(), variant)));
+            return new Snapshot(Map.copyOf(itemsById), Map.copyOf(variantsById),
+                    itemsById.values().stream().sorted(BY_ID).toList(),
+                    variantsById.values().stream().sorted(BY_ID).toList());
+        }
+
+        /**
+         * New snapshot with the given items replaced by their reloaded state, items missing from it were deleted.
+         */
+        Snapshot replace(Collection<Long> itemIds, List<Item> reloaded) {
+            Map<Long, Item> next = new HashMap<>(itemsById);
+            itemIds.forEach(next::remove);
+            next.putAll(copyAll(reloaded));
+            return of(next);
+        }
+    }
+}
@@ -0,0 +1,161 @@
+package com.lwa.shop.lwa_product_service.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.lwa.shop.lwa_product_service.config.WireFormatConfig;
+import io.micrometer.core.instrument.Metrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.context.request.WebRequest;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Locale;
+import java.util.function.Supplier;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Encoded JSON responses of the catalog reads, plain and gzip-compressed, keyed by resource and page.
+ * <p>
+ * Every entry is tagged with the {@link CatalogReadModel#version()} it was built at and answered with the weak ETag
+ * {@code W/"<version>"}. A request whose {@code If-None-Match} carries the current version gets a 304 without
+ * touching the database or Jackson, but only when an entry for that key exists at that version: the ETag is global,
+ * so a missing or deleted resource is always resolved, and answered with its 404. An entry from an older version is
+ * rebuilt on its next request, outside any cache lock. Writes move the version on once they are visible in the
+ * catalog, so a cached page can lag by the same refresh interval. Smile requests bypass the cache.
+ */
+@Slf4j
+@Component
+public class CatalogResponseCache {
+
+    private record Entry(long version, byte[] json, byte[] gzip) {
+    }
+
+    private final CatalogReadModel catalogReadModel;
+    private final ObjectMapper objectMapper;
+    private final Cache<String, Entry> cache;
+
+    public CatalogResponseCache(CatalogReadModel catalogReadModel, ObjectMapper objectMapper,
+                                @Value("${product.response-cache.max-size:1000}") long maxSize) {
+        this.catalogReadModel = catalogReadModel;
+        this.objectMapper = objectMapper;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .build();
+    }
+
+    /**
+     * Answer a catalog read from the cache.
+     *
+     * @param request  the incoming request, for its conditional and negotiation headers
+     * @param key      the resource and page, e.g. {@code items/page?page=0&size=20}
+     * @param response builds the response when the cached one is missing or outdated
+     * @return the cached response, or null when a 304 was written
+     */
+    public ResponseEntity<?> respond(WebRequest request, String key,
+                                     Supplier<? extends ResponseEntity<?>> response) {
+        String accept = request.getHeader(HttpHeaders.ACCEPT);
+        if (accept != null && accept.contains(WireFormatConfig.SMILE)) {
+            ResponseEntity<?> smile = response.get();
+            return ResponseEntity.status(smile.getStatusCode()).headers(smile.getHeaders())
+                    .varyBy(HttpHeaders.ACCEPT).body(smile.getBody());
+        }
+
+        long version = catalogReadModel.version();
+        Entry entry = cache.getIfPresent(key);
+        boolean built = false;
+        if (entry == null || entry.version() < version) {
+            // Built without holding a cache lock, a concurrent miss may build the same entry twice
+            ResponseEntity<?> fresh = response.get();
+            if (!fresh.getStatusCode().is2xxSuccessful()) {
+                return fresh;
+            }
+            entry = cache.asMap().merge(key, encode(version, fresh.getBody()),
+                    (cached, encoded) -> cached.version() >= encoded.version() ? cached : encoded);
+            built = true;
+        }
+
+        // The resource exists at this version, so a matching ETag may be answered with a 304
+        String eTag = "W/\"" + entry.version() + "\"";
+        if (request instanceof ServletWebRequest servletRequest && servletRequest.getResponse() != null) {
+            servletRequest.getResponse().setHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT + ", " + HttpHeaders.ACCEPT_ENCODING);
+        }
+        if (request.checkNotModified(eTag)) {
+            Metrics.counter("product.response.cache", "result", "not-modified").increment();
+            return null;
+        }
+        Metrics.counter("product.response.cache", "result", built ? "miss" : "hit").increment();
+
+        boolean gzip = acceptsGzip(request.getHeader(HttpHeaders.ACCEPT_ENCODING));
+        ResponseEntity.BodyBuilder builder = ResponseEntity.ok()
+                .eTag(eTag)
+                .cacheControl(CacheControl.noCache())
+                .varyBy(HttpHeaders.ACCEPT, HttpHeaders.ACCEPT_ENCODING)
+                .contentType(MediaType.APPLICATION_JSON);
+        if (gzip) {
+            builder.header(HttpHeaders.CONTENT_ENCODING, "gzip");
+        }
+        return builder.body(gzip ? entry.gzip() : entry.json());
+    }
+
+    /**
+     * Whether {@code Accept-Encoding} allows gzip: {@code gzip} or {@code x-gzip} with a non-zero q-value, or
+     * {@code *} with one when gzip is not listed.
+     */
+    static boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        Double gzip = null;
+        Double any = null;
+        for (String coding : acceptEncoding.split(",")) {
+            String[] parts = coding.split(";");
+            String name = parts[0].trim().toLowerCase(Locale.ROOT);
+            double q = 1.0;
+            for (int i = 1; i < parts.length; i++) {
+                String parameter = parts[i].trim();
+                if (parameter.startsWith("q=") || parameter.startsWith("Q=")) {
+                    try {
+                        q = Double.parseDouble(parameter.substring(2).trim());
+                    } catch (NumberFormatException e) {
+                        q = 0;
+                    }
+                }
+            }
+            if (name.equals("gzip") || name.equals("x-gzip")) {
+                gzip = gzip == null ? q : Math.max(gzip, q);
+            } else if (name.equals("*")) {
+                any = q;
+            }
+        }
+        if (gzip != null) {
+            return gzip > 0;
+        }
+        return any != null && any > 0;
+    }
+
+    private Entry encode(long version, Object body) {
+        try {
+            byte[] json = objectMapper.writeValueAsBytes(body);
+            ByteArrayOutputStream compressed = new ByteArrayOutputStream(json.length / 4 + 64);
+            try (GZIPOutputStream out = new GZIPOutputStream(compressed)) {
+                out.write(json);
+            }
+            log.debug("Encoded catalog response at version {}: {} bytes, {} gzipped", version, json.length, compressed.size());
+            return new Entry(version, json, compressed.toByteArray());
+        } catch (JsonProcessingException e) {
+            throw new RuntimeException("Failed to encode catalog response", e);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -1,27 +1,41 @@
 package com.lwa.shop.lwa_product_service.service;
 
 import com.lwa.shop.lwa_product_service.entity.Item;
+import com.lwa.shop.lwa_product_service.entity.Variant;
 import com.lwa.shop.lwa_product_service.exception.CustomException;
+import com.lwa.shop.lwa_product_service.model.response.ItemResponse;
+import com.lwa.shop.lwa_product_service.model.response.PageResponse;
+import com.lwa.shop.lwa_product_service.model.response.VariantResponse;
 import com.lwa.shop.lwa_product_service.repository.ItemRepository;
 import com.lwa.shop.lwa_product_service.util.JsonUtil;
+import io.micrometer.core.annotation.Timed;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
+import java.util.stream.Collectors;
 
 @Slf4j
 @Service
 public class ItemService {
 
+    static final int MAX_PAGE_SIZE = 100;
+
     private final ItemRepository itemRepository;
+    private final CatalogReadModel catalogReadModel;
 
-    public ItemService(ItemRepository itemRepository) {
+    public ItemService(ItemRepository itemRepository, CatalogReadModel catalogReadModel) {
         this.itemRepository = itemRepository;
+        this.catalogReadModel = catalogReadModel;
     }
 
+    @Timed(value = "product.item.service", histogram = true)
     public List<Item> getAllItems() {
         try {
-            List<Item> items = itemRepository.findAll();
+            List<Item> items = catalogReadModel.items();
             log.info("Fetched all items: {}", items.size());
             return items;
         } catch (Exception e) {
@@ -30,8 +44,43 @@ public class ItemService {
         }
     }
 
+    /**
+     * Get one page of items with their variants as DTOs.
+     * Uses a fixed number of queries per page (id page, count, one fetch join) no matter how many variants an item has.
+     *
+     * @param page zero-based page number
+     * @param size page size, at most 100
+     * @return the page of items
+     */
+    @Transactional(readOnly = true)
+    @Timed(value = "product.item.service", histogram = true)
+    public PageResponse<ItemResponse> getItemPage(int page, int size) {
+        int pageSize = Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+        Page<Long> ids = itemRepository.findIdPage(PageRequest.of(Math.max(page, 0), pageSize));
+
+        List<ItemResponse> items = ids.isEmpty() ? List.of() :
+                itemRepository.findAllWithVariantsByIdIn(ids.getContent()).stream()
+                        .map(ItemService::toResponse)
+                        .collect(Collectors.toList());
+        log.info("Fetched item page {} with {} items", ids.getNumber(), items.size());
+        return new PageResponse<>(items, ids.getNumber(), pageSize, ids.getTotalElements(), ids.getTotalPages());
+    }
+
+    static ItemResponse toResponse(Item item) {
+        List<VariantResponse> variants = item.getVariants() == null ? List.of() : item.getVariants().stream()
+                .map(variant -> toResponse(item.getId(), variant))
+                .collect(Collectors.toList());
+        return new ItemResponse(item.getId(), item.getName(), item.getDescription(), variants);
+    }
+
+    static VariantResponse toResponse(Long itemId, Variant variant) {
+        return new VariantResponse(variant.getId(), itemId, variant.getColor(), variant.getSize(),
+                variant.getPrice(), variant.getStock());
+    }
+
+    @Timed(value = "product.item.service", histogram = true)
     public Item getItem(Long id) {
-        return itemRepository.findById(id)
+        return catalogReadModel.item(id)
                 .orElseThrow(() -> new CustomException("Item not found with id: " + id));
     }
 
@@ -41,7 +90,9 @@ public class ItemService {
                 item.getVariants().forEach(variant -> variant.setItem(item));
             }
             Item savedItem = itemRepository.save(item);
-            log.info("Saved item: {}", JsonUtil.toJson(savedItem));
+            log.info("Saved item with id: {}", savedItem.getId());
+            log.debug("Saved item: {}", JsonUtil.lazy(savedItem));
+            catalogReadModel.itemChanged(savedItem.getId());
             return savedItem;
         } catch (Exception e) {
             log.error("Error saving item: {}", item, e);
@@ -52,6 +103,7 @@ public class ItemService {
     public void deleteItem(Long id) {
         try {
             itemRepository.deleteById(id);
+            catalogReadModel.itemChanged(id);
             log.info("Deleted item with id: {}", id);
         } catch (Exception e) {
             log.error("Error deleting item with id {}", id, e);
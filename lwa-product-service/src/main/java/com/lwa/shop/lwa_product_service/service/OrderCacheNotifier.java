@@ -0,0 +1,69 @@
+package com.lwa.shop.lwa_product_service.service;
+
+import com.lwa.shop.lwa_product_service.feign.LwaOrderFeign;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Asks Order Service to drop its cached copy of a variant after the variant changed. This is a best-effort
+ * shortcut, the order-side cache TTL ({@code order.variant-cache.ttl-seconds}) is the real bound on staleness:
+ * only the Order Service instance picked by the load balancer is notified, and a lost, dropped or timed out
+ * notification is only logged.
+ * <p>
+ * The call is made after commit so Order Service cannot re-cache the old row, on a background thread with the
+ * short timeouts of the {@code lwa-order-service} Feign client, so a slow Order Service never holds up a write.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class OrderCacheNotifier {
+
+    private final LwaOrderFeign lwaOrderFeign;
+
+    // One sender with a bounded queue, when it is full a notification is dropped and left to the TTL
+    private final ThreadPoolExecutor sender = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS,
+            new ArrayBlockingQueue<>(1000), task -> {
+        Thread thread = new Thread(task, "order-cache-notifier");
+        thread.setDaemon(true);
+        return thread;
+    }, new ThreadPoolExecutor.DiscardPolicy());
+
+    public void variantChanged(Long variantId) {
+        if (variantId == null) {
+            return;
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    sender.execute(() -> notifyOrderService(variantId));
+                }
+            });
+        } else {
+            sender.execute(() -> notifyOrderService(variantId));
+        }
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        sender.shutdown();
+        sender.awaitTermination(5, TimeUnit.SECONDS);
+    }
+
+    private void notifyOrderService(Long variantId) {
+        try {
+            lwaOrderFeign.invalidateVariant(variantId);
+            log.info("Invalidated order-service cache for variantId={}", variantId);
+        } catch (Exception e) {
+            log.warn("Could not invalidate order-service cache for variantId={}: {}", variantId, e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,128 @@
+package com.lwa.shop.lwa_product_service.service;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Append-only journal of stock changes, split in segments.
+ * Each record is a fixed 20 bytes: sequence number, variant id and signed delta.
+ * A new segment is opened on every flush so flushed segments can be deleted as a whole.
+ * Not thread safe, {@link StockLedger} guards every call.
+ */
+class StockJournal implements Closeable {
+
+    static final int RECORD_SIZE = Long.BYTES + Long.BYTES + Integer.BYTES;
+
+    private static final String PREFIX = "stock-";
+    private static final String SUFFIX = ".journal";
+
+    record Entry(long seq, long variantId, int delta) {
+    }
+
+    private final Path dir;
+    private final boolean syncEachWrite;
+    private FileChannel channel;
+    private Path current;
+
+    StockJournal(Path dir, boolean syncEachWrite) {
+        this.dir = dir;
+        this.syncEachWrite = syncEachWrite;
+    }
+
+    /**
+     * Read every record of every segment in sequence order. A torn record at the end of a segment is ignored.
+     */
+    List<Entry> readAll() {
+        List<Entry> entries = new ArrayList<>();
+        for (Path segment : segments()) {
+            try {
+                ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(segment));
+                while (buffer.remaining() >= RECORD_SIZE) {
+                    entries.add(new Entry(buffer.getLong(), buffer.getLong(), buffer.getInt()));
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException("Failed to read stock journal " + segment, e);
+            }
+        }
+        return entries;
+    }
+
+    void append(List<Entry> entries) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(entries.size() * RECORD_SIZE);
+        for (Entry entry : entries) {
+            buffer.putLong(entry.seq()).putLong(entry.variantId()).putInt(entry.delta());
+        }
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        if (syncEachWrite) {
+            channel.force(false);
+        }
+    }
+
+    /**
+     * Close the current segment and start a new one whose first record will have the given sequence.
+     */
+    void roll(long nextSeq) {
+        try {
+            if (channel != null) {
+                channel.force(false);
+                channel.close();
+            }
+            Files.createDirectories(dir);
+            current = dir.resolve(PREFIX + String.format("%020d", nextSeq) + SUFFIX);
+            channel = FileChannel.open(current, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to open stock journal segment", e);
+        }
+    }
+
+    /**
+     * Delete every segment except the one currently written to.
+     */
+    void deleteClosedSegments() {
+        for (Path segment : segments()) {
+            if (!segment.equals(current)) {
+                try {
+                    Files.deleteIfExists(segment);
+                } catch (IOException e) {
+                    throw new UncheckedIOException("Failed to delete stock journal " + segment, e);
+                }
+            }
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (channel != null) {
+            channel.force(false);
+            channel.close();
+            channel = null;
+        }
+    }
+
+    private List<Path> segments() {
+        if (!Files.isDirectory(dir)) {
+            return List.of();
+        }
+        try (Stream<Path> files = Files.list(dir)) {
+            // Zero padded sequence in the name, so name order is sequence order
+            return files.filter(path -> path.getFileName().toString().startsWith(PREFIX)
+                            && path.getFileName().toString().endsWith(SUFFIX))
+                    .sorted()
+                    .toList();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to list stock journal " + dir, e);
+        }
+    }
+}
@@ -0,0 +1,326 @@
+package com.lwa.shop.lwa_product_service.service;
+
+import com.lwa.shop.lwa_product_service.entity.Variant;
+import com.lwa.shop.lwa_product_service.exception.CustomException;
+import com.lwa.shop.lwa_product_service.exception.InsufficientStockException;
+import com.lwa.shop.lwa_product_service.exception.ReservationStateException;
+import com.lwa.shop.lwa_product_service.repository.VariantRepository;
+import io.micrometer.core.instrument.Metrics;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.BeanUtils;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * In-memory stock counters with group-commit write-behind, enabled with {@code product.stock.ledger.enabled}.
+ * <p>
+ * Reservations are a compare-and-set on a per-variant counter followed by one append to the {@link StockJournal},
+ * no database round trip. Every {@code flush-interval-ms} the accumulated deltas are written to the
+ * {@code variant} table in one JDBC batch, together with the last applied journal sequence in
+ * {@code stock_ledger_checkpoint}. On startup journal records newer than the checkpoint are replayed,
+ * so a crash neither loses nor double-applies a change.
+ * <p>
+ * The ledger must be the only writer of variant stock: run a single product-service instance with it enabled,
+ * and do not combine it with hot variant shards.
+ */
+@Slf4j
+@Service
+public class StockLedger {
+
+    private final VariantRepository variantRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final CatalogReadModel catalogReadModel;
+
+    @Value("${product.stock.ledger.enabled:false}")
+    private boolean enabled;
+
+    @Value("${product.stock.ledger.journal-dir:./stock-journal}")
+    private String journalDir;
+
+    @Value("${product.stock.ledger.sync-each-write:false}")
+    private boolean syncEachWrite;
+
+    private final Map<Long, Counter> counters = new ConcurrentHashMap<>();
+
+    // Guards journal appends, the sequence and the pending deltas so a flush sees a consistent cut
+    private final Object journalLock = new Object();
+    private final Object flushLock = new Object();
+    private Map<Long, Integer> pending = new HashMap<>();
+    private long lastSeq;
+    private StockJournal journal;
+
+    public StockLedger(VariantRepository variantRepository, JdbcTemplate jdbcTemplate,
+                       PlatformTransactionManager transactionManager, CatalogReadModel catalogReadModel) {
+        this.variantRepository = variantRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.catalogReadModel = catalogReadModel;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        // A flush commits on its own, even when triggered from inside a request transaction
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    @PostConstruct
+    public void start() {
+        if (!enabled) {
+            return;
+        }
+        jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS stock_ledger_checkpoint (id INT PRIMARY KEY, last_seq BIGINT NOT NULL)");
+        Long checkpoint = jdbcTemplate.query("SELECT last_seq FROM stock_ledger_checkpoint WHERE id = 1",
+                rs -> rs.next() ? rs.getLong(1) : null);
+        if (checkpoint == null) {
+            jdbcTemplate.update("INSERT INTO stock_ledger_checkpoint (id, last_seq) VALUES (1, 0)");
+            checkpoint = 0L;
+        }
+
+        journal = new StockJournal(Path.of(journalDir), syncEachWrite);
+        Map<Long, Integer> replay = new HashMap<>();
+        lastSeq = checkpoint;
+        for (StockJournal.Entry entry : journal.readAll()) {
+            if (entry.seq() > checkpoint) {
+                replay.merge(entry.variantId(), entry.delta(), Integer::sum);
+            }
+            lastSeq = Math.max(lastSeq, entry.seq());
+        }
+        if (lastSeq > checkpoint) {
+            long upTo = lastSeq;
+            transactionTemplate.executeWithoutResult(status -> apply(replay, upTo));
+            log.info("Replayed stock journal from seq {} to {} for {} variants", checkpoint + 1, upTo, replay.size());
+        }
+        journal.roll(lastSeq + 1);
+        journal.deleteClosedSegments();
+        log.info("Stock ledger started at seq {}", lastSeq);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public Variant reduce(Long variantId, int quantity) {
+        return reserve(Map.of(variantId, quantity)).get(0);
+    }
+
+    /**
+     * Take stock for every variant or for none of them.
+     *
+     * @param quantities quantity per variant id
+     * @return the variants with their new stock, in the iteration order of the map
+     */
+    public List<Variant> reserve(Map<Long, Integer> quantities) {
+        List<Counter> taken = new ArrayList<>(quantities.size());
+        for (Map.Entry<Long, Integer> entry : quantities.entrySet()) {
+            Counter counter = counter(entry.getKey());
+            if (!counter.take(entry.getValue())) {
+                giveBack(taken, quantities);
+                log.warn("Failed to reserve stock: variantId={}, quantity={}", entry.getKey(), entry.getValue());
+                Metrics.counter("product.stock.rejections", "operation", "ledger").increment();
+                throw new InsufficientStockException("Insufficient stock for variant id: " + entry.getKey());
+            }
+            taken.add(counter);
+        }
+
+        Map<Long, Integer> deltas = new HashMap<>();
+        quantities.forEach((id, quantity) -> deltas.put(id, -quantity));
+        try {
+            record(deltas);
+        } catch (RuntimeException e) {
+            giveBack(taken, quantities);
+            throw e;
+        }
+        return taken.stream().map(Counter::view).toList();
+    }
+
+    public Variant increase(Long variantId, int quantity) {
+        Counter counter = counter(variantId);
+        counter.available.addAndGet(quantity);
+        try {
+            record(Map.of(variantId, quantity));
+        } catch (RuntimeException e) {
+            counter.available.addAndGet(-quantity);
+            throw e;
+        }
+        return counter.view();
+    }
+
+    /**
+     * Take over a variant saved with an absolute stock, once its transaction has committed. The counter is set to
+     * the new stock, journaled as the difference so it is written behind like any other change, and answers with
+     * the saved price and attributes from now on. A reservation taken while the variant was saved is overwritten.
+     *
+     * @param variant the saved variant, its stock column left as it was
+     * @param stock   the new stock, or null to keep the current one
+     */
+    public void replace(Variant variant, Integer stock) {
+        if (!enabled) {
+            return;
+        }
+        Long variantId = variant.getId();
+        Counter counter = counter(variantId);
+        // Same counter value, new snapshot: a take on the old record still counts
+        counters.put(variantId, new Counter(counter.available(), variant));
+        if (stock == null) {
+            return;
+        }
+        int previous = counter.available().getAndSet(stock);
+        try {
+            record(Map.of(variantId, stock - previous));
+        } catch (RuntimeException e) {
+            counter.available().addAndGet(previous - stock);
+            throw e;
+        }
+    }
+
+    /**
+     * Write pending changes and drop the counter, used before the variant row is deleted.
+     */
+    public void evict(Long variantId) {
+        if (!enabled) {
+            return;
+        }
+        flush();
+        counters.remove(variantId);
+    }
+
+    @Scheduled(fixedDelayString = "${product.stock.ledger.flush-interval-ms:10}")
+    public void flush() {
+        if (!enabled) {
+            return;
+        }
+        synchronized (flushLock) {
+            Map<Long, Integer> batch;
+            long upTo;
+            synchronized (journalLock) {
+                if (pending.isEmpty()) {
+                    return;
+                }
+                batch = pending;
+                upTo = lastSeq;
+                pending = new HashMap<>();
+                try {
+                    journal.roll(upTo + 1);
+                } catch (RuntimeException e) {
+                    pending = batch;
+                    log.error("Failed to roll stock journal", e);
+                    return;
+                }
+            }
+
+            try {
+                transactionTemplate.executeWithoutResult(status -> apply(batch, upTo));
+                journal.deleteClosedSegments();
+                catalogReadModel.variantsChanged(batch.keySet());
+                log.debug("Flushed stock of {} variants up to seq {}", batch.size(), upTo);
+            } catch (RuntimeException e) {
+                // Keep the segments and put the deltas back, the next flush retries them
+                log.error("Failed to flush stock ledger up to seq {}", upTo, e);
+                synchronized (journalLock) {
+                    batch.forEach((id, delta) -> pending.merge(id, delta, Integer::sum));
+                }
+            }
+        }
+    }
+
+    @PreDestroy
+    public void stop() throws IOException {
+        if (!enabled) {
+            return;
+        }
+        flush();
+        synchronized (journalLock) {
+            journal.close();
+        }
+    }
+
+    private void record(Map<Long, Integer> deltas) {
+        synchronized (journalLock) {
+            List<StockJournal.Entry> entries = new ArrayList<>(deltas.size());
+            long seq = lastSeq;
+            for (Map.Entry<Long, Integer> delta : deltas.entrySet()) {
+                entries.add(new StockJournal.Entry(++seq, delta.getKey(), delta.getValue()));
+            }
+            try {
+                journal.append(entries);
+            } catch (IOException e) {
+                throw new RuntimeException("Failed to write stock journal", e);
+            }
+            lastSeq = seq;
+            deltas.forEach((id, delta) -> pending.merge(id, delta, Integer::sum));
+        }
+    }
+
+    private void giveBack(List<Counter> taken, Map<Long, Integer> quantities) {
+        taken.forEach(counter -> counter.available().addAndGet(quantities.get(counter.snapshot().getId())));
+    }
+
+    private void apply(Map<Long, Integer> deltas, long upTo) {
+        List<Object[]> args = new ArrayList<>(deltas.size());
+        deltas.forEach((id, delta) -> {
+            if (delta != 0) {
+                args.add(new Object[]{delta, id});
+            }
+        });
+        jdbcTemplate.batchUpdate("UPDATE variant SET stock = stock + ? WHERE id = ?", args);
+        jdbcTemplate.update("UPDATE stock_ledger_checkpoint SET last_seq = ? WHERE id = 1", upTo);
+    }
+
+    private Counter counter(Long variantId) {
+        Counter existing = counters.get(variantId);
+        if (existing != null) {
+            return existing;
+        }
+        return counters.computeIfAbsent(variantId, id -> {
+            synchronized (flushLock) {
+                return load(id);
+            }
+        });
+    }
+
+    private Counter load(Long id) {
+        Variant variant = variantRepository.findById(id)
+                .orElseThrow(() -> new CustomException("Variant not found: " + id));
+        if (variant.getStockShards() != null && variant.getStockShards() > 0) {
+            throw new ReservationStateException("Hot variant " + id + " cannot be served by the stock ledger");
+        }
+        // Called under the flush lock, so the row plus the unflushed deltas is the exact stock
+        synchronized (journalLock) {
+            return new Counter(new AtomicInteger(variant.getRowStock() + pending.getOrDefault(id, 0)), variant);
+        }
+    }
+
+    private record Counter(AtomicInteger available, Variant snapshot) {
+
+        boolean take(int quantity) {
+            int current;
+            do {
+                current = available.get();
+                if (current < quantity) {
+                    return false;
+                }
+            } while (!available.compareAndSet(current, current - quantity));
+            return true;
+        }
+
+        Variant view() {
+            Variant variant = new Variant();
+            BeanUtils.copyProperties(snapshot, variant);
+            variant.setStock(available.get());
+            return variant;
+        }
+    }
+}
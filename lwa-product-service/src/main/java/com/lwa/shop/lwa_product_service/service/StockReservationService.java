@@ -0,0 +1,126 @@
+package com.lwa.shop.lwa_product_service.service;
+
+import com.lwa.shop.lwa_product_service.entity.StockReservation;
+import com.lwa.shop.lwa_product_service.entity.StockReservationLine;
+import com.lwa.shop.lwa_product_service.entity.Variant;
+import com.lwa.shop.lwa_product_service.exception.ReservationStateException;
+import com.lwa.shop.lwa_product_service.model.request.ReserveStockItem;
+import com.lwa.shop.lwa_product_service.repository.StockReservationRepository;
+import com.lwa.shop.lwa_product_service.repository.VariantRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Idempotent reserve and release commands sent by Order Service.
+ * The reservation row is written in the same transaction as the stock change, so a replayed command either finds
+ * the finished reservation or redoes the whole thing. With the stock ledger the stock change is not part of the
+ * transaction; {@link VariantService#reserveStock} gives it back when the transaction does not commit.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class StockReservationService {
+
+    static final String RESERVED = "RESERVED";
+    static final String RELEASED = "RELEASED";
+
+    private final StockReservationRepository stockReservationRepository;
+    private final VariantRepository variantRepository;
+    private final VariantService variantService;
+
+    @Value("${product.reservation.retention-seconds:3600}")
+    private long retentionSeconds;
+
+    /**
+     * Reserve stock for an order. Without a reservation id this is a plain {@link VariantService#reserveStock}.
+     *
+     * @param reservationId id chosen by the caller, the same id always maps to the same reservation
+     * @param items         the order lines to reserve
+     * @return the reserved variants, ordered by id
+     */
+    @Transactional
+    public List<Variant> reserve(String reservationId, List<ReserveStockItem> items) {
+        if (reservationId == null || reservationId.isBlank()) {
+            return variantService.reserveStock(items);
+        }
+
+        StockReservation existing = stockReservationRepository.findByReservationId(reservationId).orElse(null);
+        if (existing != null) {
+            if (RELEASED.equals(existing.getStatus())) {
+                throw new ReservationStateException("Reservation " + reservationId + " was already released");
+            }
+            log.info("Reservation {} already exists, returning it", reservationId);
+            List<Long> ids = existing.getLines().stream().map(StockReservationLine::getVariantId).toList();
+            return variantRepository.findAllById(ids);
+        }
+
+        List<Variant> variants = variantService.reserveStock(items);
+
+        Map<Long, Integer> quantities = new TreeMap<>();
+        items.forEach(item -> quantities.merge(item.getVariantId(), item.getQuantity(), Integer::sum));
+        StockReservation reservation = new StockReservation();
+        reservation.setReservationId(reservationId);
+        reservation.setStatus(RESERVED);
+        quantities.forEach((variantId, quantity) -> reservation.getLines().add(new StockReservationLine(variantId, quantity)));
+        // Flushed here so a concurrent reserve of the same id fails now, and its stock is given back
+        stockReservationRepository.saveAndFlush(reservation);
+
+        log.info("Reserved stock for reservation {} with {} variants", reservationId, quantities.size());
+        return variants;
+    }
+
+    /**
+     * Give back the stock of a reservation. Releasing twice, or releasing an unknown reservation, is a no-op;
+     * the unknown one is recorded as released so a late reserve with the same id is refused.
+     */
+    @Transactional
+    public void release(String reservationId) {
+        StockReservation reservation = stockReservationRepository.findByReservationId(reservationId).orElse(null);
+        if (reservation == null) {
+            StockReservation tombstone = new StockReservation();
+            tombstone.setReservationId(reservationId);
+            tombstone.setStatus(RELEASED);
+            stockReservationRepository.save(tombstone);
+            log.info("Released unknown reservation {}, recorded it as released", reservationId);
+            return;
+        }
+        if (RELEASED.equals(reservation.getStatus())) {
+            log.info("Reservation {} was already released", reservationId);
+            return;
+        }
+
+        for (StockReservationLine line : reservation.getLines()) {
+            if (variantRepository.existsById(line.getVariantId())) {
+                variantService.increaseStock(line.getVariantId(), line.getQuantity());
+            } else {
+                log.warn("Variant {} of reservation {} no longer exists, skipping", line.getVariantId(), reservationId);
+            }
+        }
+        reservation.setStatus(RELEASED);
+        log.info("Released reservation {}", reservationId);
+    }
+
+    /**
+     * Delete released reservations after {@code product.reservation.retention-seconds}. A reserve for the same id
+     * arriving later would be applied again, so the retention must outlast the retries of Order Service.
+     */
+    @Scheduled(fixedDelayString = "${product.reservation.prune-interval-ms:600000}")
+    @Transactional
+    public void pruneReleased() {
+        Date before = new Date(System.currentTimeMillis() - retentionSeconds * 1000);
+        stockReservationRepository.deleteReleasedLinesBefore(before);
+        int deleted = stockReservationRepository.deleteReleasedBefore(before);
+        if (deleted > 0) {
+            log.info("Deleted {} released reservations older than {}", deleted, before);
+        }
+    }
+}
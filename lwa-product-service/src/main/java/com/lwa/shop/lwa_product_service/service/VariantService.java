@@ -1,19 +1,39 @@
 package com.lwa.shop.lwa_product_service.service;
 
 
+import com.lwa.shop.lwa_product_service.entity.BaseEntity;
 import com.lwa.shop.lwa_product_service.entity.Item;
 import com.lwa.shop.lwa_product_service.entity.Variant;
 import com.lwa.shop.lwa_product_service.exception.CustomException;
+import com.lwa.shop.lwa_product_service.exception.InsufficientStockException;
+import com.lwa.shop.lwa_product_service.exception.InvalidRequestException;
+import com.lwa.shop.lwa_product_service.exception.ReservationStateException;
+import com.lwa.shop.lwa_product_service.model.request.ReserveStockItem;
 import com.lwa.shop.lwa_product_service.model.request.SaveVariant;
+import com.lwa.shop.lwa_product_service.model.response.PageResponse;
+import com.lwa.shop.lwa_product_service.model.response.VariantBatch;
+import com.lwa.shop.lwa_product_service.model.response.VariantResponse;
 import com.lwa.shop.lwa_product_service.repository.ItemRepository;
 import com.lwa.shop.lwa_product_service.repository.VariantRepository;
 import com.lwa.shop.lwa_product_service.util.JsonUtil;
+import io.micrometer.core.instrument.Metrics;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Slf4j
 @Service
@@ -22,10 +42,33 @@ public class VariantService {
 
     private final VariantRepository variantRepository;
     private final ItemRepository itemRepository;
+    private final OrderCacheNotifier orderCacheNotifier;
+    private final VariantStockShardService variantStockShardService;
+    private final StockLedger stockLedger;
+    private final CatalogReadModel catalogReadModel;
+
+    @Value("${product.variant.batch.max-size:100}")
+    private int maxBatchSize;
 
     public List<Variant> getAllVariants() {
         log.info("Fetching all variants");
-        return variantRepository.findAll();
+        return catalogReadModel.variants();
+    }
+
+    /**
+     * Get one page of variants as DTOs, projected in a single select plus a count.
+     *
+     * @param page zero-based page number
+     * @param size page size, at most 100
+     * @return the page of variants
+     */
+    @Transactional(readOnly = true)
+    public PageResponse<VariantResponse> getVariantPage(int page, int size) {
+        int pageSize = Math.max(1, Math.min(size, ItemService.MAX_PAGE_SIZE));
+        Page<VariantResponse> variants = variantRepository.findResponsePage(PageRequest.of(Math.max(page, 0), pageSize));
+        log.info("Fetched variant page {} with {} variants", variants.getNumber(), variants.getNumberOfElements());
+        return new PageResponse<>(variants.getContent(), variants.getNumber(), pageSize,
+                variants.getTotalElements(), variants.getTotalPages());
     }
 
     public Variant getVariant(Long id) {
@@ -34,6 +77,44 @@ public class VariantService {
                 .orElseThrow(() -> new CustomException("Variant not found with id " + id));
     }
 
+    /**
+     * Fetch several variants with a single IN query.
+     * Duplicate ids are collapsed, the requested order is preserved and unknown ids are reported back.
+     *
+     * @param ids the variant ids, at most {@code product.variant.batch.max-size}
+     * @return the found variants and the ids that were not found
+     */
+    public VariantBatch getVariants(List<Long> ids) {
+        List<Long> requested = ids == null ? List.of() : ids.stream()
+                .filter(Objects::nonNull)
+                .distinct()
+                .collect(Collectors.toList());
+
+        if (requested.isEmpty()) {
+            throw new InvalidRequestException("No variant ids requested");
+        }
+        if (requested.size() > maxBatchSize) {
+            throw new InvalidRequestException("Too many variant ids requested: " + requested.size() + ", max is " + maxBatchSize);
+        }
+
+        log.info("Fetching {} variants by id", requested.size());
+        Map<Long, Variant> found = variantRepository.findAllById(requested).stream()
+                .collect(Collectors.toMap(BaseEntity::getId, Function.identity()));
+
+        List<Variant> variants = new ArrayList<>(requested.size());
+        List<Long> missingIds = new ArrayList<>();
+        for (Long id : requested) {
+            Variant variant = found.get(id);
+            if (variant != null) {
+                variants.add(variant);
+            } else {
+                missingIds.add(id);
+            }
+        }
+        return new VariantBatch(variants, missingIds);
+    }
+
+    @Transactional
     public Variant saveVariant(SaveVariant data, Long id) {
         try {
             Item savedItem = itemRepository.findById(data.getItemId())
@@ -43,11 +124,27 @@ public class VariantService {
             variant.setColor(data.getColor());
             variant.setSize(data.getSize());
             variant.setPrice(data.getPrice());
-            variant.setStock(data.getStock());
+            // The stock of a hot variant lives in its shards, the row keeps 0 so it is never counted twice
+            boolean hot = variant.getStockShards() != null && variant.getStockShards() > 0;
+            // With the ledger on, the stock of a stored variant goes through the ledger after commit. The row update
+            // leaves the column alone, so it cannot overwrite a flush or be overtaken by a counter loaded meanwhile
+            boolean viaLedger = stockLedger.isEnabled() && variant.getId() != null;
+            if (!viaLedger) {
+                variant.setStock(hot ? 0 : data.getStock());
+            }
             variant.setItem(savedItem); // link parent
 
             Variant savedVariant = variantRepository.save(variant);
-            log.info("Saved variant: {}", JsonUtil.toJson(savedVariant));
+            if (hot) {
+                variantStockShardService.resetStock(savedVariant.getId(), data.getStock());
+            }
+            if (viaLedger) {
+                replaceInLedgerAfterCommit(savedVariant, data.getStock());
+            }
+            log.info("Saved variant with id: {}", savedVariant.getId());
+            log.debug("Saved variant: {}", JsonUtil.lazy(savedVariant));
+            orderCacheNotifier.variantChanged(savedVariant.getId());
+            catalogReadModel.variantChanged(savedVariant.getId());
             return savedVariant;
         } catch (Exception e) {
             log.error("Error saving variant: {}", data, e);
@@ -57,12 +154,15 @@ public class VariantService {
 
     @Transactional
     public Variant reduceStock(Long variantId, int quantity) {
-        int updated = variantRepository.reduceStock(variantId, quantity);
-
-        if (updated == 0) {
+        if (stockLedger.isEnabled()) {
+            return stockLedger.reduce(variantId, quantity);
+        }
+        if (!takeStock(variantId, quantity)) {
             log.warn("Failed to reduce stock: variantId={}, quantity={}", variantId, quantity);
-            throw new RuntimeException("Insufficient stock for variant id: " + variantId);
+            Metrics.counter("product.stock.rejections", "operation", "reduce").increment();
+            throw new InsufficientStockException("Insufficient stock for variant id: " + variantId);
         }
+        catalogReadModel.variantChanged(variantId);
 
         Variant variant = variantRepository.findById(variantId)
                 .orElseThrow(() -> new RuntimeException("Variant not found: " + variantId));
@@ -73,12 +173,16 @@ public class VariantService {
 
     @Transactional
     public Variant increaseStock(Long variantId, int quantity) {
+        if (stockLedger.isEnabled()) {
+            return stockLedger.increase(variantId, quantity);
+        }
         int updated = variantRepository.increaseStock(variantId, quantity);
 
-        if (updated == 0) {
+        if (updated == 0 && !variantStockShardService.increase(variantId, quantity)) {
             log.warn("Failed to increase stock: variantId={}, quantity={}", variantId, quantity);
             throw new RuntimeException("Variant not found: " + variantId);
         }
+        catalogReadModel.variantChanged(variantId);
 
         Variant variant = variantRepository.findById(variantId)
                 .orElseThrow(() -> new RuntimeException("Variant not found: " + variantId));
@@ -87,6 +191,109 @@ public class VariantService {
         return variant;
     }
 
+    /**
+     * Reserve stock for every line of an order in a single transaction.
+     * Lines for the same variant are merged and rows are updated in ascending id order,
+     * so concurrent baskets always lock variants in the same sequence and cannot deadlock.
+     * If any line cannot be satisfied the whole reservation is rolled back.
+     *
+     * @param items the order lines to reserve
+     * @return the reserved variants, ordered by id
+     */
+    @Transactional
+    public List<Variant> reserveStock(List<ReserveStockItem> items) {
+        if (items == null || items.isEmpty()) {
+            throw new InvalidRequestException("No items to reserve");
+        }
+
+        Map<Long, Integer> quantities = new TreeMap<>();
+        for (ReserveStockItem item : items) {
+            if (item.getVariantId() == null || item.getQuantity() == null || item.getQuantity() <= 0) {
+                throw new InvalidRequestException("Invalid reservation line: " + item);
+            }
+            quantities.merge(item.getVariantId(), item.getQuantity(), Integer::sum);
+        }
+
+        if (stockLedger.isEnabled()) {
+            List<Variant> reserved = stockLedger.reserve(quantities);
+            giveBackOnRollback(quantities);
+            return reserved;
+        }
+
+        for (Map.Entry<Long, Integer> entry : quantities.entrySet()) {
+            if (!takeStock(entry.getKey(), entry.getValue())) {
+                log.warn("Failed to reserve stock: variantId={}, quantity={}", entry.getKey(), entry.getValue());
+                Metrics.counter("product.stock.rejections", "operation", "reserve").increment();
+                throw new InsufficientStockException("Insufficient stock for variant id: " + entry.getKey());
+            }
+        }
+
+        catalogReadModel.variantsChanged(quantities.keySet());
+
+        List<Variant> variants = variantRepository.findAllById(quantities.keySet());
+        log.info("Reserved stock for {} variants", variants.size());
+        return variants;
+    }
+
+    // The ledger is not part of the transaction, undo its change if the caller's transaction does not commit
+    private void giveBackOnRollback(Map<Long, Integer> quantities) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status != STATUS_COMMITTED) {
+                    log.warn("Reservation transaction did not commit, giving back stock of {} variants", quantities.size());
+                    quantities.forEach(stockLedger::increase);
+                }
+            }
+        });
+    }
+
+    private void replaceInLedgerAfterCommit(Variant variant, Integer stock) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            stockLedger.replace(variant, stock);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                stockLedger.replace(variant, stock);
+            }
+        });
+    }
+
+    /**
+     * Flag a variant as hot, its stock is split over the given number of shards.
+     */
+    @Transactional
+    public Variant enableHotStock(Long id, int shards) {
+        if (stockLedger.isEnabled()) {
+            throw new ReservationStateException("Hot variants are not supported while the stock ledger is enabled");
+        }
+        variantStockShardService.enable(id, shards);
+        orderCacheNotifier.variantChanged(id);
+        catalogReadModel.variantChanged(id);
+        return variantRepository.findById(id)
+                .orElseThrow(() -> new RuntimeException("Variant not found: " + id));
+    }
+
+    @Transactional
+    public Variant disableHotStock(Long id) {
+        variantStockShardService.disable(id);
+        orderCacheNotifier.variantChanged(id);
+        catalogReadModel.variantChanged(id);
+        return variantRepository.findById(id)
+                .orElseThrow(() -> new RuntimeException("Variant not found: " + id));
+    }
+
+    // Normal variants are reduced on their own row, hot variants fall back to their shards
+    private boolean takeStock(Long variantId, int quantity) {
+        return variantRepository.reduceStock(variantId, quantity) == 1
+                || variantStockShardService.reduce(variantId, quantity);
+    }
+
     @Transactional
     public void deleteVariant(Long id) {
         log.info("Deleting variant with id {}", id);
@@ -102,7 +309,11 @@ public class VariantService {
         }
 
         // Explicit delete
+        stockLedger.evict(id);
+        variantStockShardService.deleteShards(id);
         variantRepository.delete(variant);
+        orderCacheNotifier.variantChanged(id);
+        catalogReadModel.variantChanged(id);
     }
 
 
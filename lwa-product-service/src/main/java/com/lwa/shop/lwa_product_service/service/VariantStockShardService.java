@@ -0,0 +1,161 @@
+package com.lwa.shop.lwa_product_service.service;
+
+import com.lwa.shop.lwa_product_service.entity.Variant;
+import com.lwa.shop.lwa_product_service.entity.VariantStockShard;
+import com.lwa.shop.lwa_product_service.exception.CustomException;
+import com.lwa.shop.lwa_product_service.exception.InvalidRequestException;
+import com.lwa.shop.lwa_product_service.repository.VariantRepository;
+import com.lwa.shop.lwa_product_service.repository.VariantStockShardRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Sharded stock for hot variants.
+ * The stock of a hot variant is split over N counter rows. A reservation picks a random shard
+ * and runs the same conditional update as a normal variant, so concurrent orders mostly hit different rows.
+ * When no single shard can cover a reservation, all shards are locked in shard order, drained and evened out.
+ * Every change is either a conditional update or happens under those locks,
+ * so the total stays exact and no shard ever goes below zero.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class VariantStockShardService {
+
+    static final int MAX_SHARDS = 64;
+
+    private final VariantRepository variantRepository;
+    private final VariantStockShardRepository shardRepository;
+
+    /**
+     * Take stock from a hot variant.
+     *
+     * @return false when the variant is not hot or does not have enough stock left
+     */
+    @Transactional
+    public boolean reduce(Long variantId, int quantity) {
+        int shards = shardCount(variantId);
+        if (shards == 0) {
+            return false;
+        }
+
+        int start = ThreadLocalRandom.current().nextInt(shards);
+        for (int i = 0; i < shards; i++) {
+            if (shardRepository.reduceShard(variantId, (start + i) % shards, quantity) == 1) {
+                return true;
+            }
+        }
+
+        // No single shard can cover the quantity, drain across all of them
+        List<VariantStockShard> locked = shardRepository.lockAllByVariantId(variantId);
+        int total = locked.stream().mapToInt(VariantStockShard::getStock).sum();
+        if (total < quantity) {
+            log.warn("Insufficient sharded stock: variantId={}, quantity={}, total={}", variantId, quantity, total);
+            return false;
+        }
+        spread(locked, total - quantity);
+        log.info("Rebalanced {} shards of variant {} after draining {}", locked.size(), variantId, quantity);
+        return true;
+    }
+
+    /**
+     * Put stock back into a random shard of a hot variant.
+     *
+     * @return false when the variant is not hot
+     */
+    @Transactional
+    public boolean increase(Long variantId, int quantity) {
+        int shards = shardCount(variantId);
+        if (shards == 0) {
+            return false;
+        }
+        return shardRepository.increaseShard(variantId, ThreadLocalRandom.current().nextInt(shards), quantity) == 1;
+    }
+
+    /**
+     * Flag a variant as hot and split its stock over the given number of shards.
+     * Calling it again on a hot variant changes the shard count and keeps the total.
+     */
+    @Transactional
+    public void enable(Long variantId, int shards) {
+        if (shards < 1 || shards > MAX_SHARDS) {
+            throw new InvalidRequestException("Shard count must be between 1 and " + MAX_SHARDS);
+        }
+        Variant variant = lockVariant(variantId);
+        int total = variant.getRowStock() + drainShards(variantId);
+
+        List<VariantStockShard> created = new ArrayList<>(shards);
+        for (int i = 0; i < shards; i++) {
+            VariantStockShard shard = new VariantStockShard();
+            shard.setVariantId(variantId);
+            shard.setShardNo(i);
+            created.add(shard);
+        }
+        spread(created, total);
+        shardRepository.saveAll(created);
+
+        variant.setStock(0);
+        variant.setStockShards(shards);
+        log.info("Variant {} is hot: {} stock over {} shards", variantId, total, shards);
+    }
+
+    /**
+     * Fold the shards back into the variant row.
+     */
+    @Transactional
+    public void disable(Long variantId) {
+        Variant variant = lockVariant(variantId);
+        int total = variant.getRowStock() + drainShards(variantId);
+        variant.setStock(total);
+        variant.setStockShards(null);
+        log.info("Variant {} is no longer hot, stock {}", variantId, total);
+    }
+
+    /**
+     * Replace the stock of a hot variant, used when the variant is saved with an absolute stock value.
+     */
+    @Transactional
+    public void resetStock(Long variantId, int stock) {
+        Variant variant = lockVariant(variantId);
+        List<VariantStockShard> locked = shardRepository.lockAllByVariantId(variantId);
+        spread(locked, stock);
+        variant.setStock(0);
+    }
+
+    @Transactional
+    public void deleteShards(Long variantId) {
+        shardRepository.deleteByVariantId(variantId);
+    }
+
+    private int shardCount(Long variantId) {
+        Integer shards = variantRepository.findStockShardsById(variantId);
+        return shards == null ? 0 : shards;
+    }
+
+    private Variant lockVariant(Long variantId) {
+        return variantRepository.lockById(variantId)
+                .orElseThrow(() -> new CustomException("Variant not found with id " + variantId));
+    }
+
+    private int drainShards(Long variantId) {
+        int total = shardRepository.lockAllByVariantId(variantId).stream()
+                .mapToInt(VariantStockShard::getStock)
+                .sum();
+        shardRepository.deleteByVariantId(variantId);
+        return total;
+    }
+
+    private void spread(List<VariantStockShard> shards, int total) {
+        int base = total / shards.size();
+        int rest = total % shards.size();
+        for (int i = 0; i < shards.size(); i++) {
+            shards.get(i).setStock(base + (i < rest ? 1 : 0));
+        }
+    }
+}
@@ -19,6 +19,16 @@ public class JsonUtil {
         }
     }
 
+    // Defer the conversion to when a log line is actually written, e.g. log.debug("Saved: {}", JsonUtil.lazy(obj))
+    public static Object lazy(Object obj) {
+        return new Object() {
+            @Override
+            public String toString() {
+                return toJson(obj);
+            }
+        };
+    }
+
     // Convert JSON string to POJO
     public static <T> T fromJson(String json, Class<T> clazz) {
         try {
@@ -0,0 +1,66 @@
+-- Schema as Hibernate created it with ddl-auto=update, the starting point of versioned migrations.
+-- IF NOT EXISTS adopts a database that update already created as it is.
+
+create sequence if not exists item_seq start with 1 increment by 50;
+create sequence if not exists variant_seq start with 1 increment by 50;
+create sequence if not exists stock_reservation_seq start with 1 increment by 50;
+create sequence if not exists variant_stock_shard_seq start with 1 increment by 50;
+
+create table if not exists item (
+    id bigint not null,
+    name varchar(255),
+    description varchar(255),
+    created_at timestamp(6),
+    updated_at timestamp(6),
+    created_by varchar(255),
+    updated_by varchar(255),
+    primary key (id)
+);
+
+create table if not exists variant (
+    id bigint not null,
+    item_id bigint,
+    color varchar(255),
+    size varchar(255),
+    price float(53),
+    stock integer,
+    stock_shards integer,
+    created_at timestamp(6),
+    updated_at timestamp(6),
+    created_by varchar(255),
+    updated_by varchar(255),
+    primary key (id),
+    constraint fk_variant_item foreign key (item_id) references item
+);
+
+create table if not exists variant_stock_shard (
+    id bigint not null,
+    variant_id bigint not null,
+    shard_no integer not null,
+    stock integer,
+    created_at timestamp(6),
+    updated_at timestamp(6),
+    created_by varchar(255),
+    updated_by varchar(255),
+    primary key (id),
+    constraint uk_variant_stock_shard unique (variant_id, shard_no)
+);
+
+create table if not exists stock_reservation (
+    id bigint not null,
+    reservation_id varchar(64) not null,
+    status varchar(255),
+    created_at timestamp(6),
+    updated_at timestamp(6),
+    created_by varchar(255),
+    updated_by varchar(255),
+    primary key (id),
+    constraint uk_stock_reservation_id unique (reservation_id)
+);
+
+create table if not exists stock_reservation_line (
+    reservation_id_fk bigint not null,
+    variant_id bigint,
+    quantity integer,
+    constraint fk_stock_reservation_line_reservation foreign key (reservation_id_fk) references stock_reservation
+);
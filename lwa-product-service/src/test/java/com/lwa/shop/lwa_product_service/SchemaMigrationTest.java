@@ -0,0 +1,42 @@
+package com.lwa.shop.lwa_product_service;
+
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import javax.sql.DataSource;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * The fast-start profile builds the schema from db/migration and Hibernate validates it, so the context only starts
+ * while the migrations match the entities.
+ */
+@DataJpaTest
+@ActiveProfiles("fast-start")
+class SchemaMigrationTest {
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void migrations_matchTheEntities() {
+        assertEquals("1", jdbcTemplate.queryForObject(
+                "SELECT MAX(\"version\") FROM \"product_schema_history\" WHERE \"success\"", String.class));
+    }
+
+    @Test
+    void migrations_adoptASchemaCreatedWithoutThem() {
+        // Same database, unknown to a second history: like one created by ddl-auto=update
+        Flyway flyway = Flyway.configure().dataSource(dataSource).table("adopted_schema_history")
+                .baselineOnMigrate(true).baselineVersion("0").load();
+
+        assertEquals(1, flyway.migrate().migrationsExecuted);
+    }
+}
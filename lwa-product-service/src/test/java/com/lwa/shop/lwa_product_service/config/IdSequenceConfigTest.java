@@ -0,0 +1,41 @@
+package com.lwa.shop.lwa_product_service.config;
+
+import com.lwa.shop.lwa_common.jdbc.IdSequenceAligner;
+import com.lwa.shop.lwa_product_service.entity.Item;
+import com.lwa.shop.lwa_product_service.repository.ItemRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest
+@Import(IdSequenceConfig.class)
+class IdSequenceConfigTest {
+
+    @Autowired
+    private IdSequenceAligner idSequenceAligner;
+
+    @Autowired
+    private ItemRepository itemRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void align_movesSequencePastExistingIds() {
+        // A row written while the id was still an IDENTITY column
+        jdbcTemplate.update("INSERT INTO item (id, name, description, created_at, updated_at) "
+                + "VALUES (500, 'Legacy', 'Legacy item', CURRENT_TIMESTAMP, CURRENT_TIMESTAMP)");
+
+        idSequenceAligner.align();
+
+        Item item = new Item();
+        item.setName("New");
+        item.setDescription("New item");
+        itemRepository.saveAndFlush(item);
+        assertTrue(item.getId() > 500);
+    }
+}
@@ -0,0 +1,41 @@
+package com.lwa.shop.lwa_product_service.config;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.lwa.shop.lwa_product_service.entity.Variant;
+import com.lwa.shop.lwa_product_service.util.JsonUtil;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.util.Date;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class WireFormatConfigTest {
+
+    @Test
+    void smileConverter_writesVariantWithoutAuditFields() throws Exception {
+        Variant variant = new Variant();
+        variant.setId(7L);
+        variant.setColor("Red");
+        variant.setStock(3);
+        variant.setCreatedAt(new Date());
+        variant.setCreatedBy("SYSTEM");
+
+        ObjectMapper smile = new WireFormatConfig().smileHttpMessageConverter(new Jackson2ObjectMapperBuilder())
+                .getObjectMapper();
+        byte[] bytes = smile.writeValueAsBytes(variant);
+        Map<String, Object> decoded = new ObjectMapper(new SmileFactory()).readValue(bytes, new TypeReference<>() {
+        });
+
+        assertEquals(7, decoded.get("id"));
+        assertEquals(3, decoded.get("stock"));
+        assertFalse(decoded.containsKey("createdAt"));
+        assertFalse(decoded.containsKey("createdBy"));
+        // JSON keeps them for external clients
+        assertTrue(JsonUtil.toJson(variant).contains("createdBy"));
+        assertTrue(bytes.length < JsonUtil.toJson(variant).length());
+    }
+}
@@ -0,0 +1,138 @@
+package com.lwa.shop.lwa_product_service.service;
+
+import com.lwa.shop.lwa_product_service.entity.Item;
+import com.lwa.shop.lwa_product_service.entity.Variant;
+import com.lwa.shop.lwa_product_service.model.response.ItemResponse;
+import com.lwa.shop.lwa_product_service.model.response.PageResponse;
+import com.lwa.shop.lwa_product_service.model.response.VariantResponse;
+import com.lwa.shop.lwa_product_service.repository.ItemRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Guards the catalog endpoints against N+1 regressions by counting the SQL statements each page needs.
+ */
+@DataJpaTest
+@Import({ItemService.class, VariantService.class, VariantStockShardService.class, StockLedger.class, CatalogReadModel.class})
+@TestPropertySource(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+class CatalogQueryCountTest {
+
+    @Autowired
+    private ItemService itemService;
+
+    @Autowired
+    private VariantService variantService;
+
+    @Autowired
+    private ItemRepository itemRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @MockitoBean
+    private OrderCacheNotifier orderCacheNotifier;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        // Items with very different variant counts, the query count must not depend on them
+        for (int variants : new int[]{0, 1, 3, 7, 12, 2}) {
+            itemRepository.save(item("Item-" + variants, variants));
+        }
+        entityManager.flush();
+        entityManager.clear();
+
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @Test
+    void itemPage_usesFixedNumberOfStatements() {
+        PageResponse<ItemResponse> first = itemService.getItemPage(0, 3);
+        long firstPageStatements = statistics.getPrepareStatementCount();
+
+        entityManager.clear();
+        statistics.clear();
+        PageResponse<ItemResponse> second = itemService.getItemPage(1, 3);
+        long secondPageStatements = statistics.getPrepareStatementCount();
+
+        assertEquals(3, first.getContent().size());
+        assertEquals(List.of(0, 1, 3), first.getContent().stream().map(i -> i.getVariants().size()).toList());
+        assertEquals(List.of(7, 12, 2), second.getContent().stream().map(i -> i.getVariants().size()).toList());
+        assertEquals(6, first.getTotalElements());
+        // id page + count + one fetch join
+        assertEquals(3, firstPageStatements);
+        assertEquals(3, secondPageStatements);
+    }
+
+    @Test
+    void variantPage_usesFixedNumberOfStatements() {
+        PageResponse<VariantResponse> page = variantService.getVariantPage(0, 10);
+
+        assertEquals(10, page.getContent().size());
+        assertEquals(25, page.getTotalElements());
+        assertNotNull(page.getContent().get(0).getItemId());
+        // projection + count
+        assertEquals(2, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void getAllItems_loadsVariantsInOneStatement() {
+        List<Item> items = itemService.getAllItems();
+
+        assertEquals(25, items.stream().mapToInt(i -> i.getVariants().size()).sum());
+        assertEquals(1, statistics.getPrepareStatementCount());
+
+        // Served from the catalog snapshot afterwards
+        assertEquals(25, variantService.getAllVariants().size());
+        assertEquals(6, itemService.getAllItems().size());
+        assertEquals(1, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void bulkInsert_isBatched() {
+        itemRepository.save(item("Bulk", 120));
+        entityManager.flush();
+
+        assertEquals(121, statistics.getEntityInsertCount());
+        // A few sequence calls (50 ids each) and one statement per table, instead of one statement per row
+        assertTrue(statistics.getPrepareStatementCount() <= 6, "statements: " + statistics.getPrepareStatementCount());
+        assertEquals(145, variantService.getVariantPage(0, 1).getTotalElements());
+    }
+
+    private Item item(String name, int variantCount) {
+        Item item = new Item();
+        item.setName(name);
+        item.setDescription(name + " description");
+        List<Variant> variants = new ArrayList<>();
+        for (int i = 0; i < variantCount; i++) {
+            Variant variant = new Variant();
+            variant.setColor("Color-" + i);
+            variant.setSize("M");
+            variant.setPrice(100.0 + i);
+            variant.setStock(10);
+            variant.setItem(item);
+            variants.add(variant);
+        }
+        item.setVariants(variants);
+        return item;
+    }
+}
@@ -0,0 +1,154 @@
+package com.lwa.shop.lwa_product_service.service;
+
+import com.lwa.shop.lwa_product_service.entity.Item;
+import com.lwa.shop.lwa_product_service.entity.Variant;
+import com.lwa.shop.lwa_product_service.repository.ItemRepository;
+import com.lwa.shop.lwa_product_service.repository.VariantRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class CatalogReadModelTest {
+
+    private ItemRepository itemRepository;
+    private VariantRepository variantRepository;
+    private CatalogReadModel catalogReadModel;
+
+    @BeforeEach
+    void setUp() {
+        itemRepository = mock(ItemRepository.class);
+        variantRepository = mock(VariantRepository.class);
+        catalogReadModel = new CatalogReadModel(itemRepository, variantRepository, mock(PlatformTransactionManager.class));
+
+        when(itemRepository.findAll()).thenReturn(List.of(
+                item(2L, "Jeans", variant(21L, 5)),
+                item(1L, "T-Shirt", variant(12L, 3), variant(11L, 10))));
+    }
+
+    @Test
+    void reads_loadTheCatalogOnce() {
+        assertEquals(List.of(1L, 2L), catalogReadModel.items().stream().map(Item::getId).toList());
+        assertEquals(List.of(11L, 12L, 21L), catalogReadModel.variants().stream().map(Variant::getId).toList());
+        assertEquals(List.of(11L, 12L), catalogReadModel.item(1L).orElseThrow()
+                .getVariants().stream().map(Variant::getId).toList());
+        assertTrue(catalogReadModel.item(3L).isEmpty());
+
+        verify(itemRepository, times(1)).findAll();
+    }
+
+    @Test
+    void refresh_reloadsOnlyTheChangedItems() {
+        Item jeans = catalogReadModel.item(2L).orElseThrow();
+        when(itemRepository.findAllWithVariantsByIdIn(Set.of(1L)))
+                .thenReturn(List.of(item(1L, "Shirt", variant(11L, 4), variant(12L, 3))));
+
+        catalogReadModel.itemChanged(1L);
+        catalogReadModel.refresh();
+
+        assertEquals("Shirt", catalogReadModel.item(1L).orElseThrow().getName());
+        assertEquals(4, catalogReadModel.variants().get(0).getStock());
+        assertSame(jeans, catalogReadModel.item(2L).orElseThrow());
+        verify(itemRepository, times(1)).findAll();
+    }
+
+    @Test
+    void refresh_followsMovedVariantsAndDeletedItems() {
+        catalogReadModel.items();
+        when(variantRepository.findItemIdsByIdIn(Set.of(12L))).thenReturn(List.of(2L));
+        when(itemRepository.findAllWithVariantsByIdIn(Set.of(1L, 2L)))
+                .thenReturn(List.of(item(2L, "Jeans", variant(12L, 3), variant(21L, 5))));
+
+        catalogReadModel.variantChanged(12L);
+        catalogReadModel.refresh();
+
+        // Item 1 lost its last reload, so it no longer exists
+        assertTrue(catalogReadModel.item(1L).isEmpty());
+        assertEquals(List.of(12L, 21L), catalogReadModel.item(2L).orElseThrow()
+                .getVariants().stream().map(Variant::getId).toList());
+        assertEquals(2L, catalogReadModel.variants().get(0).getItem().getId());
+    }
+
+    @Test
+    void version_movesOnWithEveryAppliedChange() {
+        long initial = catalogReadModel.version();
+        catalogReadModel.refresh();
+        assertEquals(initial, catalogReadModel.version());
+
+        // Before the first read nothing is reloaded, but cached pages still have to be rebuilt
+        catalogReadModel.variantChanged(11L);
+        catalogReadModel.refresh();
+        assertEquals(initial + 1, catalogReadModel.version());
+        verifyNoInteractions(itemRepository, variantRepository);
+
+        catalogReadModel.items();
+        when(itemRepository.findAllWithVariantsByIdIn(Set.of(2L))).thenReturn(List.of());
+        catalogReadModel.itemChanged(2L);
+        catalogReadModel.refresh();
+        assertEquals(initial + 2, catalogReadModel.version());
+    }
+
+    @Test
+    void changesInsideATransaction_applyAfterCommit() {
+        catalogReadModel.items();
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            catalogReadModel.itemChanged(1L);
+            catalogReadModel.refresh();
+            verify(itemRepository, never()).findAllWithVariantsByIdIn(any());
+
+            TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+        catalogReadModel.refresh();
+
+        verify(itemRepository).findAllWithVariantsByIdIn(Set.of(1L));
+    }
+
+    @Test
+    void snapshot_isACopyWithTotalStock() {
+        Variant hot = variant(31L, 2);
+        hot.setShardedStock(8);
+        Item item = item(3L, "Cap", hot);
+        when(itemRepository.findAll()).thenReturn(List.of(item));
+
+        Variant served = catalogReadModel.variants().get(0);
+        hot.setColor("Changed");
+
+        assertEquals(10, served.getStock());
+        assertEquals("Color-31", served.getColor());
+        assertNotSame(item, catalogReadModel.item(3L).orElseThrow());
+        assertThrows(UnsupportedOperationException.class, () -> catalogReadModel.items().clear());
+    }
+
+    private Item item(Long id, String name, Variant... variants) {
+        Item item = new Item();
+        item.setId(id);
+        item.setName(name);
+        item.setVariants(new ArrayList<>(List.of(variants)));
+        for (Variant variant : variants) {
+            variant.setItem(item);
+        }
+        return item;
+    }
+
+    private Variant variant(Long id, int stock) {
+        Variant variant = new Variant();
+        variant.setId(id);
+        variant.setColor("Color-" + id);
+        variant.setSize("M");
+        variant.setPrice(100D);
+        variant.setStock(stock);
+        return variant;
+    }
+}
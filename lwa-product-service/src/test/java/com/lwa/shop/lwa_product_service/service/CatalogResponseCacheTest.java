@@ -0,0 +1,135 @@
+package com.lwa.shop.lwa_product_service.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.lwa.shop.lwa_product_service.config.WireFormatConfig;
+import com.lwa.shop.lwa_product_service.exception.CustomException;
+import com.lwa.shop.lwa_product_service.model.GeneralResponse;
+import com.lwa.shop.lwa_product_service.util.ResponseUtil;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.context.request.ServletWebRequest;
+
+import java.io.ByteArrayInputStream;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class CatalogResponseCacheTest {
+
+    private CatalogReadModel catalogReadModel;
+    private CatalogResponseCache catalogResponseCache;
+    private final AtomicInteger builds = new AtomicInteger();
+
+    @BeforeEach
+    void setUp() {
+        catalogReadModel = mock(CatalogReadModel.class);
+        when(catalogReadModel.version()).thenReturn(7L);
+        catalogResponseCache = new CatalogResponseCache(catalogReadModel, new ObjectMapper(), 100);
+    }
+
+    @Test
+    void respond_encodesOncePerVersion() throws Exception {
+        ResponseEntity<?> first = respond(new MockHttpServletRequest(), new MockHttpServletResponse());
+        ResponseEntity<?> second = respond(new MockHttpServletRequest(), new MockHttpServletResponse());
+
+        assertEquals(1, builds.get());
+        assertEquals("W/\"7\"", first.getHeaders().getETag());
+        GeneralResponse<?> body = new ObjectMapper().readValue((byte[]) second.getBody(), GeneralResponse.class);
+        assertEquals(List.of("a", "b"), body.getData());
+
+        when(catalogReadModel.version()).thenReturn(8L);
+        ResponseEntity<?> third = respond(new MockHttpServletRequest(), new MockHttpServletResponse());
+
+        assertEquals(2, builds.get());
+        assertEquals("W/\"8\"", third.getHeaders().getETag());
+    }
+
+    @Test
+    void respond_servesGzipToClientsAcceptingIt() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.addHeader(HttpHeaders.ACCEPT_ENCODING, "gzip, deflate");
+
+        ResponseEntity<?> response = respond(request, new MockHttpServletResponse());
+        ResponseEntity<?> plain = respond(new MockHttpServletRequest(), new MockHttpServletResponse());
+
+        assertEquals("gzip", response.getHeaders().getFirst(HttpHeaders.CONTENT_ENCODING));
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream((byte[]) response.getBody()))) {
+            assertArrayEquals((byte[]) plain.getBody(), in.readAllBytes());
+        }
+        assertNull(plain.getHeaders().getFirst(HttpHeaders.CONTENT_ENCODING));
+        assertEquals(1, builds.get());
+    }
+
+    @Test
+    void respond_answersCurrentETagWith304WithoutBuilding() {
+        respond(new MockHttpServletRequest(), new MockHttpServletResponse());
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/items");
+        request.addHeader(HttpHeaders.IF_NONE_MATCH, "W/\"7\"");
+        MockHttpServletResponse servletResponse = new MockHttpServletResponse();
+
+        assertNull(respond(request, servletResponse));
+        assertEquals(304, servletResponse.getStatus());
+        assertEquals("Accept, Accept-Encoding", servletResponse.getHeader(HttpHeaders.VARY));
+        assertEquals(1, builds.get());
+
+        MockHttpServletRequest outdated = new MockHttpServletRequest("GET", "/items");
+        outdated.addHeader(HttpHeaders.IF_NONE_MATCH, "W/\"6\"");
+        assertEquals(200, respond(outdated, new MockHttpServletResponse()).getStatusCode().value());
+        assertEquals(1, builds.get());
+    }
+
+    @Test
+    void respond_neverAnswers304ForAMissingResource() {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/items/999999");
+        request.addHeader(HttpHeaders.IF_NONE_MATCH, "W/\"7\"");
+        MockHttpServletResponse servletResponse = new MockHttpServletResponse();
+
+        assertThrows(CustomException.class, () -> catalogResponseCache.respond(
+                new ServletWebRequest(request, servletResponse), "items/999999", () -> {
+                    throw new CustomException("Item not found with id 999999");
+                }));
+        assertNotEquals(304, servletResponse.getStatus());
+
+        ResponseEntity<?> notFound = catalogResponseCache.respond(new ServletWebRequest(request, servletResponse),
+                "items/999998", () -> ResponseEntity.status(404).build());
+        assertEquals(404, notFound.getStatusCode().value());
+        assertNotEquals(304, servletResponse.getStatus());
+    }
+
+    @Test
+    void acceptsGzip_honoursTokensAndQValues() {
+        assertTrue(CatalogResponseCache.acceptsGzip("gzip, deflate"));
+        assertTrue(CatalogResponseCache.acceptsGzip("deflate, x-gzip;q=0.5"));
+        assertTrue(CatalogResponseCache.acceptsGzip("br, *;q=0.1"));
+        assertFalse(CatalogResponseCache.acceptsGzip("gzip;q=0"));
+        assertFalse(CatalogResponseCache.acceptsGzip("identity, x-gzip-foo"));
+        assertFalse(CatalogResponseCache.acceptsGzip("gzip;q=0, *"));
+        assertFalse(CatalogResponseCache.acceptsGzip(null));
+    }
+
+    @Test
+    void respond_leavesSmileToTheMessageConverters() {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.addHeader(HttpHeaders.ACCEPT, WireFormatConfig.SMILE);
+
+        ResponseEntity<?> response = respond(request, new MockHttpServletResponse());
+
+        assertInstanceOf(GeneralResponse.class, response.getBody());
+        assertNull(response.getHeaders().getETag());
+        verify(catalogReadModel, never()).version();
+    }
+
+    private ResponseEntity<?> respond(MockHttpServletRequest request, MockHttpServletResponse response) {
+        return catalogResponseCache.respond(new ServletWebRequest(request, response), "items", () -> {
+            builds.incrementAndGet();
+            return ResponseUtil.success("Fetched all items", List.of("a", "b"));
+        });
+    }
+}
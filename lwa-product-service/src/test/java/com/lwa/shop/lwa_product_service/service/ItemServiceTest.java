@@ -17,12 +17,14 @@ import static org.mockito.Mockito.*;
 class ItemServiceTest {
 
     private ItemRepository itemRepository;
+    private CatalogReadModel catalogReadModel;
     private ItemService itemService;
 
     @BeforeEach
     void setUp() {
         itemRepository = mock(ItemRepository.class);
-        itemService = new ItemService(itemRepository);
+        catalogReadModel = mock(CatalogReadModel.class);
+        itemService = new ItemService(itemRepository, catalogReadModel);
     }
 
     @Test
@@ -32,12 +34,12 @@ class ItemServiceTest {
         Item item2 = new Item();
         item2.setName("Item 2");
 
-        when(itemRepository.findAll()).thenReturn(Arrays.asList(item1, item2));
+        when(catalogReadModel.items()).thenReturn(Arrays.asList(item1, item2));
 
         List<Item> result = itemService.getAllItems();
 
         assertEquals(2, result.size());
-        verify(itemRepository, times(1)).findAll();
+        verify(itemRepository, never()).findAll();
     }
 
     @Test
@@ -46,17 +48,17 @@ class ItemServiceTest {
         item.setId(1L);
         item.setName("Item 1");
 
-        when(itemRepository.findById(1L)).thenReturn(Optional.of(item));
+        when(catalogReadModel.item(1L)).thenReturn(Optional.of(item));
 
         Item result = itemService.getItem(1L);
 
         assertEquals("Item 1", result.getName());
-        verify(itemRepository, times(1)).findById(1L);
+        verify(itemRepository, never()).findById(1L);
     }
 
     @Test
     void testGetItem_NotFound() {
-        when(itemRepository.findById(1L)).thenReturn(Optional.empty());
+        when(catalogReadModel.item(1L)).thenReturn(Optional.empty());
 
         CustomException exception = assertThrows(CustomException.class, () -> itemService.getItem(1L));
         assertEquals("Item not found with id: 1", exception.getMessage());
@@ -73,6 +75,7 @@ class ItemServiceTest {
 
         assertEquals("New Item", result.getName());
         verify(itemRepository, times(1)).save(item);
+        verify(catalogReadModel).itemChanged(item.getId());
     }
 
     @Test
@@ -82,6 +85,7 @@ class ItemServiceTest {
         itemService.deleteItem(1L);
 
         verify(itemRepository, times(1)).deleteById(1L);
+        verify(catalogReadModel).itemChanged(1L);
     }
 
     @Test
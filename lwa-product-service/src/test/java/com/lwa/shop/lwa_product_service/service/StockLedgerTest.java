@@ -0,0 +1,239 @@
+package com.lwa.shop.lwa_product_service.service;
+
+import com.lwa.shop.lwa_product_service.entity.Item;
+import com.lwa.shop.lwa_product_service.entity.Variant;
+import com.lwa.shop.lwa_product_service.exception.CustomException;
+import com.lwa.shop.lwa_product_service.exception.ReservationStateException;
+import com.lwa.shop.lwa_product_service.model.request.ReserveStockItem;
+import com.lwa.shop.lwa_product_service.model.request.SaveVariant;
+import com.lwa.shop.lwa_product_service.repository.ItemRepository;
+import com.lwa.shop.lwa_product_service.repository.StockReservationRepository;
+import com.lwa.shop.lwa_product_service.repository.VariantRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+@DataJpaTest
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class StockLedgerTest {
+
+    @Autowired
+    private VariantRepository variantRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private StockReservationRepository stockReservationRepository;
+
+    @Autowired
+    private ItemRepository itemRepository;
+
+    @TempDir
+    Path journalDir;
+
+    private Long variantId;
+
+    @BeforeEach
+    void setUp() {
+        Variant variant = new Variant();
+        variant.setColor("Black");
+        variant.setSize("M");
+        variant.setPrice(100D);
+        variant.setStock(10);
+        variantId = variantRepository.save(variant).getId();
+    }
+
+    @Test
+    void testReduce_WritesBehindOnFlush() throws Exception {
+        StockLedger ledger = startLedger();
+
+        assertEquals(7, ledger.reduce(variantId, 3).getStock());
+        assertEquals(9, ledger.increase(variantId, 2).getStock());
+        assertEquals(10, dbStock());
+
+        ledger.flush();
+
+        assertEquals(9, dbStock());
+        ledger.stop();
+    }
+
+    @Test
+    void testReserve_AllOrNothing() throws Exception {
+        StockLedger ledger = startLedger();
+
+        assertThrows(RuntimeException.class, () -> ledger.reserve(Map.of(variantId, 11)));
+        assertEquals(10, ledger.reduce(variantId, 0).getStock());
+        ledger.stop();
+    }
+
+    @Test
+    void testReduce_UnknownOrHotVariantIsRefused() throws Exception {
+        StockLedger ledger = startLedger();
+        assertThrows(CustomException.class, () -> ledger.reduce(-1L, 1));
+
+        Variant hot = variantRepository.findById(variantId).orElseThrow();
+        hot.setStockShards(2);
+        variantRepository.save(hot);
+        assertThrows(ReservationStateException.class, () -> ledger.reduce(variantId, 1));
+        ledger.stop();
+    }
+
+    @Test
+    void testRecovery_ReplaysUnflushedEntriesOnce() throws Exception {
+        StockLedger crashed = startLedger();
+        crashed.reduce(variantId, 3);
+        crashed.flush();
+        crashed.reduce(variantId, 2);
+        // No stop: the second reduce only exists in the journal
+
+        StockLedger recovered = startLedger();
+        assertEquals(5, dbStock());
+        assertEquals(5, recovered.reduce(variantId, 0).getStock());
+        recovered.stop();
+    }
+
+    @Test
+    void testRecovery_SkipsEntriesAlreadyCheckpointed() throws Exception {
+        StockLedger ledger = startLedger();
+        ledger.reduce(variantId, 4);
+
+        // Keep a copy of the segment as if the process died between the commit and the segment delete
+        Path backup = Files.createTempDirectory("stock-journal-backup");
+        copy(journalDir, backup);
+        ledger.flush();
+        ledger.stop();
+        copy(backup, journalDir);
+
+        startLedger().stop();
+        assertEquals(6, dbStock());
+    }
+
+    @Test
+    void testReduce_ConcurrentNeverOversells() throws Exception {
+        StockLedger ledger = startLedger();
+        AtomicInteger sold = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        for (int i = 0; i < 200; i++) {
+            executor.submit(() -> {
+                try {
+                    ledger.reduce(variantId, 1);
+                    sold.incrementAndGet();
+                } catch (RuntimeException ignored) {
+                    // sold out
+                }
+            });
+        }
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+
+        ledger.flush();
+        assertEquals(10, sold.get());
+        assertEquals(0, dbStock());
+        ledger.stop();
+    }
+
+    @Test
+    void testReserve_DuplicateReservationIdGivesLedgerStockBack() throws Exception {
+        StockLedger ledger = startLedger();
+        VariantService variantService = new VariantService(variantRepository, mock(ItemRepository.class),
+                mock(OrderCacheNotifier.class), mock(VariantStockShardService.class), ledger, mock(CatalogReadModel.class));
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        List<ReserveStockItem> items = List.of(new ReserveStockItem(variantId, 3));
+
+        StockReservationService service = new StockReservationService(stockReservationRepository, variantRepository, variantService);
+        transaction.executeWithoutResult(status -> service.reserve("race-1", items));
+
+        // A concurrent reserve of the same id that looked before the first one committed
+        StockReservationRepository racing = mock(StockReservationRepository.class);
+        when(racing.findByReservationId("race-1")).thenReturn(Optional.empty());
+        when(racing.saveAndFlush(any())).thenAnswer(invocation ->
+                stockReservationRepository.saveAndFlush(invocation.getArgument(0)));
+        StockReservationService racingService = new StockReservationService(racing, variantRepository, variantService);
+
+        assertThrows(DataIntegrityViolationException.class, () ->
+                transaction.executeWithoutResult(status -> racingService.reserve("race-1", items)));
+        assertEquals(7, ledger.reduce(variantId, 0).getStock());
+        ledger.stop();
+    }
+
+    @Test
+    void testSaveVariant_ConcurrentReserveAndFlushKeepTheSavedStock() throws Exception {
+        StockLedger ledger = startLedger();
+        ledger.reduce(variantId, 1);
+        Item item = new Item();
+        item.setName("Shirt");
+        Long itemId = itemRepository.save(item).getId();
+        VariantService variantService = new VariantService(variantRepository, itemRepository,
+                mock(OrderCacheNotifier.class), mock(VariantStockShardService.class), ledger, mock(CatalogReadModel.class));
+        SaveVariant request = new SaveVariant();
+        request.setItemId(itemId);
+        request.setColor("Black");
+        request.setSize("M");
+        request.setPrice(120D);
+        request.setStock(50);
+
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            variantService.saveVariant(request, variantId);
+            // A reserve and a flush between the save and its commit
+            ledger.reduce(variantId, 3);
+            ledger.flush();
+        });
+
+        Variant reserved = ledger.reduce(variantId, 2);
+        assertEquals(48, reserved.getStock());
+        assertEquals(120D, reserved.getPrice());
+        ledger.flush();
+        assertEquals(48, dbStock());
+        ledger.stop();
+    }
+
+    private StockLedger startLedger() {
+        StockLedger ledger = new StockLedger(variantRepository, jdbcTemplate, transactionManager, mock(CatalogReadModel.class));
+        ReflectionTestUtils.setField(ledger, "enabled", true);
+        ReflectionTestUtils.setField(ledger, "journalDir", journalDir.toString());
+        ledger.start();
+        return ledger;
+    }
+
+    private int dbStock() {
+        return jdbcTemplate.queryForObject("SELECT stock FROM variant WHERE id = ?", Integer.class, variantId);
+    }
+
+    private void copy(Path from, Path to) throws Exception {
+        try (Stream<Path> files = Files.list(from)) {
+            for (Path file : files.toList()) {
+                Files.copy(file, to.resolve(file.getFileName()), StandardCopyOption.REPLACE_EXISTING);
+            }
+        }
+    }
+}
@@ -0,0 +1,113 @@
+package com.lwa.shop.lwa_product_service.service;
+
+import com.lwa.shop.lwa_product_service.entity.Variant;
+import com.lwa.shop.lwa_product_service.exception.InsufficientStockException;
+import com.lwa.shop.lwa_product_service.exception.ReservationStateException;
+import com.lwa.shop.lwa_product_service.model.request.ReserveStockItem;
+import com.lwa.shop.lwa_product_service.repository.StockReservationRepository;
+import com.lwa.shop.lwa_product_service.repository.VariantRepository;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest
+@Import({StockReservationService.class, VariantService.class, VariantStockShardService.class, StockLedger.class,
+        CatalogReadModel.class})
+class StockReservationServiceTest {
+
+    @Autowired
+    private StockReservationService stockReservationService;
+
+    @Autowired
+    private VariantRepository variantRepository;
+
+    @Autowired
+    private StockReservationRepository stockReservationRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @MockitoBean
+    private OrderCacheNotifier orderCacheNotifier;
+
+    private Long variantId;
+
+    @BeforeEach
+    void setUp() {
+        Variant variant = new Variant();
+        variant.setColor("Black");
+        variant.setSize("M");
+        variant.setPrice(100D);
+        variant.setStock(10);
+        variantId = variantRepository.save(variant).getId();
+        entityManager.flush();
+    }
+
+    @Test
+    void testReserve_ReplayDoesNotTakeStockTwice() {
+        List<ReserveStockItem> items = List.of(new ReserveStockItem(variantId, 2), new ReserveStockItem(variantId, 1));
+
+        stockReservationService.reserve("order-1", items);
+        List<Variant> replayed = stockReservationService.reserve("order-1", items);
+
+        assertEquals(1, replayed.size());
+        assertEquals(7, stock());
+    }
+
+    @Test
+    void testRelease_GivesStockBackOnce() {
+        stockReservationService.reserve("order-2", List.of(new ReserveStockItem(variantId, 4)));
+
+        stockReservationService.release("order-2");
+        stockReservationService.release("order-2");
+
+        assertEquals(10, stock());
+    }
+
+    @Test
+    void testRelease_BeforeReserveBlocksLateReserve() {
+        stockReservationService.release("order-3");
+
+        assertThrows(ReservationStateException.class, () ->
+                stockReservationService.reserve("order-3", List.of(new ReserveStockItem(variantId, 1))));
+        assertEquals(10, stock());
+    }
+
+    @Test
+    void testReserve_InsufficientStockIsConflict() {
+        assertThrows(InsufficientStockException.class, () ->
+                stockReservationService.reserve("order-4", List.of(new ReserveStockItem(variantId, 11))));
+    }
+
+    @Test
+    void testPruneReleased_DeletesOnlyOldReleasedReservations() {
+        stockReservationService.reserve("order-5", List.of(new ReserveStockItem(variantId, 1)));
+        stockReservationService.release("order-5");
+        stockReservationService.release("order-6");
+        stockReservationService.reserve("order-7", List.of(new ReserveStockItem(variantId, 1)));
+        entityManager.flush();
+        entityManager.createNativeQuery("UPDATE stock_reservation SET updated_at = DATEADD('DAY', -1, updated_at)")
+                .executeUpdate();
+        entityManager.clear();
+
+        stockReservationService.pruneReleased();
+
+        assertTrue(stockReservationRepository.findByReservationId("order-5").isEmpty());
+        assertTrue(stockReservationRepository.findByReservationId("order-6").isEmpty());
+        assertTrue(stockReservationRepository.findByReservationId("order-7").isPresent());
+    }
+
+    private int stock() {
+        entityManager.flush();
+        entityManager.clear();
+        return variantRepository.findById(variantId).orElseThrow().getStock();
+    }
+}
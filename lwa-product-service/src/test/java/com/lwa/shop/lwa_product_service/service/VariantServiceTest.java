@@ -5,12 +5,17 @@ import static org.junit.jupiter.api.Assertions.*;
 import com.lwa.shop.lwa_product_service.entity.Item;
 import com.lwa.shop.lwa_product_service.entity.Variant;
 import com.lwa.shop.lwa_product_service.exception.CustomException;
+import com.lwa.shop.lwa_product_service.exception.InvalidRequestException;
+import com.lwa.shop.lwa_product_service.exception.ReservationStateException;
+import com.lwa.shop.lwa_product_service.model.request.ReserveStockItem;
 import com.lwa.shop.lwa_product_service.model.request.SaveVariant;
+import com.lwa.shop.lwa_product_service.model.response.VariantBatch;
 import com.lwa.shop.lwa_product_service.repository.ItemRepository;
 import com.lwa.shop.lwa_product_service.repository.VariantRepository;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.*;
+import org.springframework.test.util.ReflectionTestUtils;
 
 import java.util.*;
 import static org.mockito.Mockito.*;
@@ -23,6 +28,18 @@ class VariantServiceTest {
     @Mock
     private ItemRepository itemRepository;
 
+    @Mock
+    private OrderCacheNotifier orderCacheNotifier;
+
+    @Mock
+    private VariantStockShardService variantStockShardService;
+
+    @Mock
+    private StockLedger stockLedger;
+
+    @Mock
+    private CatalogReadModel catalogReadModel;
+
     @InjectMocks
     private VariantService variantService;
 
@@ -32,6 +49,7 @@ class VariantServiceTest {
     @BeforeEach
     void setUp() {
         MockitoAnnotations.openMocks(this);
+        ReflectionTestUtils.setField(variantService, "maxBatchSize", 3);
 
         item = new Item();
         item.setId(1L);
@@ -48,13 +66,13 @@ class VariantServiceTest {
 
     @Test
     void testGetAllVariants() {
-        when(variantRepository.findAll()).thenReturn(List.of(variant));
+        when(catalogReadModel.variants()).thenReturn(List.of(variant));
 
         List<Variant> result = variantService.getAllVariants();
 
         assertEquals(1, result.size());
         assertEquals("Black", result.get(0).getColor());
-        verify(variantRepository, times(1)).findAll();
+        verify(variantRepository, never()).findAll();
     }
 
     @Test
@@ -75,6 +93,30 @@ class VariantServiceTest {
         assertThrows(CustomException.class, () -> variantService.getVariant(99L));
     }
 
+    @Test
+    void testGetVariants_PreservesOrderAndReportsMissing() {
+        Variant other = new Variant();
+        other.setId(30L);
+        other.setColor("White");
+
+        when(variantRepository.findAllById(List.of(30L, 99L, 10L))).thenReturn(List.of(variant, other));
+
+        VariantBatch batch = variantService.getVariants(List.of(30L, 99L, 10L, 30L));
+
+        assertEquals(List.of(30L, 10L), batch.getVariants().stream().map(Variant::getId).toList());
+        assertEquals(List.of(99L), batch.getMissingIds());
+        verify(variantRepository, times(1)).findAllById(any());
+        verify(variantRepository, never()).findById(anyLong());
+    }
+
+    @Test
+    void testGetVariants_TooManyIds() {
+        InvalidRequestException ex = assertThrows(InvalidRequestException.class, () ->
+                variantService.getVariants(List.of(1L, 2L, 3L, 4L)));
+        assertTrue(ex.getMessage().contains("Too many variant ids"));
+        verify(variantRepository, never()).findAllById(any());
+    }
+
     @Test
     void testSaveVariant_NewVariant() {
         SaveVariant request = new SaveVariant();
@@ -98,6 +140,7 @@ class VariantServiceTest {
         assertEquals(20L, saved.getId());
         verify(itemRepository).findById(1L);
         verify(variantRepository).save(any(Variant.class));
+        verify(orderCacheNotifier).variantChanged(20L);
     }
 
     @Test
@@ -118,6 +161,27 @@ class VariantServiceTest {
         assertEquals("Red", updated.getColor());
         assertEquals("S", updated.getSize());
         verify(variantRepository).save(any(Variant.class));
+        verify(orderCacheNotifier).variantChanged(10L);
+    }
+
+    @Test
+    void testSaveVariant_HotVariantStockGoesToShards() {
+        SaveVariant request = new SaveVariant();
+        request.setItemId(1L);
+        request.setColor("Red");
+        request.setSize("S");
+        request.setPrice(120000D);
+        request.setStock(70);
+        variant.setStockShards(4);
+
+        when(itemRepository.findById(1L)).thenReturn(Optional.of(item));
+        when(variantRepository.findById(10L)).thenReturn(Optional.of(variant));
+        when(variantRepository.save(any(Variant.class))).thenReturn(variant);
+
+        variantService.saveVariant(request, 10L);
+
+        assertEquals(0, variant.getRowStock());
+        verify(variantStockShardService).resetStock(10L, 70);
     }
 
     @Test
@@ -129,6 +193,7 @@ class VariantServiceTest {
 
         assertNotNull(result);
         verify(variantRepository).reduceStock(10L, 2);
+        verify(catalogReadModel).variantChanged(10L);
     }
 
     @Test
@@ -138,6 +203,38 @@ class VariantServiceTest {
         RuntimeException ex = assertThrows(RuntimeException.class, () ->
                 variantService.reduceStock(10L, 2));
         assertTrue(ex.getMessage().contains("Insufficient stock"));
+        verifyNoInteractions(catalogReadModel);
+    }
+
+    @Test
+    void testReduceStock_HotVariantFallsBackToShards() {
+        when(variantRepository.reduceStock(10L, 2)).thenReturn(0);
+        when(variantStockShardService.reduce(10L, 2)).thenReturn(true);
+        when(variantRepository.findById(10L)).thenReturn(Optional.of(variant));
+
+        Variant result = variantService.reduceStock(10L, 2);
+
+        assertNotNull(result);
+        verify(variantStockShardService).reduce(10L, 2);
+    }
+
+    @Test
+    void testReduceStock_LedgerEnabled() {
+        when(stockLedger.isEnabled()).thenReturn(true);
+        when(stockLedger.reduce(10L, 2)).thenReturn(variant);
+
+        Variant result = variantService.reduceStock(10L, 2);
+
+        assertSame(variant, result);
+        verifyNoInteractions(variantRepository);
+    }
+
+    @Test
+    void testEnableHotStock_RejectedWhileLedgerEnabled() {
+        when(stockLedger.isEnabled()).thenReturn(true);
+
+        assertThrows(ReservationStateException.class, () -> variantService.enableHotStock(10L, 4));
+        verifyNoInteractions(variantStockShardService);
     }
 
     @Test
@@ -160,10 +257,64 @@ class VariantServiceTest {
         assertTrue(ex.getMessage().contains("Variant not found"));
     }
 
+    @Test
+    void testReserveStock_MergesLinesAndLocksInIdOrder() {
+        when(variantRepository.reduceStock(anyLong(), anyInt())).thenReturn(1);
+        when(variantRepository.findAllById(any())).thenReturn(List.of(variant));
+
+        List<Variant> result = variantService.reserveStock(List.of(
+                new ReserveStockItem(30L, 1),
+                new ReserveStockItem(10L, 2),
+                new ReserveStockItem(30L, 4)));
+
+        assertEquals(1, result.size());
+        InOrder inOrder = inOrder(variantRepository);
+        inOrder.verify(variantRepository).reduceStock(10L, 2);
+        inOrder.verify(variantRepository).reduceStock(30L, 5);
+        verify(variantRepository, times(2)).reduceStock(anyLong(), anyInt());
+        verify(catalogReadModel).variantsChanged(Set.of(10L, 30L));
+    }
+
+    @Test
+    void testReserveStock_InsufficientStopsReservation() {
+        when(variantRepository.reduceStock(10L, 2)).thenReturn(1);
+        when(variantRepository.reduceStock(20L, 9)).thenReturn(0);
+
+        RuntimeException ex = assertThrows(RuntimeException.class, () ->
+                variantService.reserveStock(List.of(
+                        new ReserveStockItem(20L, 9),
+                        new ReserveStockItem(10L, 2),
+                        new ReserveStockItem(30L, 1))));
+        assertTrue(ex.getMessage().contains("Insufficient stock for variant id: 20"));
+        verify(variantRepository, never()).reduceStock(30L, 1);
+        verify(variantRepository, never()).findAllById(any());
+    }
+
+    @Test
+    void testReserveStock_InvalidQuantity() {
+        assertThrows(InvalidRequestException.class, () ->
+                variantService.reserveStock(List.of(new ReserveStockItem(10L, 0))));
+        assertThrows(InvalidRequestException.class, () -> variantService.reserveStock(List.of()));
+        verify(variantRepository, never()).reduceStock(anyLong(), anyInt());
+    }
+
     @Test
     void testDeleteVariant_NotFound() {
         when(variantRepository.findById(99L)).thenReturn(Optional.empty());
 
         assertThrows(RuntimeException.class, () -> variantService.deleteVariant(99L));
+        verify(orderCacheNotifier, never()).variantChanged(anyLong());
+    }
+
+    @Test
+    void testDeleteVariant_NotifiesOrderCache() {
+        item.setVariants(new ArrayList<>(List.of(variant)));
+        when(variantRepository.findById(10L)).thenReturn(Optional.of(variant));
+
+        variantService.deleteVariant(10L);
+
+        verify(variantRepository).delete(variant);
+        verify(orderCacheNotifier).variantChanged(10L);
+        verify(catalogReadModel).variantChanged(10L);
     }
 }
@@ -0,0 +1,112 @@
+package com.lwa.shop.lwa_product_service.service;
+
+import com.lwa.shop.lwa_product_service.entity.Variant;
+import com.lwa.shop.lwa_product_service.entity.VariantStockShard;
+import com.lwa.shop.lwa_product_service.exception.InvalidRequestException;
+import com.lwa.shop.lwa_product_service.repository.VariantRepository;
+import com.lwa.shop.lwa_product_service.repository.VariantStockShardRepository;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest
+@Import(VariantStockShardService.class)
+class VariantStockShardServiceTest {
+
+    @Autowired
+    private VariantStockShardService shardService;
+
+    @Autowired
+    private VariantRepository variantRepository;
+
+    @Autowired
+    private VariantStockShardRepository shardRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    private Long variantId;
+
+    @BeforeEach
+    void setUp() {
+        Variant variant = new Variant();
+        variant.setColor("Black");
+        variant.setSize("M");
+        variant.setPrice(100D);
+        variant.setStock(10);
+        variantId = variantRepository.save(variant).getId();
+        entityManager.flush();
+    }
+
+    @Test
+    void testEnable_SplitsStockAndKeepsTotal() {
+        shardService.enable(variantId, 4);
+
+        assertEquals(List.of(3, 3, 2, 2), shardStocks());
+        assertEquals(10, reload().getStock());
+        assertEquals(0, variantRepository.reduceStock(variantId, 1));
+    }
+
+    @Test
+    void testReduce_DrainsAcrossShardsWithoutOverselling() {
+        shardService.enable(variantId, 4);
+
+        // Larger than any single shard, must be taken from several
+        assertTrue(shardService.reduce(variantId, 7));
+        assertEquals(3, shardStocks().stream().mapToInt(Integer::intValue).sum());
+        assertTrue(shardStocks().stream().allMatch(stock -> stock >= 0));
+
+        assertFalse(shardService.reduce(variantId, 4));
+        assertTrue(shardService.reduce(variantId, 3));
+        assertFalse(shardService.reduce(variantId, 1));
+        assertEquals(0, reload().getStock());
+    }
+
+    @Test
+    void testIncreaseAndDisable_FoldStockBack() {
+        shardService.enable(variantId, 3);
+        assertTrue(shardService.reduce(variantId, 2));
+        assertTrue(shardService.increase(variantId, 5));
+
+        shardService.disable(variantId);
+
+        Variant variant = reload();
+        assertNull(variant.getStockShards());
+        assertEquals(13, variant.getStock());
+        assertTrue(shardRepository.lockAllByVariantId(variantId).isEmpty());
+    }
+
+    @Test
+    void testEnable_RejectsShardCountOutOfRange() {
+        assertThrows(InvalidRequestException.class, () -> shardService.enable(variantId, 0));
+        assertThrows(InvalidRequestException.class, () -> shardService.enable(variantId, VariantStockShardService.MAX_SHARDS + 1));
+        assertNull(reload().getStockShards());
+    }
+
+    @Test
+    void testReduce_NotHot() {
+        assertFalse(shardService.reduce(variantId, 1));
+        assertFalse(shardService.increase(variantId, 1));
+    }
+
+    private List<Integer> shardStocks() {
+        entityManager.flush();
+        entityManager.clear();
+        return shardRepository.lockAllByVariantId(variantId).stream()
+                .map(VariantStockShard::getStock)
+                .toList();
+    }
+
+    private Variant reload() {
+        entityManager.flush();
+        entityManager.clear();
+        return variantRepository.findById(variantId).orElseThrow();
+    }
+}